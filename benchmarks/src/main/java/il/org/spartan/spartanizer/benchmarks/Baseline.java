@@ -0,0 +1,108 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.lang.management.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+/** A plain timing loop over the benchmarks of this module, for machines where
+ * the JMH harness cannot be run. Numbers are rougher than those of JMH (no
+ * forks, no blackholes), and should be compared only with numbers of the same
+ * runner; its output is therefore in a format of its own, rather than that of
+ * JMH: a header, and a tab separated line per benchmark and parameter, with the
+ * mean time of an operation, and the bytes allocated per operation by the
+ * measuring thread, as told by its {@link ThreadMXBean}.
+ * <p>
+ * Usage: <code>Baseline [result.tsv [benchmark...]]</code>, where the
+ * optional simple names of benchmark classes restrict the run to these; the
+ * header of a restricted run says so
+ * @since 2016 */
+public final class Baseline {
+  private static final Class<?>[] BENCHMARKS = { ParseBenchmark.class, ParallelParseBenchmark.class, CollectBenchmark.class, TipperBenchmark.class,
+      FixedPointBenchmark.class, EssenceBenchmark.class, DisablingBenchmark.class };
+  private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(5);
+  private static final long MEASUREMENT_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+  public static void main(final String[] args) throws Exception {
+    final List<String> results = new ArrayList<>();
+    final List<String> only = args.length < 2 ? null : Arrays.asList(args).subList(1, args.length);
+    for (final Class<?> c : BENCHMARKS)
+      if (only == null || only.contains(c.getSimpleName()))
+        for (final String value : parameterValues(c))
+          for (final Method m : c.getMethods())
+            if (m.isAnnotationPresent(Benchmark.class))
+              results.add(run(c, value, m));
+    try (PrintStream $ = args.length == 0 ? System.out : new PrintStream(args[0], "UTF-8")) {
+      $.println("# " + Baseline.class.getName() + ": a plain timing loop, not JMH");
+      $.println("# recorded in a single run on " + new Date() + ", Java " + System.getProperty("java.version") + ", processors: "
+          + Runtime.getRuntime().availableProcessors() + (only == null ? "" : ", restricted to " + only));
+      $.println("benchmark\tparameter\tscore\tunit\tallocated B/op");
+      for (final String ¢ : results)
+        $.println(¢);
+    }
+  }
+
+  private static String run(final Class<?> c, final String value, final Method m) throws Exception {
+    final Object o = c.newInstance();
+    final Field f = parameter(c);
+    if (f != null)
+      f.set(o, value);
+    for (final Method ¢ : c.getMethods())
+      if (¢.isAnnotationPresent(Setup.class))
+        ¢.invoke(o);
+    for (final long start = System.nanoTime(); System.nanoTime() - start < WARMUP_NANOS;)
+      m.invoke(o);
+    final ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+    final long allocated = allocated(mx);
+    int operations = 0;
+    final long start = System.nanoTime();
+    long elapsed;
+    do {
+      m.invoke(o);
+      ++operations;
+    } while ((elapsed = System.nanoTime() - start) < MEASUREMENT_NANOS);
+    final long bytes = allocated(mx) - allocated;
+    final TimeUnit u = c.getAnnotation(OutputTimeUnit.class).value();
+    final double score = (double) elapsed / operations / u.toNanos(1);
+    System.err.printf("%s.%s %s: %.3f %s/op%n", c.getSimpleName(), m.getName(), value, Double.valueOf(score), unit(u));
+    return String.format(Locale.ROOT, "%s.%s\t%s\t%.3f\t%s/op\t%d", c.getSimpleName(), m.getName(), value, Double.valueOf(score), unit(u),
+        Long.valueOf(bytes / operations));
+  }
+
+  @SuppressWarnings("restriction") private static long allocated(final ThreadMXBean ¢) {
+    return !(¢ instanceof com.sun.management.ThreadMXBean) ? 0
+        : ((com.sun.management.ThreadMXBean) ¢).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static Field parameter(final Class<?> c) {
+    for (final Field $ : c.getFields())
+      if ($.isAnnotationPresent(Param.class))
+        return $;
+    return null;
+  }
+
+  private static String[] parameterValues(final Class<?> c) {
+    final Field $ = parameter(c);
+    return $ == null ? new String[] { "" } : $.getAnnotation(Param.class).value();
+  }
+
+  private static String unit(final TimeUnit ¢) {
+    switch (¢) {
+      case MICROSECONDS:
+        return "us";
+      case MILLISECONDS:
+        return "ms";
+      case NANOSECONDS:
+        return "ns";
+      default:
+        return "s";
+    }
+  }
+
+  private Baseline() {
+    // all static
+  }
+}
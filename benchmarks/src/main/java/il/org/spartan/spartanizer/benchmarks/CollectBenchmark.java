@@ -0,0 +1,51 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Time to collect the tips of parsed compilation units, and, separately, to
+ * find the first tipper of every node with {@link Toolbox#firstTipper(ASTNode)}
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class CollectBenchmark {
+  @Param({ Corpus.CASES, "synthetic-100", "synthetic-1000" }) public String input;
+  private List<CompilationUnit> units;
+  private final List<ASTNode> nodes = new ArrayList<>();
+
+  @Setup public void setup() throws IOException {
+    units = Corpus.units(input);
+    for (final CompilationUnit u : units)
+      u.accept(new ASTVisitor() {
+        @Override public void preVisit(final ASTNode ¢) {
+          nodes.add(¢);
+        }
+      });
+  }
+
+  @Benchmark public int collectTips() {
+    final Trimmer t = new Trimmer();
+    int $ = 0;
+    for (final CompilationUnit ¢ : units)
+      $ += t.collectSuggesions(¢).size();
+    return $;
+  }
+
+  @Benchmark public int firstTipper() {
+    final Toolbox t = Toolbox.defaultInstance();
+    int $ = 0;
+    for (final ASTNode ¢ : nodes)
+      try {
+        if (t.firstTipper(¢) != null)
+          ++$;
+      } catch (final RuntimeException x) {
+        // some tippers may throw, as in the trimmer
+      }
+    return $;
+  }
+}
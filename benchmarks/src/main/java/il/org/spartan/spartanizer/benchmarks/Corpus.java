@@ -0,0 +1,94 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.engine.*;
+
+/** Inputs of all benchmarks: either the files of
+ * <code>laconization-cases/</code>, or a synthetic class of a given number of
+ * methods, each offering a handful of tips.
+ * @since 2016 */
+public final class Corpus {
+  /** Value of a benchmark parameter naming the laconization cases */
+  public static final String CASES = "cases";
+  /** Prefix of a value of a benchmark parameter naming a synthetic class,
+   * followed by its number of methods */
+  public static final String SYNTHETIC = "synthetic-";
+  /** System property overriding the location of the laconization cases */
+  public static final String PROPERTY = "spartan.corpus";
+
+  /** @param name either {@link #CASES}, or {@link #SYNTHETIC} followed by a
+   *        number of methods
+   * @return texts of the sources */
+  public static List<String> sources(final String name) throws IOException {
+    return !name.startsWith(SYNTHETIC) ? cases() : Collections.singletonList(synthetic(Integer.parseInt(name.substring(SYNTHETIC.length()))));
+  }
+
+  /** @param name as in {@link #sources(String)}
+   * @return the sources, parsed */
+  public static List<CompilationUnit> units(final String name) throws IOException {
+    final List<CompilationUnit> $ = new ArrayList<>();
+    for (final String ¢ : sources(name))
+      $.add((CompilationUnit) makeAST.COMPILATION_UNIT.from(¢));
+    return $;
+  }
+
+  /** @return texts of the laconization cases, ordered by file name */
+  public static List<String> cases() throws IOException {
+    final List<String> $ = new ArrayList<>();
+    for (final File ¢ : files())
+      $.add(new String(Files.readAllBytes(¢.toPath()), StandardCharsets.UTF_8));
+    return $;
+  }
+
+  /** @return files of the laconization cases, ordered by name */
+  public static List<File> files() throws FileNotFoundException {
+    final File[] $ = directory().listFiles((d, name) -> name.endsWith(".java"));
+    if ($ == null || $.length == 0)
+      throw new FileNotFoundException("No laconization cases in " + directory().getAbsolutePath() + "; set -D" + PROPERTY);
+    Arrays.sort($);
+    return Arrays.asList($);
+  }
+
+  /** @param methods number of methods
+   * @return text of a class with this many methods, each offering a few tips
+   *         of different tippers */
+  public static String synthetic(final int methods) {
+    final StringBuilder $ = new StringBuilder("package synthetic;\n\nimport java.util.*;\n\npublic class Synthetic {\n");
+    for (int ¢ = 0; ¢ < methods; ++¢)
+      switch (¢ % 4) {
+        case 0:
+          $.append("  int f").append(¢).append("(int a, int b) {\n    int c = a * 1 + 0;\n    if (c > b) return b;\n    else return c;\n  }\n");
+          break;
+        case 1:
+          $.append("  boolean f").append(¢).append("(List<String> xs, String s) {\n    if (xs.size() == 0 || false) return true;\n")
+              .append("    for (String x : xs) if (x.equals(s) == true) return true;\n    return false;\n  }\n");
+          break;
+        case 2:
+          $.append("  String f").append(¢).append("(String s) {\n    String $ = \"\" + s;\n    if (s != null) {\n      $ = $ + \"!\";\n")
+              .append("    }\n    return $;\n  }\n");
+          break;
+        default:
+          $.append("  void f").append(¢).append("(int[] as) {\n    int i = 0;\n    while (i < as.length) {\n      as[i] = as[i] + 1;\n      ++i;\n")
+              .append("    }\n  }\n");
+      }
+    return $.append("}\n") + "";
+  }
+
+  private static File directory() {
+    final String $ = System.getProperty(PROPERTY);
+    if ($ != null)
+      return new File($);
+    final File cases = new File("laconization-cases");
+    return cases.isDirectory() ? cases : new File("../laconization-cases");
+  }
+
+  private Corpus() {
+    // all static
+  }
+}
@@ -0,0 +1,81 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Time to scan parsed compilation units, where every other method is
+ * disabled, with {@link disabling#scan(ASTNode)}, and to ask
+ * {@link disabling#on(ASTNode)} of each of their nodes, as the trimmer does;
+ * and time to look up the type of every expression, once inferred
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class DisablingBenchmark {
+  @Param({ Corpus.CASES, "synthetic-100", "synthetic-1000" }) public String input;
+  private final List<CompilationUnit> units = new ArrayList<>();
+  private final List<ASTNode> nodes = new ArrayList<>();
+  private final List<Expression> expressions = new ArrayList<>();
+
+  @SuppressWarnings("unchecked") static Javadoc disabler(final AST t) {
+    final TextElement e = t.newTextElement();
+    e.setText(disabling.disablers[0]);
+    final TagElement $ = t.newTagElement();
+    $.fragments().add(e);
+    final Javadoc j = t.newJavadoc();
+    j.tags().add($);
+    return j;
+  }
+
+  @Setup public void setup() throws IOException {
+    for (final CompilationUnit ¢ : Corpus.units(input)) {
+      ¢.accept(new ASTVisitor() {
+        int methods;
+
+        @Override public boolean visit(final MethodDeclaration d) {
+          if (methods++ % 2 == 0)
+            d.setJavadoc(disabler(d.getAST()));
+          return true;
+        }
+      });
+      final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(¢ + "");
+      units.add(u);
+      disabling.scan(u);
+      u.accept(new ASTVisitor() {
+        @Override public void preVisit(final ASTNode n) {
+          nodes.add(n);
+          if (n instanceof Expression)
+            expressions.add((Expression) n);
+        }
+      });
+    }
+    types();
+  }
+
+  @Benchmark public int disabled() {
+    int $ = 0;
+    for (final ASTNode ¢ : nodes)
+      if (disabling.on(¢))
+        ++$;
+    return $;
+  }
+
+  @Benchmark public int scan() {
+    for (final CompilationUnit ¢ : units)
+      disabling.scan(¢);
+    return units.size();
+  }
+
+  @Benchmark public int types() {
+    int $ = 0;
+    for (final Expression ¢ : expressions)
+      if (type.isString(¢))
+        ++$;
+    return $;
+  }
+}
@@ -0,0 +1,54 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.*;
+import il.org.spartan.java.*;
+import il.org.spartan.spartanizer.cmdline.*;
+import il.org.spartan.spartanizer.utils.*;
+
+/** Time to compute the token count, tide length, and essence of sources: with
+ * a {@link Tokenizer}, {@link tide#clean(String)} and {@link Essence#of(String)}
+ * , each making its own pass, or with a single {@link CodeScanner}
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class EssenceBenchmark {
+  @Param({ Corpus.CASES, "synthetic-1000" }) public String input;
+  private List<String> sources;
+  private final CodeScanner scanner = new CodeScanner();
+
+  @Setup public void setup() throws IOException {
+    sources = Corpus.sources(input);
+  }
+
+  @Benchmark public int passes() {
+    int $ = 0;
+    for (final String ¢ : sources)
+      $ += tokens(¢) + tide.clean(¢).length() + Essence.of(¢).length();
+    return $;
+  }
+
+  @Benchmark public int scanner() {
+    int $ = 0;
+    for (final String ¢ : sources) {
+      scanner.scan(¢);
+      $ += scanner.tokens() + scanner.tide() + scanner.essenceLength();
+    }
+    return $;
+  }
+
+  private static int tokens(final String s) {
+    int $ = 0;
+    for (final Tokenizer t = new Tokenizer(new StringReader(s));;) {
+      final Token ¢ = t.next();
+      if (¢ == null || ¢ == Token.EOF)
+        return $;
+      if (¢.kind != Token.Kind.COMMENT && ¢.kind != Token.Kind.NONCODE)
+        ++$;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Time for sources to converge to a fixed point under the {@link Trimmer},
+ * by full rounds, as in {@link Trimmer#fixed(String)}, and incrementally, as
+ * in {@link Trimmer#fixedIncrementally(String)}
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5)
+@Fork(1) public class FixedPointBenchmark {
+  @Param({ Corpus.CASES, "synthetic-100" }) public String input;
+  private List<String> sources;
+
+  @Setup public void setup() throws IOException {
+    sources = Corpus.sources(input);
+  }
+
+  @Benchmark public int fixed() {
+    int $ = 0;
+    for (final String ¢ : sources)
+      $ += new Trimmer().fixed(¢).length();
+    return $;
+  }
+
+  @Benchmark public int fixedIncrementally() {
+    int $ = 0;
+    for (final String ¢ : sources)
+      $ += new Trimmer().fixedIncrementally(¢).length();
+    return $;
+  }
+}
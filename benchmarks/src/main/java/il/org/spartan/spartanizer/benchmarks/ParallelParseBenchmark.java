@@ -0,0 +1,36 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.cmdline.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Time to parse the files of the laconization cases as the command line
+ * applicators do, with a given number of threads: each file is parsed with
+ * {@link FileParser#parse(File)} by the worker of a {@link ParallelBatch}
+ * which processes it
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class ParallelParseBenchmark {
+  @Param({ "1", "2", "4" }) public String threads;
+  private List<File> files;
+
+  @Setup public void setup() throws IOException {
+    files = Corpus.files();
+  }
+
+  @Benchmark public int parse() {
+    final FileParser p = new FileParser();
+    final int[] $ = { 0 };
+    new ParallelBatch(Integer.parseInt(threads)).go(files, ¢ -> {
+      final CompilationUnit u = p.parse(¢);
+      return () -> $[0] += u.getLength();
+    });
+    return $[0];
+  }
+}
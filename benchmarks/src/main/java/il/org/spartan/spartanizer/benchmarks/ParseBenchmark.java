@@ -0,0 +1,29 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.engine.*;
+
+/** Time to parse sources into compilation units, with
+ * {@link makeAST#COMPILATION_UNIT}
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class ParseBenchmark {
+  @Param({ Corpus.CASES, "synthetic-100", "synthetic-1000" }) public String input;
+  private List<String> sources;
+
+  @Setup public void setup() throws IOException {
+    sources = Corpus.sources(input);
+  }
+
+  @Benchmark public int parse() {
+    int $ = 0;
+    for (final String ¢ : sources)
+      $ += makeAST.COMPILATION_UNIT.from(¢).getLength();
+    return $;
+  }
+}
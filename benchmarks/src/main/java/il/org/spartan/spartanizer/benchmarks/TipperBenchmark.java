@@ -0,0 +1,67 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Cost of {@link Tipper#canTip(ASTNode)} and {@link Tipper#tip(ASTNode)} of
+ * individual tippers, on all nodes of the type they work on, in the
+ * laconization cases and in a synthetic class
+ * @since 2016 */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS) @Warmup(iterations = 5) @Measurement(iterations = 5)
+@Fork(1) public class TipperBenchmark {
+  /** Simple names of tippers, from package
+   * <code>il.org.spartan.spartanizer.tippers</code> */
+  @Param({ "InfixMultiplicationByOne", "InfixComparisonBooleanLiteral", "InfixComparisonSizeToZero", "DeclarationInitializerStatementTerminatingScope",
+      "MethodDeclarationRenameReturnToDollar", "WhileToForInitializers" }) public String tipper;
+  private static final String SYNTHETIC = Corpus.SYNTHETIC + 400;
+  private Tipper<ASTNode> t;
+  private final List<ASTNode> candidates = new ArrayList<>();
+  private final List<ASTNode> tippable = new ArrayList<>();
+
+  @Setup @SuppressWarnings("unchecked") public void setup() throws IOException, ReflectiveOperationException {
+    t = (Tipper<ASTNode>) Class.forName("il.org.spartan.spartanizer.tippers." + tipper).newInstance();
+    final Class<? extends ASTNode> c = t.myActualOperandsClass();
+    final List<CompilationUnit> us = Corpus.units(Corpus.CASES);
+    us.addAll(Corpus.units(SYNTHETIC));
+    for (final CompilationUnit u : us)
+      u.accept(new ASTVisitor() {
+        @Override public void preVisit(final ASTNode ¢) {
+          if (c.isInstance(¢))
+            candidates.add(¢);
+        }
+      });
+    for (final ASTNode ¢ : candidates)
+      try {
+        if (t.canTip(¢))
+          tippable.add(¢);
+      } catch (final RuntimeException x) {
+        // skipped, as in the trimmer
+      }
+  }
+
+  @Benchmark public int canTip() {
+    int $ = 0;
+    for (final ASTNode ¢ : candidates)
+      try {
+        if (t.canTip(¢))
+          ++$;
+      } catch (final RuntimeException x) {
+        // skipped, as in the trimmer
+      }
+    return $;
+  }
+
+  @Benchmark public int tip() throws TipperFailure {
+    int $ = 0;
+    for (final ASTNode ¢ : tippable)
+      if (t.tip(¢) != null)
+        ++$;
+    return $;
+  }
+}
@@ -42,6 +42,20 @@ public abstract class AbstractGUIApplicator extends Refactoring {
   private ITextSelection selection;
   final List<Tip> tips = new ArrayList<>();
   private int totalChanges;
+  /** Outcomes of the most recent scans, reused by {@link #countTips()},
+   * {@link #haveTips()} and the refactoring wizard, for as long as the text of
+   * the compilation unit, the selection and the {@link #configuration()} are
+   * the same; least recently used first, and guarded by its own lock, since
+   * builds may scan in parallel */
+  @SuppressWarnings("serial") private final Map<ICompilationUnit, Scan> scanned = new LinkedHashMap<ICompilationUnit, Scan>(SCANNED_LIMIT, 0.75f, true) {
+    @Override protected boolean removeEldestEntry(@SuppressWarnings("unused") final Map.Entry<ICompilationUnit, Scan> __) {
+      return size() > SCANNED_LIMIT;
+    }
+  };
+  /** The {@link #configuration()} with which the entries of {@link #scanned}
+   * were made */
+  private Object scannedConfiguration;
+  private static final int SCANNED_LIMIT = 16;
 
   /*** Instantiates this class, with message identical to name
    * @param name a short name of this instance */
@@ -279,11 +293,16 @@ public abstract class AbstractGUIApplicator extends Refactoring {
   }
 
   public ASTRewrite rewriterOf(final CompilationUnit u, final IMarker m, final AtomicInteger counter) {
-    progressMonitor.beginTask("Creating rewrite operation...", IProgressMonitor.UNKNOWN);
-    final ASTRewrite $ = ASTRewrite.create(u.getAST());
-    consolidateTips($, u, m, counter);
-    progressMonitor.done();
-    return $;
+    return tipsOf(new TipCollection(ASTRewrite.create(u.getAST()), counter), u, m).rewrite();
+  }
+
+  /** Traverse a compilation unit once, applying all tips to a fresh
+   * {@link ASTRewrite}, while collecting and counting them
+   * @param u JD
+   * @param m marker restricting the tips, or <code><b>null</b></code>
+   * @return the rewrite and the tips */
+  public TipCollection tipsOf(final CompilationUnit u, final IMarker m) {
+    return tipsOf(new TipCollection(u), u, m);
   }
 
   /** @param pm a progress monitor in which to display the progress of the
@@ -311,6 +330,10 @@ public abstract class AbstractGUIApplicator extends Refactoring {
 
   /** @param subject the selection to set */
   public void setSelection(final ITextSelection ¢) {
+    if (!Objects.equals(selection, ¢))
+      synchronized (scanned) {
+        scanned.clear();
+      }
     selection = ¢;
   }
 
@@ -322,7 +345,22 @@ public abstract class AbstractGUIApplicator extends Refactoring {
     return name;
   }
 
-  protected abstract void consolidateTips(ASTRewrite r, CompilationUnit u, IMarker m, final AtomicInteger counter);
+  /** @return what, besides the text and the selection, determines the tips
+   *         this instance offers, e.g., its toolbox; scans made with another
+   *         configuration are not reused */
+  protected Object configuration() {
+    return null;
+  }
+
+  /** Apply all tips found in a compilation unit to a rewrite, recording each
+   * @param $ where tips are applied and recorded
+   * @param u JD
+   * @param m marker restricting the tips, or <code><b>null</b></code> */
+  protected abstract void consolidateTips(TipCollection $, CompilationUnit u, IMarker m);
+
+  public void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m, final AtomicInteger counter) {
+    consolidateTips(new TipCollection(r, counter), u, m);
+  }
 
   public void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m) {
     consolidateTips(r, u, m, new AtomicInteger(0));
@@ -353,14 +391,40 @@ public abstract class AbstractGUIApplicator extends Refactoring {
     m.beginTask("Collecting tips for " + u.getElementName(), IProgressMonitor.UNKNOWN);
     final TextFileChange textChange = new TextFileChange(u.getElementName(), (IFile) u.getResource());
     textChange.setTextType("java");
-    final CompilationUnit cu = (CompilationUnit) Make.COMPILATION_UNIT.parser(u).createAST(m);
-    final AtomicInteger counter = new AtomicInteger(0);
-    textChange.setEdit(createRewrite(cu, counter).rewriteAST());
+    final Scan $ = scan(u, m);
+    textChange.setEdit($.edit.copy());
     if (textChange.getEdit().getLength() != 0)
       changes.add(textChange);
-    totalChanges += collectSuggesions(cu).size();
+    totalChanges += $.suggestions;
     m.done();
-    return counter.get();
+    return $.size;
+  }
+
+  /** @param u JD
+   * @param m JD
+   * @return the text edit, number of tips applied, and number of tips
+   *         suggested of a compilation unit, or these of a previous scan if its
+   *         text did not change
+   * @throws JavaModelException */
+  private Scan scan(final ICompilationUnit u, final IProgressMonitor m) throws JavaModelException {
+    final Object configuration = configuration();
+    final String source = u.getSource();
+    synchronized (scanned) {
+      if (!Objects.equals(scannedConfiguration, configuration)) {
+        scanned.clear();
+        scannedConfiguration = configuration;
+      }
+      final Scan previous = scanned.get(u);
+      if (previous != null && source != null && source.equals(previous.source))
+        return previous;
+    }
+    final CompilationUnit cu = (CompilationUnit) Make.COMPILATION_UNIT.parser(u).createAST(m);
+    final Scan $ = new Scan(source, tipsOf(cu, null));
+    synchronized (scanned) {
+      if (Objects.equals(scannedConfiguration, configuration))
+        scanned.put(u, $);
+    }
+    return $;
   }
 
   protected void scanCompilationUnitForMarkerFix(final IMarker m, final boolean preview) throws CoreException {
@@ -427,6 +491,13 @@ public abstract class AbstractGUIApplicator extends Refactoring {
     return $;
   }
 
+  private TipCollection tipsOf(final TipCollection $, final CompilationUnit u, final IMarker m) {
+    progressMonitor.beginTask("Creating rewrite operation...", IProgressMonitor.UNKNOWN);
+    consolidateTips($, u, m);
+    progressMonitor.done();
+    return $;
+  }
+
   private RefactoringStatus innerRunAsMarkerFix(final IMarker m, final boolean preview) throws CoreException {
     marker = m;
     progressMonitor.beginTask("Running refactoring...", IProgressMonitor.UNKNOWN);
@@ -513,4 +584,24 @@ public abstract class AbstractGUIApplicator extends Refactoring {
       progressMonitor.done();
     }
   }
-}
\ No newline at end of file
+
+  /** What is kept of a scan of a compilation unit: its text edit and numbers of
+   * tips, but neither its AST nor its rewrite */
+  private static final class Scan {
+    /** Text of the compilation unit scanned */
+    final String source;
+    final TextEdit edit;
+    /** Number of tips applied to the edit */
+    final int size;
+    /** Number of tips suggested, as counted by
+     * {@link AbstractGUIApplicator#countTips()} */
+    final int suggestions;
+
+    Scan(final String source, final TipCollection c) throws JavaModelException {
+      this.source = source;
+      edit = c.edit();
+      size = c.size();
+      suggestions = c.suggestions();
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package il.org.spartan.plugin;
 
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
@@ -9,6 +11,7 @@ import org.eclipse.jdt.core.dom.*;
 import il.org.spartan.plugin.PreferencesResources.*;
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
 
 /** @author Boris van Sosin <code><boris.van.sosin [at] gmail.com></code>
  * @author Ofir Elmakias <code><elmakias [at] outlook.com></code> @since
@@ -32,6 +35,12 @@ public final class Builder extends IncrementalProjectBuilder {
   /** the key in the marker's properties map under which the type of the tipper
    * used to create the marker is stored */
   public static final String SPARTANIZATION_TIPPER_KEY = "il.org.spartan.spartanizer.spartanizationTipper";
+  /** How many files have their markers updated in a single workspace
+   * operation */
+  static final int BATCH = 32;
+  /** How long to wait for an analysis before checking again for
+   * cancellation */
+  private static final long POLL_MILLIS = 100;
 
   /** deletes all spartanization tip markers
    * @param f the file from which to delete the markers
@@ -45,85 +54,256 @@ public final class Builder extends IncrementalProjectBuilder {
   }
 
   public static void incrementalBuild(final IResourceDelta d) throws CoreException {
-    d.accept(internalDelta -> {
-      final int k = internalDelta.getKind();
-      // return true to continue visiting children.
-      if (k != IResourceDelta.ADDED && k != IResourceDelta.CHANGED)
-        return true;
-      addMarkers(internalDelta.getResource());
-      return true;
-    });
+    update(javaFiles(d), new NullProgressMonitor());
   }
 
-  static void addMarkers(final IResource ¢) throws CoreException {
-    if (¢ instanceof IFile && ¢.getName().endsWith(".java"))
-      addMarkers((IFile) ¢);
+  /** Analyze files in parallel, and bring their tip markers up to date, in
+   * batches of {@link #BATCH} files per workspace operation.
+   * @param fs files to analyze
+   * @param m reports progress, and is checked for cancellation
+   * @throws CoreException if markers could not be updated
+   * @throws OperationCanceledException if the monitor was canceled; markers of
+   *         files analyzed so far are left up to date */
+  static void update(final List<IFile> fs, final IProgressMonitor m) throws CoreException {
+    update(fs, m, ResourcesPlugin.getWorkspace());
   }
 
-  private static void addMarker(final AbstractGUIApplicator a, final Tip r, final IMarker m) throws CoreException {
+  /** Same as {@link #update(List, IProgressMonitor)}, with markers updated in a
+   * given workspace
+   * @param fs files to analyze
+   * @param m reports progress, and is checked for cancellation; one half of
+   *        its work is analysis, the other is updating markers
+   * @param w where markers are updated
+   * @throws CoreException if markers could not be updated */
+  static void update(final List<IFile> fs, final IProgressMonitor m, final IWorkspace w) throws CoreException {
+    final SubMonitor sub = SubMonitor.convert(m, "Checking for spartanization opportunities", 2 * fs.size());
+    if (fs.isEmpty()) {
+      m.done();
+      return;
+    }
+    final ExecutorService pool = Executors.newFixedThreadPool(Math.min(fs.size(), Runtime.getRuntime().availableProcessors()));
+    final CompletionService<Analysis> s = new ExecutorCompletionService<>(pool);
+    try {
+      for (final IFile ¢ : fs)
+        s.submit(() -> sub.isCanceled() ? null : new Analysis(¢));
+      final List<Analysis> batch = new ArrayList<>();
+      for (int ¢ = 1; ¢ <= fs.size(); ++¢) {
+        final Analysis a = take(s, sub);
+        if (a != null)
+          batch.add(a);
+        sub.worked(1);
+        if (batch.size() >= BATCH || ¢ == fs.size()) {
+          commit(batch, w, sub.split(batch.size()));
+          batch.clear();
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+      TipCache.instance().saveLater();
+      m.done();
+    }
+  }
+
+  private static void addMarker(final Suggestion s, final IMarker m) throws CoreException {
     m.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
-    m.setAttribute(SPARTANIZATION_TYPE_KEY, a + "");
-    m.setAttribute(SPARTANIZATION_TIPPER_KEY, r.tipperClass);
-    m.setAttribute(IMarker.MESSAGE, prefix() + r.description);
-    m.setAttribute(IMarker.CHAR_START, r.from);
-    m.setAttribute(IMarker.CHAR_END, r.to);
+    m.setAttribute(SPARTANIZATION_TYPE_KEY, s.applicator);
+    m.setAttribute(SPARTANIZATION_TIPPER_KEY, s.tipperClass);
+    m.setAttribute(IMarker.MESSAGE, prefix() + s.description);
+    m.setAttribute(IMarker.CHAR_START, s.from);
+    m.setAttribute(IMarker.CHAR_END, s.to);
     m.setAttribute(IMarker.TRANSIENT, false);
-    m.setAttribute(IMarker.LINE_NUMBER, r.lineNumber);
+    m.setAttribute(IMarker.LINE_NUMBER, s.lineNumber);
   }
 
-  private static void addMarkers(final IFile ¢) throws CoreException {
-    Tips.reset();
-    deleteMarkers(¢);
-    addMarkers(¢, (CompilationUnit) makeAST.COMPILATION_UNIT.from(¢));
+  /** @param m a monitor of its own, to be begun and ended by the workspace
+   *        operation */
+  private static void commit(final List<Analysis> as, final IWorkspace w, final IProgressMonitor m) throws CoreException {
+    if (!as.isEmpty())
+      w.run(__ -> {
+        for (final Analysis ¢ : as)
+          ¢.commit();
+      }, null, IWorkspace.AVOID_UPDATE, m);
   }
 
-  private static void addMarkers(final IFile f, final CompilationUnit u) throws CoreException {
-    for (final AbstractGUIApplicator s : Tips.all())
-      for (final Tip ¢ : s.collectSuggesions(u))
-        if (¢ != null) {
-          final TipperGroup group = Toolbox.groupFor(¢.tipperClass);
-          addMarker(s, ¢, f.createMarker(group == null || group.id == null ? MARKER_TYPE : MARKER_TYPE + "." + group.name()));
-        }
+  private static boolean isJava(final IResource ¢) {
+    return ¢ instanceof IFile && ¢.getName().endsWith(".java");
+  }
+
+  private static List<IFile> javaFiles(final IResource r) throws CoreException {
+    final List<IFile> $ = new ArrayList<>();
+    r.accept(¢ -> {
+      if (isJava(¢))
+        $.add((IFile) ¢);
+      return true; // to continue visiting children.
+    });
+    return $;
+  }
+
+  private static List<IFile> javaFiles(final IResourceDelta d) throws CoreException {
+    final List<IFile> $ = new ArrayList<>();
+    d.accept(¢ -> {
+      final int k = ¢.getKind();
+      if ((k == IResourceDelta.ADDED || k == IResourceDelta.CHANGED) && isJava(¢.getResource()))
+        $.add((IFile) ¢.getResource());
+      return true; // to continue visiting children.
+    });
+    return $;
+  }
+
+  /** @return a string by which a marker is identified, so that an existing
+   *         marker is kept if an identical one is to be created */
+  private static String key(final String type, final Object... attributes) {
+    final StringBuilder $ = new StringBuilder(type);
+    for (final Object ¢ : attributes)
+      $.append('\u0000').append(¢);
+    return $ + "";
+  }
+
+  private static String key(final IMarker ¢) throws CoreException {
+    return key(¢.getType(), ¢.getAttribute(SPARTANIZATION_TYPE_KEY), ¢.getAttribute(SPARTANIZATION_TIPPER_KEY), ¢.getAttribute(IMarker.MESSAGE),
+        ¢.getAttribute(IMarker.CHAR_START), ¢.getAttribute(IMarker.CHAR_END), ¢.getAttribute(IMarker.LINE_NUMBER));
   }
 
   private static String prefix() {
     return SPARTANIZATION_SHORT_PREFIX;
   }
 
+  private static Analysis take(final CompletionService<Analysis> s, final IProgressMonitor m) {
+    for (;;) {
+      if (m.isCanceled())
+        throw new OperationCanceledException();
+      try {
+        final Future<Analysis> $ = s.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if ($ != null)
+          return $.get();
+      } catch (final InterruptedException x) {
+        monitor.logCancellationRequest(Builder.class, x);
+        Thread.currentThread().interrupt();
+        throw new OperationCanceledException();
+      } catch (final ExecutionException x) {
+        monitor.logEvaluationError(Builder.class, x.getCause());
+        return null;
+      }
+    }
+  }
+
   @Override protected IProject[] build(final int kind, @SuppressWarnings({ "unused", "rawtypes" }) final Map __, final IProgressMonitor m)
       throws CoreException {
-    if (m != null)
-      m.beginTask("Checking for spartanization opportunities", IProgressMonitor.UNKNOWN);
-    Toolbox.refresh();
-    build(kind);
-    if (m != null)
-      m.done();
+    final IResourceDelta d = kind == FULL_BUILD ? null : getDelta(getProject());
+    try {
+      update(d == null ? javaFiles(getProject()) : javaFiles(d), m != null ? m : new NullProgressMonitor());
+    } catch (final OperationCanceledException x) {
+      forgetLastBuiltState();
+      throw x;
+    }
     return null;
   }
 
   protected void fullBuild() {
     try {
-      getProject().accept(r -> {
-        addMarkers(r);
-        return true; // to continue visiting children.
-      });
+      update(javaFiles(getProject()), new NullProgressMonitor());
     } catch (final CoreException x) {
       monitor.logCancellationRequest(this, x);
     }
   }
 
-  private void build() throws CoreException {
-    final IResourceDelta d = getDelta(getProject());
-    if (d == null)
-      fullBuild();
-    else
-      incrementalBuild(d);
+  /** Tips found in a single file, computed off the build thread, or found in
+   * the {@link TipCache} */
+  static final class Analysis {
+    final IFile file;
+    /** Tips to be shown, by the key of their marker */
+    final Map<String, Suggestion> suggestions = new LinkedHashMap<>();
+
+    Analysis(final IFile file) throws CoreException {
+      this.file = file;
+      final byte[] contents = contents(file);
+      final String key = TipCache.key(contents);
+      List<Suggestion> ss = TipCache.instance().get(key);
+      if (ss == null)
+        TipCache.instance().put(key, ss = collect(text(contents, file)));
+      for (final Suggestion ¢ : ss)
+        suggestions.put(¢.key(), ¢);
+    }
+
+    /** Collects the tips of a text, with an applicator of its own, since the
+     * shared ones of {@link Tips} keep state, e.g., their progress monitor,
+     * and are not to be used by several analyses at once */
+    private static List<Suggestion> collect(final String text) {
+      final List<Suggestion> $ = new ArrayList<>();
+      final Trimmer a = new Trimmer();
+      for (final Tip ¢ : a.collectSuggesions((CompilationUnit) makeAST.COMPILATION_UNIT.from(text)))
+        if (¢ != null)
+          $.add(new Suggestion(a, ¢));
+      return $;
+    }
+
+    /** @return the text of the file, as decoded from the contents by which its
+     *         tips are cached, so that these tips are of exactly this text */
+    private static String text(final byte[] contents, final IFile f) throws CoreException {
+      try {
+        return new String(contents, f.getCharset());
+      } catch (final UnsupportedEncodingException x) {
+        throw new CoreException(new Status(IStatus.ERROR, BUILDER_ID, x.getMessage(), x));
+      }
+    }
+
+    private static byte[] contents(final IFile f) throws CoreException {
+      try (InputStream s = f.getContents(true)) {
+        final ByteArrayOutputStream $ = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1 << 14];
+        for (int n = s.read(buffer); n >= 0; n = s.read(buffer))
+          $.write(buffer, 0, n);
+        return $.toByteArray();
+      } catch (final IOException x) {
+        throw new CoreException(new Status(IStatus.ERROR, BUILDER_ID, x.getMessage(), x));
+      }
+    }
+
+    /** Bring the markers of the file up to date: markers of tips that are gone
+     * are deleted, markers of new tips are created, and all others are left
+     * untouched. */
+    void commit() throws CoreException {
+      if (!file.exists())
+        return;
+      final Map<String, Suggestion> fresh = new LinkedHashMap<>(suggestions);
+      for (final IMarker ¢ : file.findMarkers(MARKER_TYPE, true, IResource.DEPTH_ONE))
+        if (fresh.remove(key(¢)) == null)
+          ¢.delete();
+      for (final Suggestion ¢ : fresh.values())
+        addMarker(¢, file.createMarker(¢.type));
+    }
   }
 
-  private void build(final int kind) throws CoreException {
-    if (kind != FULL_BUILD)
-      build();
-    else
-      fullBuild();
+  /** What a marker of a single tip shows: the applicator and tipper that
+   * offered it, its description and its range; unlike a {@link Tip}, carries
+   * no reference to the AST, and can be kept in a {@link TipCache} */
+  static final class Suggestion {
+    final String applicator;
+    @SuppressWarnings("rawtypes") final Class<? extends Tipper> tipperClass;
+    final String description;
+    final int from;
+    final int to;
+    final int lineNumber;
+    final String type;
+
+    Suggestion(final AbstractGUIApplicator a, final Tip t) {
+      this(a + "", t.tipperClass, t.description, t.from, t.to, t.lineNumber);
+    }
+
+    Suggestion(final String applicator, @SuppressWarnings("rawtypes") final Class<? extends Tipper> tipperClass, final String description,
+        final int from, final int to, final int lineNumber) {
+      this.applicator = applicator;
+      this.tipperClass = tipperClass;
+      this.description = description;
+      this.from = from;
+      this.to = to;
+      this.lineNumber = lineNumber;
+      final TipperGroup group = Toolbox.groupFor(tipperClass);
+      type = group == null || group.id == null ? MARKER_TYPE : MARKER_TYPE + "." + group.name();
+    }
+
+    String key() {
+      return Builder.key(type, applicator, tipperClass, prefix() + description, Integer.valueOf(from), Integer.valueOf(to), Integer.valueOf(lineNumber));
+    }
   }
-}
\ No newline at end of file
+}
@@ -27,6 +27,7 @@ public final class Plugin extends AbstractUIPlugin implements IStartup {
 
   private static void startSpartan() {
     addPartListener();
+    PreferencesResources.TipperGroup.listen();
     SpartanizeableAll.go();
     RefreshAll.go();
   }
@@ -49,6 +50,7 @@ public final class Plugin extends AbstractUIPlugin implements IStartup {
 
   @Override public void stop(final BundleContext ¢) throws Exception {
     monitor.debug("STOP: spartnizer");
+    TipCache.shutdown();
     plugin = null;
     super.stop(¢);
   }
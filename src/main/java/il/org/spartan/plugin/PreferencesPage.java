@@ -41,7 +41,7 @@ public final class PreferencesPage extends FieldEditorPreferencePage implements
     final boolean $ = super.performOk();
     if (refreshNeeded.get())
       new Thread(() -> {
-        Toolbox.refresh();
+        Toolbox.invalidate();
         try {
           RefreshAll.go();
         } catch (final Exception x) {
@@ -1,5 +1,6 @@
 package il.org.spartan.plugin;
 
+import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.eclipse.jface.preference.*;
@@ -50,6 +51,23 @@ public final class PreferencesResources {
       return Plugin.plugin().getPreferenceStore();
     }
 
+    /** Make sure the shared {@link Toolbox} snapshot is discarded whenever a
+     * group is switched on or off; idempotent. */
+    public static void listen() {
+      if (Plugin.plugin() != null && !listening.getAndSet(true))
+        store().addPropertyChangeListener(¢ -> {
+          if (¢ != null && byId(¢.getProperty()) != null && !Objects.equals(¢.getOldValue(), ¢.getNewValue()))
+            Toolbox.invalidate();
+        });
+    }
+
+    private static TipperGroup byId(final String id) {
+      for (final TipperGroup $ : TipperGroup.values())
+        if ($.id.equals(id))
+          return $;
+      return null;
+    }
+
     private static TipperGroup find(final Class<? extends TipperCategory> ¢) {
       for (final TipperGroup $ : TipperGroup.values())
         if ($.clazz.isAssignableFrom(¢))
@@ -57,6 +75,7 @@ public final class PreferencesResources {
       return null;
     }
 
+    private static final AtomicBoolean listening = new AtomicBoolean();
     private final Class<? extends TipperCategory> clazz;
     final String id;
     final String label;
@@ -67,6 +86,11 @@ public final class PreferencesResources {
       label = getLabel(clazz) + "";
     }
 
+    /** @return the category of the tippers of this group */
+    public Class<? extends TipperCategory> category() {
+      return clazz;
+    }
+
     public boolean isEnabled() {
       return Plugin.plugin() == null || store().getBoolean(id);
     }
@@ -122,9 +122,9 @@ import il.org.spartan.spartanizer.tipping.*;
       return tipper != null && Toolbox.defaultInstance().get(¢.getNodeType()).contains(tipper);
     }
 
-    @SuppressWarnings("unchecked") @Override protected Tipper<N> getTipper(final ASTNode ¢) {
-      assert check(¢);
-      return !tipper.canTip((N) ¢) ? null : tipper;
+    @SuppressWarnings("unchecked") @Override protected Tipper<N> getTipper(final ASTNode n, final Speculation s) {
+      assert check(n);
+      return !tipper.canTip((N) n, s) ? null : tipper;
     }
 
     @SuppressWarnings("unchecked") public static SingleTipper<?> getApplicator(final IMarker ¢) {
@@ -0,0 +1,226 @@
+package il.org.spartan.plugin;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import org.eclipse.core.runtime.jobs.*;
+
+import il.org.spartan.plugin.Builder.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** The tips of files analyzed by the {@link Builder}, kept across builds and
+ * sessions in the state location of the plugin, so that a file whose content
+ * did not change is not parsed again. A key is made of a digest of the content
+ * of a file, the {@link Toolbox#fingerprint()} of the tippers, and the version
+ * of the plugin; a change in either simply makes old entries unreachable, and
+ * these are eventually evicted, least recently used first.
+ * @since 2016 */
+public final class TipCache {
+  /** Maximal number of files whose tips are kept */
+  static final int CAPACITY = 20_000;
+  static final String FILE_NAME = "tips.cache";
+  /** Delay, in milliseconds, between a change and saving it */
+  private static final int SAVE_DELAY = 30_000;
+  private static final int MAGIC = 0x7199CAC4;
+  /** Version of the layout of the file, written after {@link #MAGIC}; files of
+   * any other version are ignored */
+  static final int FORMAT = 2;
+  private static TipCache instance;
+
+  /** @return the cache of the running plugin, loaded on first use; if there is
+   *         no plugin, a cache that is kept only in memory */
+  public static synchronized TipCache instance() {
+    return instance = instance != null ? instance : new TipCache(stateFile(), CAPACITY).load();
+  }
+
+  /** Save the cache, if it was ever used, e.g., when the plugin is stopped */
+  public static synchronized void shutdown() {
+    if (instance != null)
+      instance.save();
+  }
+
+  /** @param content raw content of a file
+   * @return key of the tips of this content, under the current configuration
+   *         of the tippers and the current version of the plugin */
+  static String key(final byte[] content) {
+    return digest(content) + "/" + Toolbox.defaultInstance().fingerprint() + "/" + version();
+  }
+
+  static String digest(final byte[] content) {
+    try {
+      final StringBuilder $ = new StringBuilder();
+      for (final byte ¢ : MessageDigest.getInstance("SHA-1").digest(content))
+        $.append(String.format("%02x", Integer.valueOf(¢ & 0xFF)));
+      return $ + "";
+    } catch (final NoSuchAlgorithmException x) {
+      monitor.logProbableBug(TipCache.class, x);
+      return Arrays.hashCode(content) + ":" + content.length;
+    }
+  }
+
+  private static File stateFile() {
+    try {
+      return Plugin.plugin() == null ? null : Plugin.plugin().getStateLocation().append(FILE_NAME).toFile();
+    } catch (final IllegalStateException x) {
+      monitor.logEvaluationError(TipCache.class, x);
+      return null;
+    }
+  }
+
+  private static String version() {
+    return Plugin.plugin() == null ? "" : Plugin.plugin().getBundle().getVersion() + "";
+  }
+
+  /** Where entries are saved, or <code><b>null</b></code> if they are only
+   * kept in memory */
+  private final File file;
+  private final Map<String, List<Suggestion>> entries;
+  private boolean dirty;
+  private Job saver;
+
+  /** Instantiates this class
+   * @param file where to save entries; may be <code><b>null</b></code>
+   * @param capacity maximal number of entries */
+  TipCache(final File file, final int capacity) {
+    this.file = file;
+    entries = new LinkedHashMap<String, List<Suggestion>>(16, 0.75f, true) {
+      static final long serialVersionUID = 1L;
+
+      @Override protected boolean removeEldestEntry(final Map.Entry<String, List<Suggestion>> __) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /** @param key as computed by {@link #key(byte[])}
+   * @return the tips stored under this key, or <code><b>null</b></code> if
+   *         there are none */
+  synchronized List<Suggestion> get(final String key) {
+    return entries.get(key);
+  }
+
+  /** @param key as computed by {@link #key(byte[])}
+   * @param ss all tips of the file */
+  synchronized void put(final String key, final List<Suggestion> ss) {
+    entries.put(key, Collections.unmodifiableList(new ArrayList<>(ss)));
+    dirty = true;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /** Read the entries saved in the file of this instance, if any, replacing
+   * those in memory; a corrupt or outdated file is ignored.
+   * @return <code><b>this</b></code>, for easy chaining. */
+  synchronized TipCache load() {
+    if (file == null || !file.exists())
+      return this;
+    try (DataInputStream s = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (s.readInt() != MAGIC || s.readInt() != FORMAT)
+        return this;
+      final Map<String, List<Suggestion>> $ = new LinkedHashMap<>();
+      for (int n = s.readInt(); n > 0; --n) {
+        final String key = readString(s);
+        final List<Suggestion> ss = read(s);
+        if (ss != null)
+          $.put(key, ss);
+      }
+      entries.clear();
+      entries.putAll($);
+      dirty = false;
+    } catch (final IOException x) {
+      monitor.logEvaluationError(this, x);
+    }
+    return this;
+  }
+
+  /** Write all entries to the file of this instance, least recently used
+   * first, if any changed since last saved or loaded */
+  synchronized void save() {
+    if (file == null || !dirty)
+      return;
+    final File temporary = new File(file.getPath() + ".tmp");
+    try {
+      try (DataOutputStream s = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+        s.writeInt(MAGIC);
+        s.writeInt(FORMAT);
+        s.writeInt(entries.size());
+        for (final Map.Entry<String, List<Suggestion>> ¢ : entries.entrySet()) {
+          writeString(s, ¢.getKey());
+          write(s, ¢.getValue());
+        }
+      }
+      Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      dirty = false;
+    } catch (final IOException x) {
+      monitor.logEvaluationError(this, x);
+    }
+  }
+
+  /** Schedule saving, so that a burst of builds is saved once */
+  synchronized void saveLater() {
+    if (file == null || !dirty)
+      return;
+    if (saver == null) {
+      saver = Job.createSystem(pm -> save());
+      saver.setPriority(Job.DECORATE);
+    }
+    saver.schedule(SAVE_DELAY);
+  }
+
+  /** @return the tips, or <code><b>null</b></code> if a tipper class is no
+   *         longer found */
+  @SuppressWarnings({ "rawtypes", "unchecked" }) private static List<Suggestion> read(final DataInputStream s) throws IOException {
+    final List<Suggestion> $ = new ArrayList<>();
+    boolean valid = true;
+    for (int n = s.readInt(); n > 0; --n) {
+      final String applicator = readString(s), tipper = readString(s), description = readString(s);
+      final int from = s.readInt(), to = s.readInt(), lineNumber = s.readInt();
+      try {
+        $.add(new Suggestion(applicator, (Class<? extends Tipper>) Class.forName(tipper, false, TipCache.class.getClassLoader()), description, from,
+            to, lineNumber));
+      } catch (final ClassNotFoundException x) {
+        valid = false;
+      }
+    }
+    return !valid ? null : Collections.unmodifiableList($);
+  }
+
+  /** Read a string written by {@link #writeString(DataOutputStream, String)};
+   * a length beyond the end of the file means the file is corrupt, or of
+   * another version */
+  private static String readString(final DataInputStream s) throws IOException {
+    final int length = s.readInt();
+    if (length < 0 || length > s.available())
+      throw new IOException("Bad string length: " + length);
+    final byte[] $ = new byte[length];
+    s.readFully($);
+    return new String($, StandardCharsets.UTF_8);
+  }
+
+  /** Write a string as its UTF-8 bytes, preceded by their number; unlike
+   * {@link DataOutputStream#writeUTF(String)}, there is no limit of 64K on its
+   * length */
+  private static void writeString(final DataOutputStream s, final String ¢) throws IOException {
+    final byte[] $ = ¢.getBytes(StandardCharsets.UTF_8);
+    s.writeInt($.length);
+    s.write($);
+  }
+
+  private static void write(final DataOutputStream s, final List<Suggestion> ss) throws IOException {
+    s.writeInt(ss.size());
+    for (final Suggestion ¢ : ss) {
+      writeString(s, ¢.applicator);
+      writeString(s, ¢.tipperClass.getName());
+      writeString(s, ¢.description);
+      s.writeInt(¢.from);
+      s.writeInt(¢.to);
+      s.writeInt(¢.lineNumber);
+    }
+  }
+}
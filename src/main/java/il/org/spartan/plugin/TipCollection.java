@@ -0,0 +1,80 @@
+package il.org.spartan.plugin;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.rewrite.*;
+import org.eclipse.text.edits.*;
+
+import il.org.spartan.spartanizer.engine.*;
+
+/** The outcome of a single traversal of a compilation unit by an
+ * {@link AbstractGUIApplicator}: a rewrite to which all tips were applied, the
+ * tips themselves, and their number. Computed once, it serves the text change
+ * and the refactoring wizard. The tips are also pruned in a
+ * {@link TipAccumulator}, as {@link AbstractGUIApplicator#collectSuggesions}
+ * prunes them, so that {@link AbstractGUIApplicator#countTips()} counts the
+ * tips suggested, rather than those applied, without another traversal.
+ * @since 2016 */
+public final class TipCollection {
+  private final ASTRewrite rewrite;
+  private final AtomicInteger counter;
+  private final List<Tip> tips = new ArrayList<>();
+  private final TipAccumulator suggestions = new TipAccumulator();
+  private TextEdit edit;
+
+  /** Instantiates this class, with a fresh rewrite
+   * @param root JD */
+  public TipCollection(final ASTNode root) {
+    this(ASTRewrite.create(root.getAST()), new AtomicInteger(0));
+  }
+
+  /** Instantiates this class
+   * @param rewrite where tips are to be applied
+   * @param counter incremented with each tip */
+  public TipCollection(final ASTRewrite rewrite, final AtomicInteger counter) {
+    this.rewrite = rewrite;
+    this.counter = counter;
+  }
+
+  /** Record a tip, which the caller applies to {@link #rewrite()}
+   * @param ¢ JD
+   * @return <code><b>this</b></code>, for easy chaining. */
+  public TipCollection add(final Tip ¢) {
+    tips.add(¢);
+    suggestions.add(¢);
+    counter.incrementAndGet();
+    return this;
+  }
+
+  /** @return the text edit of the rewrite; computed once
+   * @throws JavaModelException if the rewrite cannot be converted */
+  public TextEdit edit() throws JavaModelException {
+    return edit != null ? edit : (edit = rewrite.rewriteAST());
+  }
+
+  public boolean isEmpty() {
+    return tips.isEmpty();
+  }
+
+  public ASTRewrite rewrite() {
+    return rewrite;
+  }
+
+  public int size() {
+    return tips.size();
+  }
+
+  /** @return number of tips suggested, i.e., of those added which no tip
+   *         added after them is included in */
+  public int suggestions() {
+    return suggestions.size();
+  }
+
+  /** @return the tips, in the order they were applied */
+  public List<Tip> tips() {
+    return Collections.unmodifiableList(tips);
+  }
+}
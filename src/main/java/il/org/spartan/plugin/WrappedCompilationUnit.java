@@ -1,5 +1,6 @@
 package il.org.spartan.plugin;
 
+import java.io.*;
 import java.util.*;
 
 import org.eclipse.jdt.core.*;
@@ -15,6 +16,9 @@ import il.org.spartan.spartanizer.engine.*;
 public class WrappedCompilationUnit {
   public ICompilationUnit descriptor;
   public CompilationUnit compilationUnit;
+  /** Source file, for a unit not in the workspace, parsed on demand by
+   * {@link #build()} */
+  public File file;
 
   /** Instantiates this class
    * @param compilationUnit JD */
@@ -30,9 +34,17 @@ public class WrappedCompilationUnit {
     compilationUnit = cu;
   }
 
+  /** Instantiates this class with a source file, which is parsed only when
+   * needed (useful for command line applicator)
+   * @param file JD */
+  public WrappedCompilationUnit(final File file) {
+    this.file = file;
+  }
+
   public WrappedCompilationUnit build() {
     if (compilationUnit == null)
-      compilationUnit = (CompilationUnit) Make.COMPILATION_UNIT.parser(descriptor).createAST(nullProgressMonitor);
+      compilationUnit = descriptor != null ? (CompilationUnit) Make.COMPILATION_UNIT.parser(descriptor).createAST(nullProgressMonitor)
+          : file == null ? null : (CompilationUnit) makeAST.COMPILATION_UNIT.from(file);
     return this;
   }
 
@@ -42,7 +54,7 @@ public class WrappedCompilationUnit {
   }
 
   public String name() {
-    return descriptor == null ? null : descriptor.getElementName();
+    return descriptor != null ? descriptor.getElementName() : file == null ? null : file.getName();
   }
 
   /** Factory method
@@ -72,6 +84,12 @@ public class WrappedCompilationUnit {
     return $;
   }
 
+  /** @param ¢ JD
+   * @return an instance, to be parsed from the parameter on demand */
+  public static WrappedCompilationUnit of(final File ¢) {
+    return new WrappedCompilationUnit(¢);
+  }
+
   /** @param from
    * @return */
   public static WrappedCompilationUnit of(final CompilationUnit from) {
@@ -30,9 +30,9 @@ public class SingleTipper<N extends ASTNode> extends Trimmer {
     return Toolbox.defaultInstance().get(¢.getNodeType()).contains(tipper);
   }
 
-  @SuppressWarnings("unchecked") @Override protected Tipper<N> getTipper(final ASTNode ¢) {
-    assert check(¢);
-    return !tipper.canTip((N) ¢) ? null : tipper;
+  @SuppressWarnings("unchecked") @Override protected Tipper<N> getTipper(final ASTNode n, final Speculation s) {
+    assert check(n);
+    return !tipper.canTip((N) n, s) ? null : tipper;
   }
 
   /** Marker resolution. Commits single tipper in current function.
@@ -52,7 +52,6 @@ public final class SingleTipperApplicator {
       final IMarker m, //
       final Type t, //
       final Tipper<?> w) {
-    Toolbox.refresh();
     final TipperApplyVisitor v = new TipperApplyVisitor($, m, t, u, w);
     if (w == null)
       u.accept(v);
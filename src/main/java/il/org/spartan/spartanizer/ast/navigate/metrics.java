@@ -1,14 +1,11 @@
 package il.org.spartan.spartanizer.ast.navigate;
 
-import java.io.*;
 import java.util.*;
 
 import org.eclipse.jdt.core.dom.*;
 
 import static il.org.spartan.spartanizer.ast.navigate.step.*;
 
-import il.org.spartan.java.*;
-import il.org.spartan.java.Token.*;
 import il.org.spartan.spartanizer.ast.safety.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.spartanizer.utils.*;
@@ -138,16 +135,10 @@ public interface metrics {
     return $;
   }
 
+  /** @param s JD
+   * @return number of tokens of the parameter, not including comments */
   static int tokens(final String s) {
-    int $ = 0;
-    for (final Tokenizer tokenizer = new Tokenizer(new StringReader(s));;) {
-      final Token t = tokenizer.next();
-      if (t == null || t == Token.EOF)
-        return $;
-      if (t.kind == Kind.COMMENT || t.kind == Kind.NONCODE)
-        continue;
-      ++$;
-    }
+    return CodeScanner.of(s).tokens();
   }
 
   static int vocabulary(final ASTNode u) {
@@ -9,7 +9,6 @@ import java.util.*;
 import java.util.function.*;
 
 import org.eclipse.core.runtime.*;
-import org.eclipse.jdt.core.*;
 import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jdt.core.dom.Assignment.*;
 import org.eclipse.jdt.core.dom.rewrite.*;
@@ -410,14 +409,7 @@ public interface wizard {
   }
 
   static ASTParser parser(final int kind) {
-    final ASTParser $ = ASTParser.newParser(ASTParser.K_COMPILATION_UNIT);
-    $.setKind(kind);
-    $.setResolveBindings(false);
-    final Map<String, String> options = JavaCore.getOptions();
-    options.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8); // or newer
-    // version
-    $.setCompilerOptions(options);
-    return $;
+    return ParserFactory.parser(kind);
   }
 
   static BodyDeclaration prune(final BodyDeclaration $, final Set<Predicate<Modifier>> ms) {
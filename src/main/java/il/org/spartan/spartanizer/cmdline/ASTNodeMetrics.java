@@ -1,13 +1,15 @@
 package il.org.spartan.spartanizer.cmdline;
 
-import static il.org.spartan.tide.*;
+import java.util.*;
 
 import org.eclipse.jdt.core.dom.*;
 
-import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.ast.safety.*;
+import il.org.spartan.spartanizer.utils.*;
 
-/** A Class that contains all the metrics for an {@link ASTNode}
+/** A Class that contains all the metrics for an {@link ASTNode}; these are
+ * computed in a single traversal of the node, and a single scan of its text,
+ * rather than in a traversal or a scan for each
  * @author Matteo Orru' */
 public class ASTNodeMetrics {
   private final ASTNode n;
@@ -18,24 +20,61 @@ public class ASTNodeMetrics {
   private int statements;
   private int tide;
   private int essence;
+  private int words;
 
   public ASTNodeMetrics(final ASTNode n) {
     this.n = n;
   }
 
   public void computeMetrics() {
+    computeMetrics(n + "", new CodeScanner());
+  }
+
+  /** @param text the text of the node, e.g., the text it was parsed from
+   * @param s a scanner, for reuse
+   * @return <code><b>this</b></code> */
+  public ASTNodeMetrics computeMetrics(final String text, final CodeScanner s) {
     length = n.getLength();
-    tokens = metrics.tokens(n + "");
-    nodes = count.nodes(n);
-    body = metrics.bodySize(n);
+    nodes = body = 0;
     final MethodDeclaration methodDeclaration = az.methodDeclaration(n);
-    statements = methodDeclaration == null ? -1 : extract.statements(methodDeclaration.getBody()).size();
-    // extract.statements(az.
-    // methodDeclaration(n)
-    // .getBody())
-    // .size();
-    tide = clean(n + "").length();
-    essence = Essence.of(n + "").length();
+    statements = methodDeclaration == null ? -1 : 0;
+    final Block top = methodDeclaration == null ? null : methodDeclaration.getBody();
+    n.accept(new ASTVisitor() {
+      /** Body of a method, whose nodes are being counted as body nodes */
+      ASTNode inner;
+      /** Blocks whose statements are counted as statements, innermost
+       * first */
+      final Deque<ASTNode> flat = new ArrayDeque<>();
+
+      @Override public void preVisit(final ASTNode ¢) {
+        ++nodes;
+        if (inner == null && ¢ != n && ¢.getLocationInParent() == MethodDeclaration.BODY_PROPERTY)
+          inner = ¢;
+        if (inner != null)
+          ++body;
+        if (¢ == top || iz.block(¢) && enclosed(¢))
+          flat.push(¢);
+        else if (¢ instanceof Statement && !iz.emptyStatement(¢) && enclosed(¢))
+          ++statements;
+      }
+
+      @Override public void postVisit(final ASTNode ¢) {
+        if (¢ == inner)
+          inner = null;
+        if (flat.peek() == ¢)
+          flat.pop();
+      }
+
+      boolean enclosed(final ASTNode ¢) {
+        return !flat.isEmpty() && flat.peek() == ¢.getParent();
+      }
+    });
+    s.scan(text);
+    tokens = s.tokens();
+    tide = s.tide();
+    essence = s.essenceLength();
+    words = s.words();
+    return this;
   }
 
   /** @return the n */
@@ -73,8 +112,14 @@ public class ASTNodeMetrics {
     return tide;
   }
 
-  /** @return the essence */
+  /** @return length of the essence, as found by {@link CodeScanner}, which
+   *         differs from that of {@link Essence#of(String)} */
   public int essence() {
     return essence;
   }
+
+  /** @return the number of words of the essence */
+  public int words() {
+    return words;
+  }
 }
\ No newline at end of file
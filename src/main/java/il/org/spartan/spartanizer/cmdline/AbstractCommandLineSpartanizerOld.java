@@ -52,6 +52,13 @@ public abstract class AbstractCommandLineSpartanizerOld {
   public abstract void apply();
 
   public void consolidateTips(final ASTRewrite r, final BodyDeclaration u) {
+    consolidateTips(r, u, new ArrayList<>());
+  }
+
+  /** @param r where tips are applied
+   * @param u JD
+   * @param ts where to add the tips applied */
+  void consolidateTips(final ASTRewrite r, final BodyDeclaration u, final List<Tip> ts) {
     toolbox = Toolbox.defaultInstance();
     u.accept(new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
@@ -60,7 +67,7 @@ public abstract class AbstractCommandLineSpartanizerOld {
           return true;
         Tipper<N> tipper = null;
         try {
-          tipper = getTipper(n);
+          tipper = getTipper(n, speculation);
         } catch (final Exception x) {
           monitor.debug(this, x);
         }
@@ -68,7 +75,7 @@ public abstract class AbstractCommandLineSpartanizerOld {
           return true;
         Tip s = null;
         try {
-          s = tipper.tip(n, exclude);
+          s = tipper.tip(n, exclude, speculation);
           tick(n, tipper);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -77,6 +84,7 @@ public abstract class AbstractCommandLineSpartanizerOld {
         }
         if (s != null) {
           ++tippersAppliedOnCurrentObject;
+          ts.add(s);
           tick2(tipper); // save coverage info
           TrimmerLog.application(r, s);
         }
@@ -132,10 +140,16 @@ public abstract class AbstractCommandLineSpartanizerOld {
     return fixedPoint(¢ + "");
   }
 
+  /** Trims a text to a fixed point, or until {@link Convergence} stops it
+   * @param from what to process
+   * @return trimmed text */
   public String fixedPoint(final String from) {
-    for (final Document $ = new Document(from);;) {
+    final Document $ = new Document(from);
+    for (final Convergence c = new Convergence(from);;) {
       final BodyDeclaration u = (BodyDeclaration) makeAST.CLASS_BODY_DECLARATIONS.from($.get());
-      final ASTRewrite r = createRewrite(u);
+      final ASTRewrite r = ASTRewrite.create(u.getAST());
+      final List<Tip> tips = new ArrayList<>();
+      consolidateTips(r, u, tips);
       final TextEdit e = r.rewriteAST($, null);
       try {
         e.apply($);
@@ -143,13 +157,13 @@ public abstract class AbstractCommandLineSpartanizerOld {
         monitor.logEvaluationError(this, x);
         throw new AssertionError(x);
       }
-      if (!e.hasChildren())
+      if (!e.hasChildren() || !c.proceed($.get(), tips))
         return $.get();
     }
   }
 
-  <N extends ASTNode> Tipper<N> getTipper(final N ¢) {
-    return toolbox.firstTipper(¢);
+  <N extends ASTNode> Tipper<N> getTipper(final N n, final Speculation s) {
+    return toolbox.firstTipper(n, s);
   }
 
   private void run() {
@@ -1,18 +1,18 @@
 package il.org.spartan.spartanizer.cmdline;
 
-import static il.org.spartan.tide.*;
-
 import java.io.*;
+import java.util.*;
+import java.util.stream.*;
 
 import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jface.text.*;
 
 import il.org.spartan.*;
 import il.org.spartan.collections.*;
-import il.org.spartan.plugin.*;
 import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
-import il.org.spartan.utils.*;
+import il.org.spartan.spartanizer.utils.*;
 
 /** Scans files named by folder, ignore test files, and collect statistics.
  * @author Yossi Gil
@@ -25,6 +25,7 @@ public final class BatchSpartanizer {
   private static boolean defaultDir;
   private static String outputDir;
   private static String inputDir;
+  private static int threads = ParallelBatch.THREADS_DEFAULT;
 
   public static void main(final String[] args) {
     if (args.length == 0)
@@ -67,6 +68,8 @@ public final class BatchSpartanizer {
     System.out.println("  -d       default directory: use the current directory for the analysis");
     System.out.println("  -o       output directory: here go the results of the analysis");
     System.out.println("  -i       input directory: place here the projects that you want to analyze.");
+    System.out.println("  --threads <num>  number of files processed concurrently (0: one per processor; default: 1)");
+    System.out.println("  --incremental    after the first round, re-trim only the methods changed");
     System.out.println("");
   }
 
@@ -84,6 +87,12 @@ public final class BatchSpartanizer {
       } else if ("-d".equals(args[¢])) {
         inputDir = ".";
         ¢ += 1;
+      } else if ("--incremental".equals(args[¢])) {
+        interactiveSpartanizer.incremental = true;
+        ¢ += 1;
+      } else if ("--threads".equals(args[¢])) {
+        threads = ParallelBatch.threads(args[¢ + 1]);
+        ¢ += 2;
       } else {
         System.out.println(args[¢]);
         System.out.println("[ERROR]: Something went wrong!");
@@ -92,11 +101,14 @@ public final class BatchSpartanizer {
   }
 
   private int classesDone;
+  private final FileParser parser = new FileParser();
   private final String inputPath;
   private final String beforeFileName;
   private final String afterFileName;
   private PrintWriter befores;
   private PrintWriter afters;
+  private EssenceWriter beforeEssence;
+  private EssenceWriter afterEssence;
   private CSVStatistics report;
   private final String reportFileName;
 
@@ -114,96 +126,112 @@ public final class BatchSpartanizer {
       System.out.println(dir.mkdir());
   }
 
-  boolean collect(final AbstractTypeDeclaration in) {
-    final int length = in.getLength();
-    final int tokens = metrics.tokens(in + "");
-    final int nodes = count.nodes(in);
-    final int body = metrics.bodySize(in);
-    final int tide = clean(in + "").length();
-    final int essence = code.essence(in + "").length();
-    final String out = interactiveSpartanizer.fixedPoint(in + "");
-    final int length2 = out.length();
-    final int tokens2 = metrics.tokens(out);
-    final int tide2 = clean(out + "").length();
-    final int essence2 = code.essence(out + "").length();
-    final int wordCount = code.wc(code.essence(out + ""));
-    final ASTNode from = makeAST.COMPILATION_UNIT.from(out);
-    final int nodes2 = count.nodes(from);
-    final int body2 = metrics.bodySize(from);
-    System.err.println(++classesDone + " " + extract.category(in) + " " + extract.name(in));
-    befores.print(in);
-    afters.print(out);
-    report.summaryFileName();
-    report//
-        .put("TipperCategory", extract.category(in))//
-        .put("Name", extract.name(in))//
-        .put("Nodes1", nodes)//
-        .put("Nodes2", nodes2)//
-        .put("Δ Nodes", nodes - nodes2)//
-        .put("δ Nodes", system.d(nodes, nodes2))//
-        .put("δ Nodes %", system.p(nodes, nodes2))//
-        .put("Body", body)//
-        .put("Body2", body2)//
-        .put("Δ Body", body - body2)//
-        .put("δ Body", system.d(body, body2))//
-        .put("% Body", system.p(body, body2))//
-        .put("Length1", length)//
-        .put("Tokens1", tokens)//
-        .put("Tokens2", tokens2)//
-        .put("Δ Tokens", tokens - tokens2)//
-        .put("δ Tokens", system.d(tokens, tokens2))//
-        .put("% Tokens", system.p(tokens, tokens2))//
-        .put("Length1", length)//
-        .put("Length2", length2)//
-        .put("Δ Length", length - length2)//
-        .put("δ Length", system.d(length, length2))//
-        .put("% Length", system.p(length, length2))//
-        .put("Tide1", tide)//
-        .put("Tide2", tide2)//
-        .put("Δ Tide2", tide - tide2)//
-        .put("δ Tide2", system.d(tide, tide2))//
-        .put("δ Tide2", system.p(tide, tide2))//
-        .put("Essence1", essence)//
-        .put("Essence2", essence2)//
-        .put("Δ Essence", essence - essence2)//
-        .put("δ Essence", system.d(essence, essence2))//
-        .put("% Essence", system.p(essence, essence2))//
-        .put("Words)", wordCount).put("R(T/L)", system.ratio(length, tide)) //
-        .put("R(E/L)", system.ratio(length, essence)) //
-        .put("R(E/T)", system.ratio(tide, essence)) //
-        .put("R(B/S)", system.ratio(nodes, body)) //
-    ;
-    report.nl();
-    return false;
+  /** Computes the statistics of a single type; all output is deferred to the
+   * returned action, so that this function is safe to call concurrently
+   * @param in JD
+   * @return an action writing the before/after text and the CSV row */
+  Runnable collect(final AbstractTypeDeclaration in) {
+    final String before = in + "";
+    final CodeScanner scanner = new CodeScanner();
+    final ASTNodeMetrics m1 = new ASTNodeMetrics(in).computeMetrics(before, scanner);
+    final Document d = new Document(before);
+    final CompilationUnit u = interactiveSpartanizer.fixedPoint(d);
+    final String out = d.get();
+    final ASTNodeMetrics m2 = new ASTNodeMetrics(u).computeMetrics(out, scanner);
+    final int length = m1.length(), length2 = m2.length();
+    final int tokens = m1.tokens(), tokens2 = m2.tokens();
+    final int nodes = m1.nodes(), nodes2 = m2.nodes();
+    final int body = m1.body(), body2 = m2.body();
+    final int tide = m1.tide(), tide2 = m2.tide();
+    final String essenceOut = code.essence(out);
+    final int essence = code.essence(before).length(), essence2 = essenceOut.length();
+    final int wordCount = code.wc(essenceOut);
+    final int lexed = m1.essence(), lexed2 = m2.essence();
+    final int lexedWords = m2.words();
+    final String category = extract.category(in);
+    final String name = extract.name(in);
+    return () -> {
+      System.err.println(++classesDone + " " + category + " " + name);
+      befores.print(before);
+      afters.print(out);
+      report.summaryFileName();
+      report//
+          .put("TipperCategory", category)//
+          .put("Name", name)//
+          .put("Nodes1", nodes)//
+          .put("Nodes2", nodes2)//
+          .put("Δ Nodes", nodes - nodes2)//
+          .put("δ Nodes", system.d(nodes, nodes2))//
+          .put("δ Nodes %", system.p(nodes, nodes2))//
+          .put("Body", body)//
+          .put("Body2", body2)//
+          .put("Δ Body", body - body2)//
+          .put("δ Body", system.d(body, body2))//
+          .put("% Body", system.p(body, body2))//
+          .put("Length1", length)//
+          .put("Tokens1", tokens)//
+          .put("Tokens2", tokens2)//
+          .put("Δ Tokens", tokens - tokens2)//
+          .put("δ Tokens", system.d(tokens, tokens2))//
+          .put("% Tokens", system.p(tokens, tokens2))//
+          .put("Length1", length)//
+          .put("Length2", length2)//
+          .put("Δ Length", length - length2)//
+          .put("δ Length", system.d(length, length2))//
+          .put("% Length", system.p(length, length2))//
+          .put("Tide1", tide)//
+          .put("Tide2", tide2)//
+          .put("Δ Tide2", tide - tide2)//
+          .put("δ Tide2", system.d(tide, tide2))//
+          .put("δ Tide2", system.p(tide, tide2))//
+          .put("Essence1", essence)//
+          .put("Essence2", essence2)//
+          .put("Δ Essence", essence - essence2)//
+          .put("δ Essence", system.d(essence, essence2))//
+          .put("% Essence", system.p(essence, essence2))//
+          .put("Words)", wordCount)//
+          .put("Lexed Essence1", lexed)//
+          .put("Lexed Essence2", lexed2)//
+          .put("Lexed Words", lexedWords)//
+          .put("R(T/L)", system.ratio(length, tide)) //
+          .put("R(E/L)", system.ratio(length, essence)) //
+          .put("R(E/T)", system.ratio(tide, essence)) //
+          .put("R(B/S)", system.ratio(nodes, body)) //
+      ;
+      report.nl();
+    };
   }
 
-  void collect(final CompilationUnit u) {
+  List<Runnable> collect(final CompilationUnit u) {
+    final List<Runnable> $ = new ArrayList<>();
     u.accept(new ASTVisitor() {
       @Override public boolean visit(final AnnotationTypeDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(¢));
       }
 
       @Override public boolean visit(final EnumDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(¢));
       }
 
       @Override public boolean visit(final TypeDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(¢));
       }
     });
+    return $;
   }
 
-  void collect(final File f) {
-    if (!system.isTestFile(f))
-      try {
-        collect(FileUtils.read(f));
-      } catch (final IOException e) {
-        monitor.infoIOException(e, "File = " + f);
-      }
+  /** @param u JD, or <code><b>null</b></code> for a file that could not be
+   *        read
+   * @return an action writing the results of all types of the parameter */
+  Runnable collectAll(final CompilationUnit u) {
+    if (u == null)
+      return null;
+    final List<Runnable> $ = collect(u);
+    return () -> $.forEach(Runnable::run);
   }
 
-  void collect(final String javaCode) {
-    collect((CompilationUnit) makeAST.COMPILATION_UNIT.from(javaCode));
+  List<Runnable> collect(final String javaCode) {
+    return collect((CompilationUnit) makeAST.COMPILATION_UNIT.from(javaCode));
   }
 
   void fire() {
@@ -216,23 +244,16 @@ public final class BatchSpartanizer {
     );
   }
 
+  /** Reports the essence of the before and after files, which was computed,
+   * along with their <code>.essence</code> files, while these were written */
   void runEssence() {
-    system.shellEssenceMetrics(beforeFileName);
-    system.shellEssenceMetrics(afterFileName);
-  }
-
-  private void applyEssenceCommandLine() {
-    try {
-      final String essentializedCodeBefore = system.runScript(beforeFileName);
-      final String essentializedCodeAfter = system.runScript(afterFileName);
-      final int numWordEssentialBefore = essentializedCodeBefore.trim().length();
-      final int numWordEssentialAfter = essentializedCodeAfter.trim().length();
-      System.err.println("Word Count Essentialized before: " + numWordEssentialBefore);
-      System.err.println("Word Count Essentialized after: " + numWordEssentialAfter);
-      System.err.println("Difference: " + (numWordEssentialAfter - numWordEssentialBefore));
-    } catch (final IOException e) {
-      System.err.println(e.getMessage());
-    }
+    if (beforeEssence == null || afterEssence == null)
+      return;
+    final long numWordEssentialBefore = beforeEssence.essenceLength();
+    final long numWordEssentialAfter = afterEssence.essenceLength();
+    System.err.println("Word Count Essentialized before: " + numWordEssentialBefore);
+    System.err.println("Word Count Essentialized after: " + numWordEssentialAfter);
+    System.err.println("Difference: " + (numWordEssentialAfter - numWordEssentialBefore));
   }
 
   private void collect() {
@@ -244,24 +265,50 @@ public final class BatchSpartanizer {
         inputPath, //
         beforeFileName, //
         afterFileName);
-    try (PrintWriter b = new PrintWriter(new FileWriter(beforeFileName)); //
-        PrintWriter a = new PrintWriter(new FileWriter(afterFileName))) {
-      befores = b;
-      afters = a;
+    try (EssenceWriter b = EssenceWriter.to(beforeFileName); //
+        EssenceWriter a = EssenceWriter.to(afterFileName)) {
+      beforeEssence = b;
+      afterEssence = a;
+      befores = new PrintWriter(b);
+      afters = new PrintWriter(a);
       report = new CSVStatistics(reportFileName, "property");
-      for (final File ¢ : new FilesGenerator(".java").from(inputPath))
-        collect(¢);
+      new ParallelBatch(threads).go(sources(inputPath), ¢ -> collectAll(parser.parse(¢)));
     } catch (final IOException x) {
       x.printStackTrace();
       System.err.println(classesDone + " files processed; processing of " + inputPath + " failed for some I/O reason");
     }
-    applyEssenceCommandLine();
     System.err.print("\n Done: " + classesDone + " files processed.");
+    System.err.print("\n Parsing: " + parser.throughput());
     System.err.print("\n Summary: " + report.close());
   }
 
+  /** Prints what <code>wc</code> would, for the before and after files, and
+   * their <code>.essence</code> files */
   private void runWordCount() {
-    system.bash("wc " + separate.these(beforeFileName, afterFileName, system.essenced(beforeFileName), system.essenced(afterFileName)));
+    if (beforeEssence == null || afterEssence == null)
+      return;
+    final String[] names = { beforeFileName, afterFileName, system.essenced(beforeFileName), system.essenced(afterFileName) };
+    final long[] lines = { beforeEssence.lines(), afterEssence.lines(), beforeEssence.essenceLines(), afterEssence.essenceLines() };
+    final long[] words = { beforeEssence.words(), afterEssence.words(), beforeEssence.essenceWords(), afterEssence.essenceWords() };
+    final long[] bytes = new long[names.length];
+    long totalLines = 0, totalWords = 0, totalBytes = 0;
+    for (int ¢ = 0; ¢ < names.length; ++¢) {
+      totalLines += lines[¢];
+      totalWords += words[¢];
+      totalBytes += bytes[¢] = new File(names[¢]).length();
+    }
+    final String format = "%" + Math.max(1, (totalBytes + "").length()) + "d";
+    final String line = format + " " + format + " " + format + " %s%n";
+    for (int ¢ = 0; ¢ < names.length; ++¢)
+      System.out.printf(line, box.it(lines[¢]), box.it(words[¢]), box.it(bytes[¢]), names[¢]);
+    System.out.printf(line, box.it(totalLines), box.it(totalWords), box.it(totalBytes), "total");
+  }
+
+  /** @param path JD
+   * @return all <code>.java</code> files under the path, except for test
+   *         files */
+  private static Iterable<File> sources(final String path) {
+    return () -> StreamSupport.stream(new FilesGenerator(".java").from(path).spliterator(), false).filter(¢ -> !system.isTestFile(¢)).iterator();
   }
 
   private static boolean containsJavaFileOrJavaFileItSelf(final File f) {
@@ -230,8 +230,9 @@ public final class BatchSpartanizerApplication implements IApplication {
     final int length2 = out.length();
     final int tokens2 = metrics.tokens(out);
     final int tide2 = clean(out + "").length();
-    final int essence2 = code.essence(out + "").length();
-    final int wordCount = code.wc(code.essence(out + ""));
+    final String essenceOut = code.essence(out);
+    final int essence2 = essenceOut.length();
+    final int wordCount = code.wc(essenceOut);
     final ASTNode from = makeAST.COMPILATION_UNIT.from(out);
     final int nodes2 = count.nodes(from);
     final int body2 = metrics.bodySize(from);
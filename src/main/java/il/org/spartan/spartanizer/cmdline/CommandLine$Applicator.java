@@ -28,24 +28,41 @@ public class CommandLine$Applicator {
   final ChainStringToIntegerMap coverage = new ChainStringToIntegerMap();
 
   void go(final CompilationUnit u) {
+    for (final Runnable ¢ : trim(u))
+      ¢.run();
+  }
+
+  /** Trims the selected declarations of a compilation unit, deferring all
+   * output to the returned actions. The receiver is not modified until these
+   * actions run, so this function may be invoked concurrently.
+   * @param u JD
+   * @return actions to be run in order, writing the results */
+  List<Runnable> trim(final CompilationUnit u) {
+    final List<Runnable> $ = new ArrayList<>();
     u.accept(new ASTVisitor() {
       @Override public boolean preVisit2(final ASTNode ¢) {
         assert ¢ != null;
-        return !selectedNodeTypes.contains(¢.getClass()) || go(¢);
+        return !selectedNodeTypes.contains(¢.getClass()) || !$.add(trim(¢));
       }
     });
+    return $;
   }
 
   boolean go(final ASTNode input) {
-    tippersAppliedOnCurrentObject = 0;
-    final String output = fixedPoint(input);
-    final ASTNode outputASTNode = makeAST.CLASS_BODY_DECLARATIONS.from(output);
-    Reports.printFile(input + "", "before");
-    Reports.printFile(output, "after");
-    computeMetrics(input, outputASTNode);
+    trim(input).run();
     return false;
   }
 
+  private Runnable trim(final ASTNode input) {
+    final String output = new CommandLine$Applicator().fixedPoint(input);
+    final ASTNode outputASTNode = makeAST.CLASS_BODY_DECLARATIONS.from(output);
+    return () -> {
+      Reports.printFile(input + "", "before");
+      Reports.printFile(output, "after");
+      computeMetrics(input, outputASTNode);
+    };
+  }
+
   @SuppressWarnings("boxing") protected void computeMetrics(final ASTNode input, final ASTNode output) {
     System.err.println(++done + " " + extract.category(input) + " " + extract.name(input));
     Reports.summaryFileName("metrics");
@@ -62,10 +79,16 @@ public class CommandLine$Applicator {
     return fixedPoint(¢ + "");
   }
 
+  /** Trims a text to a fixed point, or until {@link Convergence} stops it
+   * @param from what to process
+   * @return trimmed text */
   public String fixedPoint(final String from) {
-    for (final Document $ = new Document(from);;) {
+    final Document $ = new Document(from);
+    for (final Convergence c = new Convergence(from);;) {
       final BodyDeclaration u = (BodyDeclaration) makeAST.CLASS_BODY_DECLARATIONS.from($.get());
-      final ASTRewrite r = createRewrite(u);
+      final ASTRewrite r = ASTRewrite.create(u.getAST());
+      final List<Tip> tips = new ArrayList<>();
+      consolidateTips(r, u, tips);
       final TextEdit e = r.rewriteAST($, null);
       try {
         e.apply($);
@@ -73,7 +96,7 @@ public class CommandLine$Applicator {
         monitor.logEvaluationError(this, x);
         throw new AssertionError(x);
       }
-      if (!e.hasChildren())
+      if (!e.hasChildren() || !c.proceed($.get(), tips))
         return $.get();
     }
   }
@@ -85,6 +108,13 @@ public class CommandLine$Applicator {
   }
 
   public void consolidateTips(final ASTRewrite r, final BodyDeclaration u) {
+    consolidateTips(r, u, new ArrayList<>());
+  }
+
+  /** @param r where tips are applied
+   * @param u JD
+   * @param ts where to add the tips applied */
+  void consolidateTips(final ASTRewrite r, final BodyDeclaration u, final List<Tip> ts) {
     toolbox = Toolbox.defaultInstance();
     u.accept(new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
@@ -93,7 +123,7 @@ public class CommandLine$Applicator {
           return true;
         Tipper<N> tipper = null;
         try {
-          tipper = getTipper(n);
+          tipper = getTipper(n, speculation);
         } catch (final Exception x) {
           monitor.debug(this, x);
         }
@@ -101,7 +131,7 @@ public class CommandLine$Applicator {
           return true;
         Tip s = null;
         try {
-          s = tipper.tip(n, exclude);
+          s = tipper.tip(n, exclude, speculation);
           // tick(n, tipper);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -110,6 +140,7 @@ public class CommandLine$Applicator {
         }
         if (s != null) {
           ++tippersAppliedOnCurrentObject;
+          ts.add(s);
           // tick2(tipper); // save coverage info
           TrimmerLog.application(r, s);
         }
@@ -122,7 +153,7 @@ public class CommandLine$Applicator {
     });
   }
 
-  <N extends ASTNode> Tipper<N> getTipper(final N ¢) {
-    return toolbox.firstTipper(¢);
+  <N extends ASTNode> Tipper<N> getTipper(final N n, final Speculation s) {
+    return toolbox.firstTipper(n, s);
   }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package il.org.spartan.spartanizer.cmdline;
 
+import java.util.*;
+
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.engine.*;
 
 /** An {@link Applicator} suitable for the command line.
  * @author Matteo Orru'
@@ -11,11 +14,36 @@ public class CommandLineApplicator extends Applicator {
   private static final int PASSES_FEW = 1;
   private static final int PASSES_MANY = 20;
 
-  public static Applicator defaultApplicator() {
+  public static CommandLineApplicator defaultApplicator() {
     return new CommandLineApplicator().defaultSettings();
   }
 
   private final CommandLine$Applicator a = new CommandLine$Applicator();
+  /** Number of compilation units processed concurrently */
+  private int threads = ParallelBatch.THREADS_DEFAULT;
+
+  /** Parses the files of the selection, by whichever thread needs them */
+  private final FileParser parser = new FileParser();
+
+  /** @return parser of the files of the selection, which also keeps count of
+   *         the parsing throughput */
+  public FileParser parser() {
+    return parser;
+  }
+
+  /** @return number of compilation units processed concurrently */
+  public int threads() {
+    return threads;
+  }
+
+  /** Determines the number of compilation units processed concurrently.
+   * Results are written in the order of the selection regardless.
+   * @param ¢ JD
+   * @return this applicator */
+  public CommandLineApplicator threads(final int ¢) {
+    threads = ¢;
+    return this;
+  }
 
   /** Default listener configuration. Simple
    * printing to console.
@@ -112,7 +140,7 @@ public class CommandLineApplicator extends Applicator {
   }
 
   /** @return this */
-  private Applicator defaultSettings() {
+  private CommandLineApplicator defaultSettings() {
     return defaultListenerSilent().defaultPassesFew()
                                   .defaultRunContext()
                                   .defaultSelection()
@@ -123,10 +151,19 @@ public class CommandLineApplicator extends Applicator {
    *
    * @see il.org.spartan.plugin.revision.Applicator#go() */
   @Override public void go() {
-    if (selection() != null && listener() != null && passes() > 0 && !selection().isEmpty())
-      for (final CompilationUnit ¢ : ((CommandLineSelection) selection()).getCompilationUnits()) {
-        assert ¢ != null;
-        a.go(¢);
-      }
+    if (selection() == null || listener() == null || passes() <= 0 || selection().isEmpty())
+      return;
+    final CommandLineSelection s = (CommandLineSelection) selection();
+    // a single thread parses ahead; otherwise, workers parse on their own
+    new ParallelBatch(threads).go(threads < 2 ? s.prefetched(CommandLineSelection.PREFETCH_DEFAULT, parser) : s.get(), ¢ -> {
+      CommandLineSelection.parse(Collections.singletonList(¢), parser);
+      final CompilationUnit u = ¢.build().compilationUnit;
+      if (¢.file != null) // can be parsed again, if ever needed
+        ¢.dispose();
+      if (u == null)
+        return null;
+      final List<Runnable> $ = a.trim(u);
+      return () -> $.forEach(Runnable::run);
+    });
   }
 }
@@ -1,13 +1,27 @@
 package il.org.spartan.spartanizer.cmdline;
 
+import java.util.*;
+
 /** Simplified version of command line client that uses spartizer applicator
  * @author Matteo Orru' */
 public class CommandLineClient { // extends AbstractCommandLineSpartanizer{
   // TODO Matteo: Add instruction to parse command line
   // TODO Matteo: Add prompt help
   public static void main(final String[] args) {
-    for (final String ¢ : args.length != 0 ? args : new String[] { "." })
-      new CommandLineSpartanizer(¢).fire();
+    final List<String> paths = new ArrayList<>();
+    int threads = ParallelBatch.THREADS_DEFAULT;
+    for (int ¢ = 0; ¢ < args.length; ++¢)
+      if (!"--threads".equals(args[¢]) || ¢ + 1 == args.length)
+        paths.add(args[¢]);
+      else
+        threads = ParallelBatch.threads(args[++¢]);
+    if (paths.isEmpty())
+      paths.add(".");
+    for (final String ¢ : paths) {
+      final CommandLineSpartanizer s = new CommandLineSpartanizer(¢);
+      s.threads = threads;
+      s.fire();
+    }
   }
   
   static void printPrompt() {
@@ -22,6 +36,7 @@ public class CommandLineClient { // extends AbstractCommandLineSpartanizer{
     System.out.println("  -E       Display statistics for each file separately");
     System.out.println("  -V       Be verbose");
     System.out.println("  -L       printout logs");
+    System.out.println("  --threads <num>  number of files processed concurrently (0: one per processor; default: 1)");
     System.out.println("");
     System.out.println("Print statistics:");
     System.out.println("  -l       Show the number of lines before and after spartanization");
@@ -2,32 +2,55 @@ package il.org.spartan.spartanizer.cmdline;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.collections.*;
 import il.org.spartan.plugin.*;
 import il.org.spartan.spartanizer.engine.*;
-import il.org.spartan.utils.*;
 
 /** Selection useful to deal with projects using the command line
  * @author Matteo Orru'
  * @since 2016 */
 public class CommandLineSelection extends AbstractSelection<CommandLineSelection> {
-  private List<WrappedCompilationUnit> compilationUnits;
+  /** Default number of compilation units parsed ahead of their use */
+  public static final int PREFETCH_DEFAULT = 4;
 
   public CommandLineSelection(final List<WrappedCompilationUnit> compilationUnits, final String name) {
     inner = compilationUnits != null ? compilationUnits : new ArrayList<>();
     this.name = name;
   }
 
+  /** Parses all units of this selection, and keeps them all in memory; prefer
+   * {@link #prefetched(int)} for large selections.
+   * @return the compilation units of this selection */
   public List<CompilationUnit> getCompilationUnits() {
+    buildAll();
     final List<CompilationUnit> $ = new ArrayList<>();
     for (final WrappedCompilationUnit ¢ : inner)
       $.add(¢.compilationUnit);
     return $;
   }
 
+  /** @param ahead maximal number of units parsed ahead of their use
+   * @return the units of this selection, in order, each parsed by a
+   *         background thread before it is returned; a consumer should
+   *         {@link WrappedCompilationUnit#dispose()} each unit once done with
+   *         it, so that at most a few ASTs are in memory at any time */
+  public Iterable<WrappedCompilationUnit> prefetched(final int ahead) {
+    return prefetched(ahead, new FileParser());
+  }
+
+  /** @param ahead maximal number of units parsed ahead of their use
+   * @param p parses the files of units, keeping count of the parsing
+   *        throughput
+   * @return the units of this selection, in order, as in
+   *         {@link #prefetched(int)} */
+  public Iterable<WrappedCompilationUnit> prefetched(final int ahead, final FileParser p) {
+    return () -> new Prefetcher(inner, ahead, p);
+  }
+
   public List<WrappedCompilationUnit> get() {
     return inner;
   }
@@ -61,29 +84,39 @@ public class CommandLineSelection extends AbstractSelection<CommandLineSelection
       return getFromPath(from);
     }
 
+    /** @param path JD
+     * @return a selection of all <code>.java</code> files under the path,
+     *         which are parsed only when needed */
     public static AbstractSelection<CommandLineSelection> getFromPath(final String path) {
-      final List<WrappedCompilationUnit> cuList = new ArrayList<>();
+      return new CommandLineSelection(lazy(path, false), "selection");
+    }
+
+    /** @param path JD
+     * @return a selection of all <code>.java</code> files under the path,
+     *         excluding test files, which are parsed only when needed */
+    public static CommandLineSelection getSourcesFromPath(final String path) {
+      return new CommandLineSelection(lazy(path, true), "selection");
+    }
+
+    static List<WrappedCompilationUnit> lazy(final String path, final boolean skipTests) {
+      final List<WrappedCompilationUnit> $ = new ArrayList<>();
       for (final File ¢ : new FilesGenerator(".java").from(path))
-        cuList.add(WrappedCompilationUnit.of((CompilationUnit) makeAST.COMPILATION_UNIT.from(¢)));
-      return new CommandLineSelection(cuList, "selection");
+        if (!skipTests || !system.isTestFile(¢))
+          $.add(WrappedCompilationUnit.of(¢));
+      return $;
     }
 
     public static List<CompilationUnit> getAllCompilationUnit(final String from) {
-      final List<CompilationUnit> $ = new ArrayList<>();
+      final List<File> fs = new ArrayList<>();
       for (final File ¢ : new FilesGenerator(".java").from(from)) {
         System.out.println(¢.getName());
-        // System.out.println("Free memory (bytes): " +
-        // Unit.BYTES.format(Runtime.getRuntime().freeMemory()));
-        CompilationUnit cu;
         if (!system.isTestFile(¢))
-          try {
-            cu = (CompilationUnit) makeAST.COMPILATION_UNIT.from(FileUtils.read(¢));
-            $.add(cu);
-          } catch (final IOException x) {
-            monitor.log(x);
-            x.printStackTrace();
-          }
+          fs.add(¢);
       }
+      final List<CompilationUnit> $ = new ArrayList<>();
+      for (final CompilationUnit ¢ : new FileParser().units(fs))
+        if (¢ != null)
+          $.add(¢);
       return $;
     }
   }
@@ -91,22 +124,113 @@ public class CommandLineSelection extends AbstractSelection<CommandLineSelection
   /** @param inputPath
    * @return */
   public void createSelectionFromProjectDir(final String inputPath) {
-    final List<WrappedCompilationUnit> cuList = new ArrayList<>();
-    System.err.println("Loading selection ...");
-    for (final File ¢ : new FilesGenerator(".java").from(inputPath))
-      cuList.add(WrappedCompilationUnit.of((CompilationUnit) makeAST.COMPILATION_UNIT.from(¢)));
-    // compilationUnits = cuList;
-    inner = cuList;
-    System.err.println("Loading selection: done!");
+    inner = Util.lazy(inputPath, false);
   }
 
   public CommandLineSelection buildAll() {
-    for (final WrappedCompilationUnit ¢ : compilationUnits)
+    parse(inner, new FileParser());
+    for (final WrappedCompilationUnit ¢ : inner)
       ¢.build();
     return this;
   }
 
+  /** Parse the files of all units which were not parsed yet
+   * @param us JD
+   * @param p JD */
+  static void parse(final List<WrappedCompilationUnit> us, final FileParser p) {
+    for (final WrappedCompilationUnit ¢ : us)
+      if (¢.compilationUnit == null && ¢.file != null)
+        ¢.compilationUnit = p.parse(¢.file);
+  }
+
   public static AbstractSelection<?> of(final List<CompilationUnit> ¢) {
     return new CommandLineSelection(WrappedCompilationUnit.ov(¢), "cuList");
   }
+
+  /** Iterates over units, while a daemon thread parses those that follow,
+   * never more than a bounded number ahead. A unit which
+   * fails to parse is logged, and returned unparsed. If the thread itself
+   * fails, e.g., out of memory, {@link #next()} throws once the units it made
+   * are used up; a consumer which stops early should {@link #close()} this
+   * instance, so that the thread stops too. */
+  static final class Prefetcher implements Iterator<WrappedCompilationUnit>, AutoCloseable {
+    /** Made by the thread once it fails, in place of the units it did not;
+     * never for the failure of a single unit */
+    private static final WrappedCompilationUnit FAILED = new WrappedCompilationUnit((File) null);
+    private final BlockingQueue<WrappedCompilationUnit> queue;
+    final Thread producer;
+    /** Why the thread failed, if it did */
+    private volatile Throwable failure;
+    private int remaining;
+
+    Prefetcher(final List<WrappedCompilationUnit> us, final int ahead, final FileParser p) {
+      queue = new ArrayBlockingQueue<>(Math.max(1, ahead));
+      remaining = us.size();
+      producer = new Thread(() -> produce(us, p), "prefetch");
+      producer.setDaemon(true);
+      producer.start();
+    }
+
+    /** Stops the thread; no more units are returned */
+    @Override public void close() {
+      remaining = 0;
+      producer.interrupt();
+    }
+
+    @Override public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override public WrappedCompilationUnit next() {
+      if (remaining <= 0)
+        throw new NoSuchElementException();
+      try {
+        final WrappedCompilationUnit $ = queue.take();
+        if ($ == FAILED) {
+          close();
+          throw new IllegalStateException("Parsing ahead failed", failure);
+        }
+        --remaining;
+        return $;
+      } catch (final InterruptedException x) {
+        Thread.currentThread().interrupt();
+        throw new NoSuchElementException(x + "");
+      }
+    }
+
+    private void produce(final List<WrappedCompilationUnit> us, final FileParser p) {
+      try {
+        for (final WrappedCompilationUnit ¢ : us) {
+          try {
+            parse(Collections.singletonList(¢), p);
+          } catch (final Throwable x) { // the unit is then parsed by build
+            if (ParallelBatch.fatal(x))
+              throw x;
+            monitor.logEvaluationError(this, x);
+          }
+          queue.put(build(¢));
+        }
+      } catch (final InterruptedException x) {
+        monitor.logCancellationRequest(this, x);
+      } catch (final Throwable x) {
+        failure = x;
+        try {
+          queue.put(FAILED);
+        } catch (final InterruptedException ¢) {
+          monitor.logCancellationRequest(this, ¢);
+        }
+      }
+    }
+
+    private static WrappedCompilationUnit build(final WrappedCompilationUnit $) {
+      try {
+        return $.build();
+      } catch (final Throwable x) {
+        if (ParallelBatch.fatal(x))
+          throw x;
+        monitor.logEvaluationError($, x);
+        return $;
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.io.*;
  * @since 2016 */
 public class CommandLineSpartanizer extends AbstractCommandLineSpartanizer {
   private final String name;
+  int threads = ParallelBatch.THREADS_DEFAULT;
 
   CommandLineSpartanizer(final String path) {
     this(path, system.folder2File(path));
@@ -26,8 +27,10 @@ public class CommandLineSpartanizer extends AbstractCommandLineSpartanizer {
       Reports.intializeReport(folder + name + ".CSV", "metrics");
       Reports.intializeReport(folder + name + ".spectrum.CSV", "spectrum");
      
-      CommandLineApplicator.defaultApplicator().passes(20)
-          .selection(CommandLineSelection.of(CommandLineSelection.Util.getAllCompilationUnit(inputPath))).go();
+      final CommandLineApplicator a = CommandLineApplicator.defaultApplicator().threads(threads);
+      a.passes(20).selection(CommandLineSelection.Util.getSourcesFromPath(inputPath));
+      a.go();
+      System.out.println("Parsing: " + a.parser().throughput());
       
       Reports.close("metrics");
       Reports.close("spectrum");
@@ -1,6 +1,7 @@
 package il.org.spartan.spartanizer.cmdline;
 
 import java.util.*;
+import java.util.regex.*;
 
 /** @author Yossi Gil
  * @since 2016 */
@@ -12,26 +13,33 @@ public class Essence {
     }
   }
 
+  /** The rewrites of {@link #of(String)}, compiled once */
+  private static final Pattern[] patterns = {
+      Pattern.compile("\\r\\n"), // DOS Junk
+      Pattern.compile("\\n\\r"), // Mac Junk
+      Pattern.compile("\\s+"), // Runs of spaces
+      Pattern.compile("\\s$"), // Spaces at EOLN
+      Pattern.compile("^\\s+"), // Spaces at BOLN
+      Pattern.compile("^\\s*$"), // Erase spaces of empty lines
+      Pattern.compile("^\\s*\\n"), // Erase all empty lines
+      Pattern.compile("\\n\\n"), // Consecutive new lines
+      Pattern.compile("//.*$"), // Line comments
+      // All comments, up to the first end of comment, without backtracking
+      Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL),
+      // Space between two non-letters:
+      Pattern.compile("([^\\p{L}]) ([^\\p{L}])"),
+      // Letter, then non-letter
+      Pattern.compile("([\\p{L}]) ([^\\p{L}])"),
+      // Non letter, then letter
+      Pattern.compile("([^\\p{L}]) ([\\p{L}])"), //
+  };
+  private static final String[] replacements = { "\\n", "\\n", " ", "", "", "", "", "\\n", "", "", "$1$2", "$1$2", "$1$2" };
+
   public static String of(final String codeFragment) {
-    return codeFragment//
-        .replaceAll("\\r\\n", "\\n") // DOS Junk
-        .replaceAll("\\n\\r", "\\n") // Mac Junk
-        .replaceAll("\\s+", " ") // Runs of spaces
-        .replaceAll("\\s$", "") // Spaces at EOLN
-        .replaceAll("^\\s+", "") // Spaces at BOLN
-        .replaceAll("^\\s*$", "") // Erase spaces of empty lines
-        .replaceAll("^\\s*\\n", "") // Erase all empty lines
-        .replaceAll("\\n\\n", "\\n") // Consecutive new lines
-        .replaceAll("//.*$", "") // Line comments
-        // All comments?
-        .replaceAll("/\\*(?=(?:(?!\\*/)[\\s\\S])*?)(?:(?!\\*/)[\\s\\S])*\\*/", "")
-        // Space between two non-letters:
-        .replaceAll("([^\\p{L}]) ([^\\p{L}])", "$1$2")//
-        // Letter, then non-letter
-        .replaceAll("([\\p{L}]) ([^\\p{L}])", "$1$2")//
-        // Non letter, then letter
-        .replaceAll("([^\\p{L}]) ([\\p{L}])", "$1$2")//
-    ;
+    String $ = codeFragment;
+    for (int ¢ = 0; ¢ < patterns.length; ++¢)
+      $ = patterns[¢].matcher($).replaceAll(replacements[¢]);
+    return $;
   }
 
   public static String stringRemove(final String $) {
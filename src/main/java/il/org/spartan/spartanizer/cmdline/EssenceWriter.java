@@ -0,0 +1,289 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.util.regex.*;
+
+/** A {@link Writer} which passes text through unchanged, and, as it goes,
+ * writes its essence, exactly as the script
+ * <code>src/test/resources/essence</code> computes it, to a second writer.
+ * Counts lines and words of both, as <code>wc</code> does, and the length of
+ * the essence as a single trimmed line, so that none of these need to be
+ * computed by forking a shell and reading the files again.
+ * <p>
+ * The script removes line comments, then block comments, from the text as a
+ * whole; then, line by line, drops blank lines, strips white space at both
+ * ends, and removes a space between two characters which are not both part of
+ * an identifier.
+ * @since 2016 */
+public final class EssenceWriter extends FilterWriter {
+  /** The three <code>sed</code> rewrites which remove non essential spaces */
+  private static final Pattern[] spaces = { Pattern.compile("([^a-zA-Z$_]) ([^a-zA-Z$_])"), //
+      Pattern.compile("([^a-zA-Z$_]) ([a-zA-Z$_])"), //
+      Pattern.compile("([a-zA-Z$_]) ([^a-zA-Z$_])"), //
+  };
+  /** <code>s/\s+/ /</code> in a basic <code>sed</code> expression, where
+   * <code>+</code> is not a quantifier */
+  private static final Pattern plus = Pattern.compile("\\s\\+");
+  private static final int NORMAL = 0, SLASH = 1, COMMENT = 2, STAR = 3;
+
+  /** @param fileName JD
+   * @return a writer of this file, which writes the essence of its text to
+   *         {@link system#essenced(String)} of the file */
+  public static EssenceWriter to(final String fileName) throws IOException {
+    final Writer $ = new FileWriter(fileName);
+    try {
+      return new EssenceWriter($, new FileWriter(system.essenced(fileName)));
+    } catch (final IOException x) {
+      $.close();
+      throw x;
+    }
+  }
+
+  private final Writer essence;
+  private final Count text = new Count(), essential = new Count();
+  /** State of the removal of line comments, and text held meanwhile */
+  private int lineComments;
+  private final StringBuilder lineComment = new StringBuilder();
+  /** State of the removal of block comments, and text held meanwhile */
+  private int blockComments;
+  private final StringBuilder blockComment = new StringBuilder();
+  /** The current line, after the removal of comments */
+  private final StringBuilder line = new StringBuilder();
+  /** Length of the essence, as a single line, and the number of characters
+   * which {@link String#trim()} removes from either end of it */
+  private long length, leading, trailing;
+  private boolean printable;
+
+  /** Instantiates this class
+   * @param text where text goes unchanged
+   * @param essence where its essence goes */
+  public EssenceWriter(final Writer text, final Writer essence) {
+    super(text);
+    this.essence = essence;
+  }
+
+  @Override public void close() throws IOException {
+    if (lineComments == SLASH)
+      removeBlockComments('/');
+    else if (lineComments == COMMENT)
+      removeBlockComments(lineComment);
+    lineComments = NORMAL;
+    if (blockComments == SLASH)
+      line('/');
+    else if (blockComments != NORMAL)
+      for (int ¢ = 0; ¢ < blockComment.length(); ++¢)
+        line(blockComment.charAt(¢));
+    blockComments = NORMAL;
+    if (line.length() > 0)
+      endLine(false);
+    try {
+      super.close();
+    } finally {
+      essence.close();
+    }
+  }
+
+  /** @return length of the essence, all lines joined, and trimmed; this is
+   *         the length of the output of the script, as read by
+   *         {@link system#runScript(Process)} */
+  public long essenceLength() {
+    return printable ? length - leading - trailing : 0;
+  }
+
+  /** @return number of lines of the essence */
+  public long essenceLines() {
+    return essential.lines;
+  }
+
+  /** @return number of words of the essence */
+  public long essenceWords() {
+    return essential.words;
+  }
+
+  @Override public void flush() throws IOException {
+    super.flush();
+    essence.flush();
+  }
+
+  /** @return number of lines of the text */
+  public long lines() {
+    return text.lines;
+  }
+
+  /** @return number of words of the text */
+  public long words() {
+    return text.words;
+  }
+
+  @Override public void write(final char[] cs, final int offset, final int length) throws IOException {
+    out.write(cs, offset, length);
+    for (int ¢ = offset; ¢ < offset + length; ++¢)
+      process(cs[¢]);
+  }
+
+  @Override public void write(final int ¢) throws IOException {
+    out.write(¢);
+    process((char) ¢);
+  }
+
+  @Override public void write(final String s, final int offset, final int length) throws IOException {
+    out.write(s, offset, length);
+    for (int ¢ = offset; ¢ < offset + length; ++¢)
+      process(s.charAt(¢));
+  }
+
+  private void endLine(final boolean newline) throws IOException {
+    final String $ = line + "";
+    line.setLength(0);
+    if (isBlank($))
+      return;
+    String ¢ = plus.matcher(strip($)).replaceFirst(" ");
+    for (final Pattern p : spaces)
+      ¢ = p.matcher(¢).replaceAll("$1$2");
+    essence.write(¢);
+    for (int i = 0; i < ¢.length(); ++i)
+      essential.add(¢.charAt(i));
+    joined(¢);
+    if (!newline)
+      return;
+    essence.write('\n');
+    essential.add('\n');
+  }
+
+  /** Accounts for a line of the essence in the length of all lines joined,
+   * where carriage returns, which {@link BufferedReader#readLine()} takes as
+   * line ends, are dropped */
+  private void joined(final String s) {
+    for (int ¢ = 0; ¢ < s.length(); ++¢) {
+      final char c = s.charAt(¢);
+      if (c == '\r')
+        continue;
+      ++length;
+      if (c > ' ') {
+        printable = true;
+        trailing = 0;
+      } else if (printable)
+        ++trailing;
+      else
+        ++leading;
+    }
+  }
+
+  private void line(final char ¢) throws IOException {
+    if (¢ == '\n')
+      endLine(true);
+    else
+      line.append(¢);
+  }
+
+  private void process(final char ¢) throws IOException {
+    text.add(¢);
+    removeLineComments(¢);
+  }
+
+  /** Second pass of the script: <code>s#/\*(.|\n)*?\*&#47;##g</code> */
+  private void removeBlockComments(final char ¢) throws IOException {
+    switch (blockComments) {
+      case NORMAL:
+        if (¢ == '/')
+          blockComments = SLASH;
+        else
+          line(¢);
+        return;
+      case SLASH:
+        if (¢ == '*') {
+          blockComment.setLength(0);
+          blockComment.append("/*");
+          blockComments = COMMENT;
+          return;
+        }
+        line('/');
+        if (¢ != '/') {
+          line(¢);
+          blockComments = NORMAL;
+        }
+        return;
+      default:
+        blockComment.append(¢);
+        if (blockComments == STAR && ¢ == '/')
+          blockComments = NORMAL;
+        else
+          blockComments = ¢ == '*' ? STAR : COMMENT;
+    }
+  }
+
+  private void removeBlockComments(final CharSequence s) throws IOException {
+    for (int ¢ = 0; ¢ < s.length(); ++¢)
+      removeBlockComments(s.charAt(¢));
+  }
+
+  /** First pass of the script: <code>s|//.*?\n|\n|g</code> */
+  private void removeLineComments(final char ¢) throws IOException {
+    switch (lineComments) {
+      case NORMAL:
+        if (¢ == '/')
+          lineComments = SLASH;
+        else
+          removeBlockComments(¢);
+        return;
+      case SLASH:
+        if (¢ == '/') {
+          lineComment.setLength(0);
+          lineComment.append("//");
+          lineComments = COMMENT;
+          return;
+        }
+        removeBlockComments('/');
+        removeBlockComments(¢);
+        lineComments = NORMAL;
+        return;
+      default:
+        if (¢ != '\n') {
+          lineComment.append(¢);
+          return;
+        }
+        removeBlockComments('\n');
+        lineComments = NORMAL;
+    }
+  }
+
+  /** @return whether the parameter is matched by <code>^\s*$</code> */
+  private static boolean isBlank(final String s) {
+    for (int ¢ = 0; ¢ < s.length(); ++¢)
+      if (!white(s.charAt(¢)))
+        return false;
+    return true;
+  }
+
+  /** @return the parameter, without white space at either end */
+  private static String strip(final String s) {
+    int from = 0, to = s.length();
+    while (from < to && white(s.charAt(from)))
+      ++from;
+    while (to > from && white(s.charAt(to - 1)))
+      --to;
+    return s.substring(from, to);
+  }
+
+  /** @return whether the parameter is matched by <code>\s</code> */
+  static boolean white(final char ¢) {
+    return ¢ == ' ' || ¢ == '\t' || ¢ == '\n' || ¢ == '\u000B' || ¢ == '\f' || ¢ == '\r';
+  }
+
+  /** Lines and words, as counted by <code>wc</code> */
+  private static final class Count {
+    long lines, words;
+    private boolean inWord;
+
+    void add(final char ¢) {
+      if (¢ == '\n')
+        ++lines;
+      if (white(¢))
+        inWord = false;
+      else if (!inWord) {
+        ++words;
+        inWord = true;
+      }
+    }
+  }
+}
@@ -2,6 +2,8 @@ package il.org.spartan.spartanizer.cmdline;
 
 import static il.org.spartan.Utils.*;
 
+import java.util.concurrent.*;
+
 import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jface.text.*;
 
@@ -64,14 +66,34 @@ public enum GuessedContext {
       not_statment_may_occur_in_static_initializer_block, //
   };
 
-  /** Finds the most appropriate Guess for a given code fragment
+  /** Maximal number of code fragments whose guess is remembered; when there
+   * are more, all are forgotten */
+  static final int CAPACITY = 1 << 12;
+  private static final ConcurrentMap<String, GuessedContext> guesses = new ConcurrentHashMap<>();
+
+  /** Finds the most appropriate Guess for a given code fragment; the guess is
+   * remembered, since the fragment is parsed in each of the contexts tried
    * @param codeFragment JD
    * @return most appropriate Guess, or null, if the parameter could not be
    *         parsed appropriately. */
   public static GuessedContext find(final String codeFragment) {
-    for (final GuessedContext $ : alternativeContextsToConsiderInThisOrder)
-      if ($.contains($.intoCompilationUnit(codeFragment) + "", codeFragment) && wasActuallyInsertedToWrapper($, codeFragment))
+    final GuessedContext $ = guesses.get(codeFragment);
+    return $ != null ? $ : remember(codeFragment, guess(codeFragment));
+  }
+
+  private static GuessedContext remember(final String codeFragment, final GuessedContext $) {
+    if (guesses.size() >= CAPACITY)
+      guesses.clear();
+    guesses.put(codeFragment, $);
+    return $;
+  }
+
+  private static GuessedContext guess(final String codeFragment) {
+    for (final GuessedContext $ : alternativeContextsToConsiderInThisOrder) {
+      final String wrap = $.intoCompilationUnit(codeFragment) + "";
+      if ($.contains(wrap, codeFragment) && wasActuallyInsertedToWrapper($, wrap))
         return $;
+    }
     azzert.fail("שים ליבך!\n" + //
         "Nota!\n" + //
         "Either I am buggy, or this must be a problem of incorrect Java code you placed\n" + //
@@ -88,8 +110,9 @@ public enum GuessedContext {
     throw new RuntimeException();
   }
 
-  private static boolean wasActuallyInsertedToWrapper(final GuessedContext $, final String codeFragment) {
-    return !($.intoCompilationUnit("") + "").equals($.intoCompilationUnit(codeFragment) + "");
+  /** @param wrap the printout of the fragment, parsed in this context */
+  private static boolean wasActuallyInsertedToWrapper(final GuessedContext $, final String wrap) {
+    return !$.empty().equals(wrap);
   }
 
   static String enumerateFailingAttempts(final String codeFragment) {
@@ -116,6 +139,9 @@ public enum GuessedContext {
 
   private final String before;
   private final String after;
+  /** The printout of this context, wrapped around nothing; computed on first
+   * use */
+  private volatile String empty;
 
   GuessedContext(final String before, final String after) {
     this.before = before;
@@ -153,6 +179,11 @@ public enum GuessedContext {
     return before + codeFragment + after;
   }
 
+  private String empty() {
+    final String $ = empty;
+    return $ != null ? $ : (empty = intoCompilationUnit("") + "");
+  }
+
   private boolean contains(final String wrap, final String inner) {
     final String off = off(wrap);
     final String essence = wizard.essence(inner);
@@ -3,6 +3,7 @@ package il.org.spartan.spartanizer.cmdline;
 import java.util.*;
 
 import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jface.text.*;
 
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
@@ -11,9 +12,13 @@ import il.org.spartan.spartanizer.tipping.*;
 /** @author Yossi Gil
  * @since 2016 */
 public final class InteractiveSpartanizer {
-  /** @param fileNames if present, will process these as batch */
+  /** @param fileNames if present, will process these as batch; if the first
+   *        is <code>--daemon</code>, the others are options of
+   *        {@link SpartanizerDaemon} */
   public static void main(final String[] fileNames) {
-    if (fileNames.length != 0)
+    if (fileNames.length != 0 && "--daemon".equals(fileNames[0]))
+      SpartanizerDaemon.main(Arrays.copyOfRange(fileNames, 1, fileNames.length));
+    else if (fileNames.length != 0)
       BatchSpartanizer.main(fileNames);
     else
       System.out.println(new InteractiveSpartanizer().fixedPoint(read()));
@@ -30,30 +35,50 @@ public final class InteractiveSpartanizer {
   }
 
   public Toolbox toolbox = Toolbox.defaultInstance();
+  /** Whether {@link #fixedPoint(String)} trims incrementally, see
+   * {@link Trimmer#fixedIncrementally(String)}; off by default, since it is not
+   * faster on all inputs, e.g., on many small classes */
+  public boolean incremental;
 
   public InteractiveSpartanizer disable(final Class<? extends TipperCategory> ¢) {
+    if (toolbox.frozen())
+      toolbox = toolbox.mutableCopy();
     toolbox.disable(¢);
     return this;
   }
 
-  /** Apply trimming repeatedly, until no more changes
+  /** Apply trimming repeatedly, until no more changes; rounds after the first
+   * are incremental if {@link #incremental} is set
    * @param from what to process
    * @return trimmed text */
   public String fixedPoint(final String from) {
-    return new Trimmer(toolbox).fixed(from);
+    return incremental ? new Trimmer(toolbox).fixedIncrementally(from) : new Trimmer(toolbox).fixed(from);
+  }
+
+  /** Same as {@link #fixedPoint(String)}, but in place
+   * @param ¢ document to trim
+   * @return the compilation unit of the trimmed document, as parsed to confirm
+   *         the fixed point, so that it need not be parsed again */
+  public CompilationUnit fixedPoint(final Document ¢) {
+    return incremental ? new Trimmer(toolbox).fixedIncrementally(¢) : new Trimmer(toolbox).fixed(¢);
   }
 
   ASTVisitor collect(final List<Tip> $) {
+    final TipAccumulator a = new TipAccumulator();
     return new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
-        final Tipper<N> t = toolbox.firstTipper(n);
+        final Tipper<N> t = toolbox.firstTipper(n, speculation);
         try {
-          return t == null || t.cantTip(n) || Trimmer.prune(t.tip(n, exclude), $);
+          return t == null || Trimmer.prune(t.tip(n, exclude, speculation), a);
         } catch (final TipperFailure e) {
           e.printStackTrace();
         }
         return false;
       }
+
+      @Override protected void finalization(@SuppressWarnings("unused") final ASTNode __) {
+        a.into($);
+      }
     };
   }
 
@@ -0,0 +1,150 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import il.org.spartan.plugin.*;
+
+/** Fans out the work on a sequence of inputs (typically, files or compilation
+ * units) to a bounded pool of worker threads. Each worker returns a
+ * <em>commit</em> action, e.g., printing to the before/after files and adding
+ * a CSV row; commits are always carried out by the calling thread, in the
+ * order in which inputs were supplied, so output is identical to that of a
+ * single threaded run. An input whose function, or commit action, throws
+ * anything is logged and skipped, whatever the number of threads, unless the
+ * virtual machine itself is in trouble, e.g., out of memory.
+ * @since 2016 */
+public final class ParallelBatch {
+  /** Default number of threads: a plain sequential run */
+  public static final int THREADS_DEFAULT = 1;
+  /** How many inputs may be in flight per worker thread */
+  private static final int WINDOW_PER_THREAD = 4;
+  private final int threads;
+
+  /** Instantiates this class
+   * @param threads number of workers; values smaller than 2 mean that all work
+   *        is carried out by the calling thread */
+  public ParallelBatch(final int threads) {
+    this.threads = threads;
+  }
+
+  /** Apply a function to each input, and run the actions it returns in input
+   * order
+   * @param ts inputs; if their iterator is {@link AutoCloseable}, it is closed
+   *        once the run is over, e.g., so that a thread making inputs stops
+   * @param f computes the result of a single input, in the form of an action
+   *        that commits it; may return <code><b>null</b></code> if there is
+   *        nothing to commit */
+  public <T> void go(final Iterable<T> ts, final Function<T, Runnable> f) {
+    final Iterator<T> i = ts.iterator();
+    try {
+      go(i, f);
+    } finally {
+      if (i instanceof AutoCloseable)
+        close((AutoCloseable) i);
+    }
+  }
+
+  public int threads() {
+    return threads;
+  }
+
+  private <T> void go(final Iterator<T> ts, final Function<T, Runnable> f) {
+    if (threads < 2) {
+      while (ts.hasNext()) {
+        final T ¢ = ts.next();
+        try {
+          commit(f.apply(¢));
+        } catch (final Throwable x) {
+          skip(x);
+        }
+      }
+      return;
+    }
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    final Deque<Future<Runnable>> pending = new ArrayDeque<>();
+    try {
+      while (ts.hasNext()) {
+        final T ¢ = ts.next();
+        pending.add(pool.submit(() -> f.apply(¢)));
+        if (pending.size() >= threads * WINDOW_PER_THREAD && !commit(pending.poll()))
+          return;
+      }
+      while (!pending.isEmpty())
+        if (!commit(pending.poll()))
+          return;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void close(final AutoCloseable ¢) {
+    try {
+      ¢.close();
+    } catch (final Exception x) {
+      monitor.logEvaluationError(this, x);
+    }
+  }
+
+  private void commit(final Runnable ¢) {
+    if (¢ != null)
+      try {
+        ¢.run();
+      } catch (final Throwable x) {
+        skip(x);
+      }
+  }
+
+  /** @return <code><b>false</b></code> <em>iff</em> the calling thread was
+   *         interrupted while waiting */
+  private boolean commit(final Future<Runnable> ¢) {
+    try {
+      commit(¢.get());
+    } catch (final InterruptedException x) {
+      monitor.logCancellationRequest(this, x);
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (final ExecutionException x) {
+      skip(x.getCause());
+    }
+    return true;
+  }
+
+  /** Logs the failure of a single input, unless it is {@link #fatal}, in which
+   * case the run ends
+   * @param ¢ JD */
+  private void skip(final Throwable ¢) {
+    if (fatal(¢))
+      throw (VirtualMachineError) ¢;
+    monitor.logEvaluationError(this, ¢);
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the virtual machine itself is
+   *         in trouble, e.g., out of memory, rather than the input which was
+   *         processed; a stack overflow, e.g., on a deeply nested expression,
+   *         is a failure of the input alone */
+  static boolean fatal(final Throwable ¢) {
+    return ¢ instanceof VirtualMachineError && !(¢ instanceof StackOverflowError);
+  }
+
+  /** Parse the value of a <code>--threads</code> command line option
+   * @param ¢ JD
+   * @return number of threads, where <code>0</code> stands for the number of
+   *         available processors; {@link #THREADS_DEFAULT} if the value is not
+   *         a number, or is negative */
+  public static int threads(final String ¢) {
+    final int $;
+    try {
+      $ = Integer.parseInt(¢);
+    } catch (final NumberFormatException x) {
+      System.out.println("[ERROR]: Bad number of threads: " + ¢ + " (" + x.getMessage() + ")");
+      return THREADS_DEFAULT;
+    }
+    if ($ >= 0)
+      return $ > 0 ? $ : Runtime.getRuntime().availableProcessors();
+    System.out.println("[ERROR]: Bad number of threads: " + ¢ + " (negative)");
+    return THREADS_DEFAULT;
+  }
+}
@@ -1,7 +1,5 @@
 package il.org.spartan.spartanizer.cmdline;
 
-import static il.org.spartan.tide.*;
-
 import java.io.*;
 import java.util.*;
 
@@ -14,10 +12,10 @@ import il.org.spartan.*;
 import il.org.spartan.collections.*;
 import il.org.spartan.plugin.*;
 import il.org.spartan.spartanizer.ast.navigate.*;
-import il.org.spartan.spartanizer.ast.safety.*;
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.spartanizer.tipping.*;
+import il.org.spartan.spartanizer.utils.*;
 
 /** @author Matteo Orru'
  * @since 2016 */
@@ -32,6 +30,8 @@ public class Spartanizer$Applicator {
   CSVStatistics spectrumStats; // = new CSVStatistics(spectrumFileName,
                                // "property");
   final ChainStringToIntegerMap spectrum = new ChainStringToIntegerMap();
+  /** Tips applied in the current round of {@link #fixedPoint(Document)} */
+  private final List<Tip> tips = new ArrayList<>();
 
   /** Instantiates this class */
   public Spartanizer$Applicator() {
@@ -84,24 +84,24 @@ public class Spartanizer$Applicator {
 
   boolean go(final ASTNode input) {
     tippersAppliedOnCurrentObject = 0;
-    final int length = input.getLength();
-    final int tokens = metrics.tokens(input + "");
-    final int nodes = count.nodes(input);
-    final int body = metrics.bodySize(input);
-    final int statements = extract.statements(az.methodDeclaration(input).getBody()).size();
-    final int tide = clean(input + "").length();
-    final int essence = Essence.of(input + "").length();
-    final String out = fixedPoint(input + "");
-    final int length2 = out.length();
-    final int tokens2 = metrics.tokens(out);
-    final int tide2 = clean(out + "").length();
-    final int essence2 = Essence.of(out + "").length();
-    final int wordCount = code.wc(il.org.spartan.spartanizer.cmdline.Essence.of(out + ""));
-    final ASTNode to = makeAST.CLASS_BODY_DECLARATIONS.from(out);
-    final int nodes2 = count.nodes(to);
-    final int body2 = metrics.bodySize(to);
-    final MethodDeclaration methodDeclaration = az.methodDeclaration(to);
-    final int statements2 = methodDeclaration == null ? -1 : extract.statements(methodDeclaration.getBody()).size();
+    final String in = input + "";
+    final CodeScanner scanner = new CodeScanner();
+    final ASTNodeMetrics m1 = new ASTNodeMetrics(input).computeMetrics(in, scanner);
+    final Document d = new Document(in);
+    final ASTNode to = fixedPoint(d);
+    final String out = d.get();
+    final ASTNodeMetrics m2 = new ASTNodeMetrics(to).computeMetrics(out, scanner);
+    final int length = m1.length(), length2 = m2.length();
+    final int tokens = m1.tokens(), tokens2 = m2.tokens();
+    final int nodes = m1.nodes(), nodes2 = m2.nodes();
+    final int body = m1.body(), body2 = m2.body();
+    final int statements = m1.statements(), statements2 = m2.statements();
+    final int tide = m1.tide(), tide2 = m2.tide();
+    final String essenceOut = Essence.of(out);
+    final int essence = Essence.of(in).length(), essence2 = essenceOut.length();
+    final int wordCount = code.wc(essenceOut);
+    final int lexed = m1.essence(), lexed2 = m2.essence();
+    final int lexedWords = m2.words();
     System.err.println(++done + " " + extract.category(input) + " " + extract.name(input));
     befores.print(input);
     afters.print(out);
@@ -147,7 +147,11 @@ public class Spartanizer$Applicator {
         .put("Δ Statement", statements - statements2)//
         .put("δ Statement", system.d(statements, statements2))//
         .put("% Statement", system.p(essence, essence2))//
-        .put("Words)", wordCount).put("R(T/L)", system.ratio(length, tide)) //
+        .put("Words)", wordCount)//
+        .put("Lexed Essence1", lexed)//
+        .put("Lexed Essence2", lexed2)//
+        .put("Lexed Words", lexedWords)//
+        .put("R(T/L)", system.ratio(length, tide)) //
         .put("R(E/L)", system.ratio(length, essence)) //
         .put("R(E/T)", system.ratio(tide, essence)) //
         .put("R(B/S)", system.ratio(nodes, body)) //
@@ -156,11 +160,16 @@ public class Spartanizer$Applicator {
     return false;
   }
 
-  /** @param input
-   * @return */
-  private String fixedPoint(final String from) {
-    for (final Document $ = new Document(from);;) {
+  /** Trims a document to a fixed point, in place, or until
+   * {@link Convergence} stops it
+   * @param $ JD
+   * @return the AST of the trimmed document, as parsed to confirm the fixed
+   *         point */
+  private BodyDeclaration fixedPoint(final Document $) {
+    final Convergence c = new Convergence($.get());
+    for (;;) {
       final BodyDeclaration u = (BodyDeclaration) makeAST.CLASS_BODY_DECLARATIONS.from($.get());
+      tips.clear();
       final ASTRewrite r = createRewrite(u);
       final TextEdit e = r.rewriteAST($, null);
       try {
@@ -170,7 +179,9 @@ public class Spartanizer$Applicator {
         throw new AssertionError(x);
       }
       if (!e.hasChildren())
-        return $.get();
+        return u;
+      if (!c.proceed($.get(), tips))
+        return (BodyDeclaration) makeAST.CLASS_BODY_DECLARATIONS.from($.get());
     }
   }
 
@@ -199,7 +210,7 @@ public class Spartanizer$Applicator {
           return true;
         Tip s = null;
         try {
-          s = tipper.tip(n, exclude);
+          s = tipper.tip(n, exclude, speculation);
           tick(n, tipper);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -208,6 +219,7 @@ public class Spartanizer$Applicator {
         }
         if (s != null) {
           ++tippersAppliedOnCurrentObject;
+          tips.add(s);
           // tick2(tipper); // save coverage info
           TrimmerLog.application(r, s);
         }
@@ -222,7 +234,7 @@ public class Spartanizer$Applicator {
       //// coverage.put(key, coverage.get(key) + 1);
       // }
       <N extends ASTNode> Tipper<N> getTipper(final N ¢) {
-        return toolbox.firstTipper(¢);
+        return toolbox.firstTipper(¢, speculation);
       }
 
       /** @param n
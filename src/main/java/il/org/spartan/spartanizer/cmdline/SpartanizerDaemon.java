@@ -0,0 +1,504 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.plugin.PreferencesResources.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.utils.*;
+
+/** A long running spartanizer, which keeps its {@link Toolbox}, tippers and
+ * parser warm, and serves requests made on a local port, so that a client,
+ * e.g., a commit hook, does not pay for starting a JVM, and for loading and
+ * compiling the tippers, on each run.
+ * <p>
+ * The port is open to all local users, so the daemon writes, at start up, a
+ * random token to a file which only its user may read; the first line a client
+ * sends on a connection must be this token, or else the connection is closed.
+ * <p>
+ * A client then sends requests in batches; a batch ends with an empty line. The
+ * requests of a batch are served concurrently, and their responses are written
+ * in the order of the requests, once all are served. A request is a line
+ *
+ * <pre>
+ * verb [disable=Group,...] (file path | text n)
+ * </pre>
+ *
+ * where the <code>n</code> lines of the text follow, and a group is a
+ * {@link TipperGroup}, whose tippers are not to be applied. The verbs are:
+ * <code>trim</code>, for the trimmed text; <code>tips</code>, for the tips of
+ * one round, a line each; <code>metrics</code>, for the metrics before and
+ * after trimming, a line each; <code>ping</code>; and <code>shutdown</code>.
+ * A response is a line <code>ok n</code>, followed by <code>n</code> lines, or
+ * a line <code>error message</code>. A batch of more than {@link #MAX_BATCH}
+ * requests, or {@link #MAX_CHARS} characters, or a text of more than
+ * {@link #MAX_LINES} lines, is answered with an error in place of the request
+ * which exceeds the limit, and the connection is then closed.
+ * <p>
+ * At most {@link #MAX_CONNECTIONS} connections are served at once; others are
+ * refused. A connection on which a client sends nothing for
+ * {@link #READ_TIMEOUT} milliseconds is closed, so that a client may keep a
+ * connection between batches, but not for long.
+ * <p>
+ * The daemon stops once it was idle, without a connection, for a given time.
+ * @since 2016 */
+public final class SpartanizerDaemon {
+  /** Default port, on the loopback address */
+  public static final int PORT_DEFAULT = 7171;
+  /** Default number of seconds, after which an idle daemon stops */
+  public static final int IDLE_DEFAULT = 15 * 60;
+  /** Default file of the token, in the home directory of the user */
+  public static final String TOKEN_DEFAULT = ".spartanizer-daemon";
+  /** Most requests in a batch */
+  public static final int MAX_BATCH = 256;
+  /** Most lines in the text of a request */
+  public static final int MAX_LINES = 100_000;
+  /** Most characters in a batch, texts included */
+  public static final int MAX_CHARS = 1 << 24;
+  /** Most connections served at once */
+  public static final int MAX_CONNECTIONS = 16;
+  /** Longest wait, in milliseconds, for a client to send the next character */
+  public static final int READ_TIMEOUT = 60 * 1000;
+  /** Longest wait for a connection, before idleness is checked again */
+  private static final int TICK = 1000;
+  /** Number of seconds, given to connections to end, once the daemon stops */
+  private static final int GRACE = 10;
+
+  public static void main(final String[] args) {
+    int port = PORT_DEFAULT, idle = IDLE_DEFAULT, threads = 0;
+    File token = new File(System.getProperty("user.home"), TOKEN_DEFAULT);
+    try {
+      for (int ¢ = 0; ¢ + 1 < args.length; ¢ += 2)
+        if ("--port".equals(args[¢]))
+          port = Integer.parseInt(args[¢ + 1]);
+        else if ("--idle".equals(args[¢]))
+          idle = Integer.parseInt(args[¢ + 1]);
+        else if ("--threads".equals(args[¢]))
+          threads = ParallelBatch.threads(args[¢ + 1]);
+        else if ("--token".equals(args[¢]))
+          token = new File(args[¢ + 1]);
+      final SpartanizerDaemon $ = new SpartanizerDaemon(port, threads, 1000L * idle, token);
+      System.out.println("Spartanizer daemon listening on " + $.port() + ", token in " + token);
+      $.serve();
+    } catch (final NumberFormatException | IOException x) {
+      monitor.infoIOException(x, "Cannot start the spartanizer daemon");
+    }
+  }
+
+  private static String join(final List<String> ss) {
+    final StringBuilder $ = new StringBuilder();
+    for (final String ¢ : ss)
+      $.append($.length() == 0 ? "" : "\n").append(¢);
+    return $ + "";
+  }
+
+  private static List<String> lines(final String ¢) {
+    return Arrays.asList(¢.split("\n", -1));
+  }
+
+  /** @return a random string, of 128 bits */
+  private static String token() {
+    final byte[] bs = new byte[16];
+    new SecureRandom().nextBytes(bs);
+    final StringBuilder $ = new StringBuilder();
+    for (final byte ¢ : bs)
+      $.append(String.format("%02x", Byte.valueOf(¢)));
+    return $ + "";
+  }
+
+  /** Writes a text to a file, which, where permissions are supported, only its
+   * owner may read; the file is made under another name, and then moved, so
+   * that it is never seen with other permissions or partly written */
+  private static void writePrivately(final File f, final String text) throws IOException {
+    final Path $ = f.getAbsoluteFile().toPath(), temporary = Files.createTempFile($.getParent(), f.getName(), ".new");
+    try {
+      Files.write(temporary, (text + "\n").getBytes(StandardCharsets.UTF_8));
+      Files.move(temporary, $, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private final ServerSocket server;
+  private final ExecutorService workers;
+  private final ExecutorService connections = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+  private final long idle;
+  /** Sockets of the connections being served */
+  private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+  private volatile long lastActive = System.currentTimeMillis();
+  /** Toolboxes, by the groups they do not have */
+  private final Map<String, Toolbox> toolboxes = new ConcurrentHashMap<>();
+  /** The first line of each connection */
+  private final String token = token();
+  private final File tokenFile;
+
+  /** Instantiates this class, and warms its {@link Toolbox}
+   * @param port port on the loopback address; 0 for any free port
+   * @param threads number of requests served concurrently; 0 for one per
+   *        processor
+   * @param idle number of milliseconds without a connection, after which the
+   *        daemon stops; 0 or less for never
+   * @param tokenFile where the token is written, for clients to read
+   * @throws IOException if the port cannot be bound, or the token cannot be
+   *         written */
+  public SpartanizerDaemon(final int port, final int threads, final long idle, final File tokenFile) throws IOException {
+    this.tokenFile = tokenFile;
+    server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    try {
+      writePrivately(tokenFile, token);
+    } catch (final IOException x) {
+      server.close();
+      throw x;
+    }
+    workers = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    this.idle = idle;
+    new Trimmer(toolbox("")).fixed("class A { int f(int a) { int $ = a; return $ + 0; } }");
+  }
+
+  /** Stops the daemon: no more connections are accepted, and those open are
+   * closed, if they do not end within a few seconds */
+  public void close() {
+    try {
+      server.close();
+      connections.shutdown();
+      if (!connections.awaitTermination(GRACE, TimeUnit.SECONDS))
+        for (final Socket ¢ : open)
+          ¢.close();
+    } catch (final IOException x) {
+      monitor.infoIOException(x, "Closing the spartanizer daemon");
+    } catch (final InterruptedException x) {
+      monitor.logCancellationRequest(this, x);
+      Thread.currentThread().interrupt();
+    } finally {
+      connections.shutdownNow();
+      workers.shutdownNow();
+      tokenFile.delete();
+    }
+  }
+
+  public int port() {
+    return server.getLocalPort();
+  }
+
+  /** Accepts connections, until the daemon is closed, is asked to shut down,
+   * or is idle for too long */
+  public void serve() {
+    try {
+      server.setSoTimeout(idle > 0 ? (int) Math.min(idle, TICK) : 0);
+      while (!server.isClosed())
+        try {
+          final Socket s = server.accept();
+          open.add(s);
+          try {
+            s.setSoTimeout(READ_TIMEOUT);
+            connections.execute(() -> converse(s));
+          } catch (final RejectedExecutionException __) {
+            refuse(s);
+          }
+        } catch (final SocketTimeoutException __) {
+          if (open.isEmpty() && System.currentTimeMillis() - lastActive >= idle)
+            break;
+        }
+    } catch (final IOException x) {
+      if (!server.isClosed())
+        monitor.infoIOException(x, "Spartanizer daemon stopped");
+    } finally {
+      close();
+    }
+  }
+
+  /** Serves the batches of requests of a connection, until it is closed */
+  private void converse(final Socket s) {
+    try (Socket __ = s;
+        BufferedReader r = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+      final Input in = new Input(r);
+      if (!authentic(in.token(token.length()))) {
+        write(out, Collections.singletonList("error Bad token"));
+        out.flush();
+        return;
+      }
+      for (List<Request> batch = read(in); batch != null; batch = read(in)) {
+        lastActive = System.currentTimeMillis();
+        boolean shutdown = false, last = false;
+        for (final Request ¢ : batch) {
+          write(out, response(¢.response));
+          shutdown |= "shutdown".equals(¢.verb);
+          last |= ¢.last;
+        }
+        out.flush();
+        if (shutdown)
+          server.close();
+        if (last)
+          break;
+      }
+    } catch (final IOException x) {
+      monitor.debug(this, x);
+    } finally {
+      lastActive = System.currentTimeMillis();
+      open.remove(s);
+    }
+  }
+
+  /** Answers a connection which cannot be served now, and closes it */
+  private void refuse(final Socket s) {
+    try (Socket __ = s) {
+      s.getOutputStream().write(("error More than " + MAX_CONNECTIONS + " connections\n").getBytes(StandardCharsets.UTF_8));
+    } catch (final IOException x) {
+      monitor.debug(this, x);
+    } finally {
+      open.remove(s);
+    }
+  }
+
+  /** @param line the first line of a connection
+   * @return <code><b>true</b></code> <em>iff</em> it is the token */
+  private boolean authentic(final String line) {
+    return line != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), line.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** @return the requests of the next batch, each submitted to be served, or
+   *         <code><b>null</b></code> at the end of the input; once a limit is
+   *         exceeded, the last of these is refused, and ends the connection */
+  private List<Request> read(final Input in) throws IOException {
+    final List<Request> $ = new ArrayList<>();
+    in.reset();
+    try {
+      for (String line = in.line();; line = in.line()) {
+        if (line == null)
+          return $.isEmpty() ? null : $;
+        if (line.isEmpty())
+          return $;
+        final Request r = $.size() >= MAX_BATCH ? Request.refused("More than " + MAX_BATCH + " requests in a batch") : new Request(line);
+        if (r.lines > MAX_LINES)
+          r.refuse("More than " + MAX_LINES + " lines in a text");
+        else if (r.error == null && r.lines > 0) {
+          final List<String> text = new ArrayList<>();
+          for (int ¢ = 0; ¢ < r.lines; ++¢) {
+            final String l = in.line();
+            if (l == null)
+              throw new EOFException("Text of request '" + line + "' is cut");
+            text.add(l);
+          }
+          r.text = join(text);
+        }
+        r.response = workers.submit(() -> serve(r));
+        $.add(r);
+        if (r.last)
+          return $;
+      }
+    } catch (final TooLong x) {
+      final Request r = Request.refused(x.getMessage());
+      r.response = workers.submit(() -> serve(r));
+      $.add(r);
+      return $;
+    }
+  }
+
+  /** @return the lines of the response to a request */
+  private List<String> response(final Future<List<String>> f) {
+    try {
+      return f.get();
+    } catch (final InterruptedException x) {
+      Thread.currentThread().interrupt();
+      return Collections.singletonList("error " + x);
+    } catch (final ExecutionException x) {
+      monitor.logEvaluationError(this, x.getCause());
+      return Collections.singletonList("error " + (x.getCause() + "").replace('\n', ' '));
+    }
+  }
+
+  private List<String> serve(final Request r) {
+    if (r.error == null && r.file != null && r.text() == null)
+      r.error = "Cannot read " + r.file;
+    if (r.error != null)
+      return Collections.singletonList("error " + r.error);
+    final List<String> $ = new ArrayList<>();
+    $.add(null);
+    switch (r.verb) {
+      case "ping":
+      case "shutdown":
+        break;
+      case "trim":
+        $.addAll(lines(new Trimmer(toolbox(r.disabled)).fixed(r.text())));
+        break;
+      case "tips":
+        final Trimmer t = new Trimmer(toolbox(r.disabled));
+        for (final Tip ¢ : t.tipsOf((CompilationUnit) makeAST.COMPILATION_UNIT.from(r.text()), null).tips())
+          $.add(¢.lineNumber + " " + ¢.tipperClass.getSimpleName() + " " + ¢.description.replace('\n', ' '));
+        break;
+      case "metrics":
+        final String before = r.text(), after = new Trimmer(toolbox(r.disabled)).fixed(before);
+        final CodeScanner s = new CodeScanner();
+        final ASTNodeMetrics m1 = new ASTNodeMetrics(makeAST.COMPILATION_UNIT.from(before)).computeMetrics(before, s),
+            m2 = new ASTNodeMetrics(makeAST.COMPILATION_UNIT.from(after)).computeMetrics(after, s);
+        $.add("length " + m1.length() + " " + m2.length());
+        $.add("tokens " + m1.tokens() + " " + m2.tokens());
+        $.add("nodes " + m1.nodes() + " " + m2.nodes());
+        $.add("tide " + m1.tide() + " " + m2.tide());
+        $.add("essence " + m1.essence() + " " + m2.essence());
+        $.add("words " + m1.words() + " " + m2.words());
+        break;
+      default:
+        return Collections.singletonList("error Unknown verb: " + r.verb);
+    }
+    $.set(0, "ok " + ($.size() - 1));
+    return $;
+  }
+
+  /** @param disabled names of {@link TipperGroup}s, sorted, separated by
+   *        commas
+   * @return the default {@link Toolbox}, without the tippers of these groups */
+  private Toolbox toolbox(final String disabled) {
+    return disabled.isEmpty() ? Toolbox.defaultInstance() : toolboxes.computeIfAbsent(disabled, k -> {
+      final Toolbox $ = Toolbox.defaultInstance().mutableCopy();
+      for (final String ¢ : k.split(","))
+        $.disable(TipperGroup.valueOf(¢).category());
+      return $.freeze();
+    });
+  }
+
+  private static void write(final BufferedWriter w, final List<String> ss) throws IOException {
+    for (final String ¢ : ss)
+      w.write(¢ + "\n");
+  }
+
+  /** Lines of a connection, read no further than {@link #MAX_CHARS} characters
+   * into a batch */
+  private static final class Input {
+    private final BufferedReader in;
+    /** Characters left to the current batch */
+    private int left;
+
+    Input(final BufferedReader in) {
+      this.in = in;
+      reset();
+    }
+
+    /** @return the next line, without its end, or <code><b>null</b></code> at
+     *         the end of the input
+     * @throws TooLong if the batch has no more characters left */
+    String line() throws IOException {
+      final StringBuilder $ = new StringBuilder();
+      for (int c = in.read();; c = in.read()) {
+        if (c == -1)
+          return $.length() == 0 ? null : $ + "";
+        if (c == '\n')
+          return $.length() > 0 && $.charAt($.length() - 1) == '\r' ? $.substring(0, $.length() - 1) : $ + "";
+        if (--left < 0)
+          throw new TooLong("More than " + MAX_CHARS + " characters in a batch");
+        $.append((char) c);
+      }
+    }
+
+    /** Starts a batch */
+    void reset() {
+      left = MAX_CHARS;
+    }
+
+    /** @param length length of the token
+     * @return the first line, if it is no longer than the token, and
+     *         <code><b>null</b></code> otherwise, or at the end of the input */
+    String token(final int length) throws IOException {
+      left = length + 1;
+      try {
+        return line();
+      } catch (final TooLong __) {
+        return null;
+      } finally {
+        reset();
+      }
+    }
+  }
+
+  /** Thrown once a batch exceeds {@link #MAX_CHARS} */
+  @SuppressWarnings("serial") private static final class TooLong extends IOException {
+    TooLong(final String message) {
+      super(message);
+    }
+  }
+
+  /** A request, as parsed from its header line */
+  static final class Request {
+    final String verb;
+    /** Names of the groups not to apply, sorted, separated by commas */
+    String disabled = "";
+    String file;
+    int lines;
+    String text;
+    /** Why the request is malformed, or <code><b>null</b></code> */
+    String error;
+    /** Whether the connection ends once the request is answered */
+    boolean last;
+    Future<List<String>> response;
+
+    /** @param error why the request is refused
+     * @return a request which exceeds a limit; it is refused, and ends the
+     *         connection */
+    static Request refused(final String error) {
+      return new Request("refused").refuse(error);
+    }
+
+    Request(final String line) {
+      final String[] ss = line.trim().split(" +", 2);
+      verb = ss[0];
+      for (String rest = ss.length < 2 ? "" : ss[1]; error == null && !rest.isEmpty();) {
+        final String[] option = rest.split(" +", 2);
+        rest = option.length < 2 ? "" : option[1];
+        if (option[0].startsWith("disable="))
+          disabled = groups(option[0].substring("disable=".length()));
+        else if ("file".equals(option[0])) {
+          file = rest;
+          rest = "";
+        } else if ("text".equals(option[0]))
+          try {
+            lines = Integer.parseInt(rest.trim());
+            rest = "";
+            text = "";
+            if (lines < 0)
+              error = "Bad number of lines: " + lines;
+          } catch (final NumberFormatException __) {
+            error = "Bad number of lines: " + rest;
+          }
+        else
+          error = "Unknown option: " + option[0];
+      }
+      if (error == null && file == null && text == null && !"ping".equals(verb) && !"shutdown".equals(verb))
+        error = "No file and no text in: " + line;
+    }
+
+    /** @param reason why the request is refused
+     * @return <code><b>this</b></code>, for easy chaining. */
+    Request refuse(final String reason) {
+      error = reason;
+      last = true;
+      return this;
+    }
+
+    /** @return the text to process, as read from the file if not given, or
+     *         <code><b>null</b></code> if the file cannot be read */
+    String text() {
+      return text != null || file == null ? text : (text = makeAST.string(new File(file)));
+    }
+
+    private String groups(final String names) {
+      final SortedSet<String> $ = new TreeSet<>();
+      for (final String ¢ : names.split(","))
+        try {
+          $.add(TipperGroup.valueOf(¢) + "");
+        } catch (final IllegalArgumentException __) {
+          error = "Unknown group: " + ¢;
+        }
+      return String.join(",", $);
+    }
+  }
+}
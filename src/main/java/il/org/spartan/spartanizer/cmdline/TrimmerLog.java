@@ -1,6 +1,7 @@
 package il.org.spartan.spartanizer.cmdline;
 
 import java.io.*;
+import java.util.concurrent.atomic.*;
 
 import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jdt.core.dom.rewrite.*;
@@ -11,14 +12,15 @@ import il.org.spartan.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.spartanizer.tipping.*;
 
-/** Logging stuff
+/** Logging stuff. Counters are atomic, since trimming may be carried out by
+ * several threads at once.
  * @author Yossi Gil
  * @year 2016 */
 public class TrimmerLog {
   private static CSVStatistics output;
-  private static int maxVisitations = 30;
-  private static int maxTips = 20;
-  private static int maxApplications = 10;
+  private static final AtomicInteger maxVisitations = new AtomicInteger(30);
+  private static final AtomicInteger maxTips = new AtomicInteger(20);
+  private static final AtomicInteger maxApplications = new AtomicInteger(10);
   private static boolean logToScreen = true; // default output
   private static boolean logToFile;
   private static String outputDir = "/tmp/trimmerlog-output.CSV";
@@ -33,8 +35,9 @@ public class TrimmerLog {
   }
 
   public static void application(final ASTRewrite r, final Tip t) {
-    if (--maxApplications <= 0) {
-      if (maxApplications == 0)
+    final int remaining = maxApplications.decrementAndGet();
+    if (remaining <= 0) {
+      if (remaining == 0)
         System.out.println("Stopped logging applications");
       t.go(r, null);
       return;
@@ -45,15 +48,15 @@ public class TrimmerLog {
   }
 
   public static int getMaxApplications() {
-    return maxApplications;
+    return maxApplications.get();
   }
 
   public static int getMaxTips() {
-    return maxTips;
+    return maxTips.get();
   }
 
   public static int getMaxVisitations() {
-    return maxVisitations;
+    return maxVisitations.get();
   }
 
   public static void setFileName(final String $) {
@@ -61,15 +64,15 @@ public class TrimmerLog {
   }
 
   public static void setMaxApplications(final int maxApplications) {
-    TrimmerLog.maxApplications = maxApplications;
+    TrimmerLog.maxApplications.set(maxApplications);
   }
 
   public static void setMaxTips(final int maxTips) {
-    TrimmerLog.maxTips = maxTips;
+    TrimmerLog.maxTips.set(maxTips);
   }
 
   public static void setMaxVisitations(final int maxVisitations) {
-    TrimmerLog.maxVisitations = maxVisitations;
+    TrimmerLog.maxVisitations.set(maxVisitations);
   }
 
   public static void setOutputDir(final String $) {
@@ -77,22 +80,24 @@ public class TrimmerLog {
   }
 
   public static <N extends ASTNode> void tip(final Tipper<N> w, final N n) throws TipperFailure {
-    if (--maxTips <= 0) {
-      if (maxTips == 0)
+    final int remaining = maxTips.decrementAndGet();
+    if (remaining <= 0) {
+      if (remaining == 0)
         System.out.println("Stopped logging tips");
       return;
     }
-    if (logToFile) {
-      init();
-      output.put("File", fileName);
-      output.put("Tipper", clazz(w));
-      output.put("Named", w.description());
-      output.put("Kind", w.tipperGroup());
-      output.put("Described", w.description(n));
-      output.put("Can tip", w.canTip(n));
-      output.put("Suggests", w.tip(n));
-      output.nl();
-    }
+    if (logToFile)
+      synchronized (TrimmerLog.class) {
+        init();
+        output.put("File", fileName);
+        output.put("Tipper", clazz(w));
+        output.put("Named", w.description());
+        output.put("Kind", w.tipperGroup());
+        output.put("Described", w.description(n));
+        output.put("Can tip", w.canTip(n));
+        output.put("Suggests", w.tip(n));
+        output.nl();
+      }
     if (!logToScreen || !logToScreen)
       return;
     System.out.println("        File: " + fileName);
@@ -105,9 +110,10 @@ public class TrimmerLog {
   }
 
   public static void visitation(final ASTNode ¢) {
-    if (--maxVisitations > 0)
+    final int remaining = maxVisitations.decrementAndGet();
+    if (remaining > 0)
       System.out.println("VISIT: '" + tide.clean(¢ + "") + "' [" + ¢.getLength() + "] (" + clazz(¢) + ")" + " parent = " + clazz(parent(¢)));
-    else if (maxVisitations == 0)
+    else if (remaining == 0)
       System.out.println("Stopped logging visitations");
   }
 
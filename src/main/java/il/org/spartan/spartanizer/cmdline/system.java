@@ -4,8 +4,8 @@ import static il.org.spartan.utils.Box.*;
 
 import java.io.*;
 
-import il.org.spartan.java.*;
 import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
 
 /** Not such a good name for a bunch of static functions
  * @author Yossi Gil
@@ -54,15 +54,7 @@ public interface system {
   }
 
   static int tokens(final String s) {
-    int $ = 0;
-    for (final Tokenizer tokenizer = new Tokenizer(new StringReader(s));;) {
-      final Token t = tokenizer.next();
-      if (t == null || t == Token.EOF)
-        return $;
-      if (t.kind == Token.Kind.COMMENT || t.kind == Token.Kind.NONCODE)
-        continue;
-      ++$;
-    }
+    return metrics.tokens(s);
   }
 
   static boolean isTestFile(final File ¢) {
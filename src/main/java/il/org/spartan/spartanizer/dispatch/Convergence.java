@@ -0,0 +1,102 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Guards a loop which trims a text, round after round, until a round changes
+ * nothing: the loop is stopped after too many rounds, after too long, or once a
+ * round makes a text which an earlier round made, as happens when tippers undo
+ * each other. Texts are remembered by a 64 bit hash, so that a round costs a
+ * pass over its text and a lookup. The text of the last round is the one to
+ * keep; in a cycle, this is the text at which the cycle started.
+ * @since 2016 */
+public final class Convergence {
+  /** Default number of rounds, after which a loop is stopped */
+  public static final int ROUNDS = 100;
+  /** Default number of milliseconds, after which a loop is stopped */
+  public static final long MILLIS = 60_000;
+
+  /** @param ¢ JD
+   * @return FNV-1a hash of the text */
+  static long hash(final String ¢) {
+    long $ = 0xcbf29ce484222325L;
+    for (int i = 0; i < ¢.length(); ++i)
+      $ = ($ ^ ¢.charAt(i)) * 0x100000001b3L;
+    return $;
+  }
+
+  private final int rounds;
+  private final long deadline;
+  /** Round in which each text was made, by its hash; the first text is made in
+   * round 0 */
+  private final Map<Long, Integer> seen = new HashMap<>();
+  /** Names of the tippers applied in each round */
+  private final List<Set<String>> tippers = new ArrayList<>();
+  private String verdict;
+
+  /** Instantiates this class, with the default budgets
+   * @param text the text before the first round */
+  public Convergence(final String text) {
+    this(text, ROUNDS, MILLIS);
+  }
+
+  /** Instantiates this class
+   * @param text the text before the first round
+   * @param rounds maximal number of rounds
+   * @param millis maximal number of milliseconds, from now */
+  public Convergence(final String text, final int rounds, final long millis) {
+    this.rounds = rounds;
+    deadline = System.nanoTime() + 1000000 * millis;
+    seen.put(Long.valueOf(hash(text)), Integer.valueOf(0));
+  }
+
+  /** Records a round, and reports, via {@link monitor}, why the loop should
+   * stop, if it should
+   * @param text the text made by the round
+   * @param ts the tips applied in the round
+   * @return <code><b>true</b></code> <em>iff</em> the loop may make another
+   *         round */
+  public boolean proceed(final String text, final Iterable<Tip> ts) {
+    final Set<String> names = new LinkedHashSet<>();
+    for (final Tip ¢ : ts)
+      if (¢.tipperClass != null)
+        names.add(¢.tipperClass.getSimpleName());
+    tippers.add(names);
+    final int round = tippers.size();
+    final Integer earlier = seen.put(Long.valueOf(hash(text)), Integer.valueOf(round));
+    if (earlier != null && earlier.intValue() == round - 1)
+      return stop("round " + round + " applies tips, but does not change the text; tippers: " + names);
+    if (earlier != null)
+      return stop("rounds " + (earlier.intValue() + 1) + " to " + round + " undo each other; tippers: " + cycle(earlier.intValue(), round));
+    if (round >= rounds)
+      return stop("no fixed point after " + round + " rounds; tippers of the last round: " + names);
+    return System.nanoTime() - deadline < 0 || stop("no fixed point after " + round + " rounds, when time is up; tippers of the last round: " + names);
+  }
+
+  /** @return the number of rounds recorded so far */
+  public int rounds() {
+    return tippers.size();
+  }
+
+  /** @return why the loop was stopped, or <code><b>null</b></code> if it was
+   *         not */
+  public String verdict() {
+    return verdict;
+  }
+
+  /** @return names of the tippers applied from the round after one round, up to
+   *         another */
+  private Set<String> cycle(final int from, final int to) {
+    final Set<String> $ = new LinkedHashSet<>();
+    for (int ¢ = from; ¢ < to; ++¢)
+      $.addAll(tippers.get(¢));
+    return $;
+  }
+
+  private boolean stop(final String reason) {
+    monitor.now.error("Trimming stopped: " + (verdict = reason));
+    return false;
+  }
+}
@@ -0,0 +1,119 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** The source intervals of the declarations of an AST whose Javadoc carries a
+ * disabler or an enabler, kept as a single property of its root. Declarations
+ * are properly nested, so that the innermost of these which contains a node
+ * decides whether the node is disabled; a declaration with both a disabler and
+ * an enabler is disabled.
+ * @since 2016 */
+final class DisabledIntervals {
+  /** Name of the property of the root of an AST, in which its intervals are
+   * kept */
+  private static final String propertyName = "spartan disabled intervals";
+  private static final DisabledIntervals EMPTY = new DisabledIntervals(new ArrayList<>());
+
+  /** @param ¢ a node of an AST
+   * @return the intervals of this AST, which are empty if it was not
+   *         scanned */
+  static DisabledIntervals of(final ASTNode ¢) {
+    final DisabledIntervals $ = NodeData.get(¢.getRoot(), propertyName);
+    return $ != null ? $ : EMPTY;
+  }
+
+  /** Replaces the intervals of the declarations of a subtree of an AST
+   * @param n root of the subtree
+   * @param ds the declarations of the subtree to be marked, in any order, each
+   *        disabled, or not */
+  static void replace(final ASTNode n, final Map<BodyDeclaration, Boolean> ds) {
+    final ASTNode root = n.getRoot();
+    final List<Entry> $ = new ArrayList<>();
+    for (final Entry ¢ : of(root).entries)
+      if (n != root && !ds.containsKey(¢.declaration) && !within(¢.declaration, n))
+        $.add(¢);
+    for (final Map.Entry<BodyDeclaration, Boolean> ¢ : ds.entrySet())
+      if (¢.getKey().getStartPosition() >= 0)
+        $.add(new Entry(¢.getKey(), ¢.getValue().booleanValue()));
+    NodeData.set(root, propertyName, $.isEmpty() ? null : new DisabledIntervals($));
+  }
+
+  private static boolean within(final ASTNode inner, final ASTNode outer) {
+    for (ASTNode $ = inner; $ != null; $ = $.getParent())
+      if ($ == outer)
+        return true;
+    return false;
+  }
+
+  private final Entry[] entries;
+  private final int[] starts;
+  /** By index of an entry, the index of the innermost entry which contains
+   * it, or -1 */
+  private final int[] parents;
+  /** Index of the last entry which starts at, or before, the node last looked
+   * up; since nodes are mostly looked up in preorder, it is likely to be that
+   * of the next one as well */
+  private int cursor = -1;
+
+  private DisabledIntervals(final List<Entry> entries) {
+    this.entries = entries.toArray(new Entry[entries.size()]);
+    Arrays.sort(this.entries, (e1, e2) -> Integer.compare(e1.start, e2.start));
+    starts = new int[this.entries.length];
+    parents = new int[this.entries.length];
+    for (int ¢ = 0; ¢ < starts.length; ++¢) {
+      starts[¢] = this.entries[¢].start;
+      parents[¢] = enclosing(¢ - 1, this.entries[¢].start, this.entries[¢].end);
+    }
+  }
+
+  /** @param ¢ a node of the AST of these intervals
+   * @return <code><b>true</b></code> <em>iff</em> the node is disabled */
+  boolean on(final ASTNode ¢) {
+    if (entries.length == 0)
+      return false;
+    final int start = ¢.getStartPosition();
+    if (start < 0)
+      return false;
+    final int end = start + ¢.getLength();
+    int i = cursor;
+    if (i < 0 || start < starts[i] || i + 1 < starts.length && start >= starts[i + 1]) {
+      i = Arrays.binarySearch(starts, start);
+      cursor = i = i >= 0 ? i : -i - 2;
+    }
+    for (; i >= 0; i = parents[i])
+      if (entries[i].contains(¢, start, end))
+        return entries[i].disabled;
+    return false;
+  }
+
+  /** @return index of the innermost entry, at or before a given index, which
+   *         contains a given interval, or -1 */
+  private int enclosing(final int from, final int start, final int end) {
+    for (int $ = from; $ >= 0; $ = parents[$])
+      if (entries[$].start <= start && end <= entries[$].end)
+        return $;
+    return -1;
+  }
+
+  private static final class Entry {
+    final BodyDeclaration declaration;
+    final int start, end;
+    final boolean disabled;
+
+    Entry(final BodyDeclaration declaration, final boolean disabled) {
+      this.declaration = declaration;
+      start = declaration.getStartPosition();
+      end = start + declaration.getLength();
+      this.disabled = disabled;
+    }
+
+    /** A node whose interval is that of the declaration, but which is not the
+     * declaration, is one of its ancestors, e.g., a
+     * {@link TypeDeclarationStatement} */
+    boolean contains(final ASTNode n, final int from, final int to) {
+      return start <= from && to <= end && (from != start || to != end || n == declaration);
+    }
+  }
+}
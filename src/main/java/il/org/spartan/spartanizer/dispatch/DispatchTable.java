@@ -0,0 +1,136 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.tipping.*;
+
+/** The {@link Prefilter}s of all tippers of a frozen {@link Toolbox}, compiled
+ * into a decision table: for each node type and operator, which tippers are
+ * plausible. Also keeps count, per node type, of the calls to
+ * {@link Tipper#canTip(ASTNode)} that were made, and of those avoided.
+ * @since 2016 */
+public final class DispatchTable {
+  private static final int SIZE = 2 * ASTNode.TYPE_METHOD_REFERENCE;
+  private static final LongAdder[] avoided = adders();
+  private static final LongAdder[] invoked = adders();
+
+  /** @param ¢ node type, as in {@link ASTNode#getNodeType()}
+   * @return how many calls to {@link Tipper#canTip(ASTNode)} on nodes of this
+   *         type were saved by prefilters */
+  public static long avoided(final int ¢) {
+    return avoided[¢].sum();
+  }
+
+  /** @param ¢ node type, as in {@link ASTNode#getNodeType()}
+   * @return how many calls to {@link Tipper#canTip(ASTNode)} on nodes of this
+   *         type were made */
+  public static long invoked(final int ¢) {
+    return invoked[¢].sum();
+  }
+
+  public static void reset() {
+    for (int ¢ = 0; ¢ < SIZE; ++¢) {
+      avoided[¢].reset();
+      invoked[¢].reset();
+    }
+  }
+
+  /** @return a line per node type for which any tipper was considered: name,
+   *         calls made and calls avoided */
+  public static String summary() {
+    final StringBuilder $ = new StringBuilder();
+    for (int ¢ = 1; ¢ < SIZE; ++¢)
+      if (invoked(¢) + avoided(¢) > 0)
+        $.append(ASTNode.nodeClassForType(¢).getSimpleName()).append(": ").append(invoked(¢)).append(" canTip calls, ").append(avoided(¢))
+            .append(" avoided\n");
+    return $ + "";
+  }
+
+  static void count(final int nodeType, final int invocations, final int avoidances) {
+    if (invocations > 0)
+      invoked[nodeType].add(invocations);
+    if (avoidances > 0)
+      avoided[nodeType].add(avoidances);
+  }
+
+  private static LongAdder[] adders() {
+    final LongAdder[] $ = new LongAdder[SIZE];
+    for (int ¢ = 0; ¢ < SIZE; ++¢)
+      $[¢] = new LongAdder();
+    return $;
+  }
+
+  /** Prefilters, per node type, in the order of the tippers */
+  private final Prefilter[][] prefilters = new Prefilter[SIZE][];
+  /** Which tippers are plausible, per node type and operator; a
+   * <code><b>null</b></code> entry means that no tipper of this node type
+   * cares about operators */
+  @SuppressWarnings("unchecked") private final Map<Object, boolean[]>[] byOperator = new Map[SIZE];
+  /** Which tippers are plausible, per node type, for an operator that no
+   * tipper mentions */
+  private final boolean[][] otherwise = new boolean[SIZE][];
+
+  DispatchTable(final Toolbox t) {
+    for (int nodeType = 0; nodeType < SIZE; ++nodeType) {
+      final List<Tipper<? extends ASTNode>> ts = t.get(nodeType);
+      if (ts.isEmpty())
+        continue;
+      final Prefilter[] ps = prefilters[nodeType] = new Prefilter[ts.size()];
+      final boolean[] rest = otherwise[nodeType] = new boolean[ps.length];
+      final Set<Object> os = new LinkedHashSet<>();
+      for (int ¢ = 0; ¢ < ps.length; ++¢) {
+        ps[¢] = ts.get(¢).prefilter();
+        rest[¢] = ps[¢].operators() == null;
+        if (!rest[¢])
+          os.addAll(ps[¢].operators());
+      }
+      if (os.isEmpty())
+        continue;
+      final Map<Object, boolean[]> m = byOperator[nodeType] = new HashMap<>();
+      for (final Object o : os) {
+        final boolean[] plausible = new boolean[ps.length];
+        for (int ¢ = 0; ¢ < ps.length; ++¢)
+          plausible[¢] = rest[¢] || ps[¢].operators().contains(o);
+        m.put(o, plausible);
+      }
+    }
+  }
+
+  /** @param n JD
+   * @param ts the tippers of the toolbox from which this table was compiled,
+   *        for the type of the parameter
+   * @param s where a tip made to decide is kept, or <code><b>null</b></code>
+   * @return first {@link Tipper} that passes the table and the prefilter, and
+   *         can tip the node, or <code><b>null</b></code> if none */
+  @SuppressWarnings("unchecked") <N extends ASTNode> Tipper<N> firstTipper(final N n, final List<Tipper<?>> ts, final Speculation s) {
+    final int nodeType = n.getNodeType();
+    final Prefilter[] ps = prefilters[nodeType];
+    if (ps == null)
+      return null;
+    final boolean[] plausible = plausible(nodeType, n);
+    int invocations = 0, avoidances = 0;
+    try {
+      for (int ¢ = 0; ¢ < ps.length; ++¢)
+        if (!plausible[¢] || !ps[¢].acceptsOperands(n))
+          ++avoidances;
+        else {
+          ++invocations;
+          if (((Tipper<N>) ts.get(¢)).canTip(n, s))
+            return (Tipper<N>) ts.get(¢);
+        }
+      return null;
+    } finally {
+      count(nodeType, invocations, avoidances);
+    }
+  }
+
+  private boolean[] plausible(final int nodeType, final ASTNode n) {
+    if (byOperator[nodeType] == null)
+      return otherwise[nodeType];
+    final boolean[] $ = byOperator[nodeType].get(Prefilter.operator(n));
+    return $ != null ? $ : otherwise[nodeType];
+  }
+}
@@ -12,13 +12,24 @@ import org.eclipse.jdt.core.dom.*;
  * @see ExclusionManager */
 public abstract class DispatchingVisitor extends ASTVisitor {
   public final ExclusionManager exclude = new ExclusionManager();
-  private boolean initialized;
+  /** The tip made by the tipper last asked whether it can tip, for this
+   * traversal alone */
+  public final Speculation speculation = new Speculation();
+  /** The first node visited */
+  private ASTNode root;
 
   @Override public void preVisit(final ASTNode ¢) {
-    if (initialized)
+    exclude.enter(¢);
+    if (root != null)
       return;
+    root = ¢;
     initialization(¢);
-    initialized = true;
+  }
+
+  @Override public void postVisit(final ASTNode ¢) {
+    exclude.leave(¢);
+    if (¢ == root)
+      finalization(¢);
   }
 
   @Override public final boolean visit(final Assignment ¢) {
@@ -138,4 +149,10 @@ public abstract class DispatchingVisitor extends ASTVisitor {
   protected void initialization(@SuppressWarnings("unused") final ASTNode __) {
     // overridden
   }
+
+  /** Called once the first node visited, and all its descendants, are done
+   * @param __ the first node visited */
+  protected void finalization(@SuppressWarnings("unused") final ASTNode __) {
+    // overridden
+  }
 }
\ No newline at end of file
@@ -9,27 +9,89 @@ import il.org.spartan.spartanizer.ast.navigate.*;
 /** Hack to stop the trimmer from making more tips. The class should die. It
  * serves the purpose of disabling tips of spartanization in a method, whose
  * parameters are changed. But this disabling does not belong here.
+ * <p>
+ * A node is excluded if it, or any of its ancestors, was excluded. While a
+ * {@link DispatchingVisitor} is traversing, this instance keeps count of the
+ * excluded nodes on the path to the node being visited, so that checking that
+ * node takes constant time; other nodes are checked by walking up their
+ * ancestors.
  * @author Yossi Gil
  * @year 2015 */
 public final class ExclusionManager {
   final Set<ASTNode> inner = new HashSet<>();
+  /** Node being visited, or <code><b>null</b></code> if there is no traversal
+   * in progress */
+  private ASTNode current;
+  /** Number of excluded nodes among {@link #current} and its ancestors */
+  private int excluded;
+  /** Depth of {@link #current} in the traversal */
+  private int depth;
 
   public void exclude(final ASTNode ¢) {
-    inner.add(¢);
+    if (inner.add(¢) && onPath(¢))
+      ++excluded;
   }
 
   public void excludeAll(final List<? extends ASTNode> ¢) {
-    inner.addAll(¢);
+    for (final ASTNode n : ¢)
+      exclude(n);
   }
 
   public boolean isExcluded(final ASTNode n) {
+    if (n == current)
+      return excluded > 0;
+    if (inner.isEmpty())
+      return false;
     for (final ASTNode ancestor : hop.ancestors(n))
       if (inner.contains(ancestor))
         return true;
     return false;
   }
 
+  /** Called by a traversal before the children of a node are visited
+   * @param ¢ JD */
+  void enter(final ASTNode ¢) {
+    if (depth++ == 0)
+      excluded = count(¢.getParent());
+    current = ¢;
+    if (inner.contains(¢))
+      ++excluded;
+  }
+
+  /** Called by a traversal after the children of a node were visited
+   * @param ¢ JD */
+  void leave(final ASTNode ¢) {
+    if (--depth == 0) {
+      current = null;
+      excluded = 0;
+      return;
+    }
+    if (inner.contains(¢))
+      --excluded;
+    current = ¢.getParent();
+  }
+
   void unExclude(final ASTNode ¢) {
-    inner.remove(¢);
+    if (inner.remove(¢) && onPath(¢))
+      --excluded;
+  }
+
+  /** @return number of excluded nodes among the parameter and its ancestors */
+  private int count(final ASTNode n) {
+    int $ = 0;
+    if (!inner.isEmpty())
+      for (ASTNode ¢ = n; ¢ != null; ¢ = ¢.getParent())
+        if (inner.contains(¢))
+          ++$;
+    return $;
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em> the parameter is the
+   *         node being visited or one of its ancestors */
+  private boolean onPath(final ASTNode n) {
+    for (ASTNode ¢ = current; ¢ != null; ¢ = ¢.getParent())
+      if (¢ == n)
+        return true;
+    return false;
   }
-}
\ No newline at end of file
+}
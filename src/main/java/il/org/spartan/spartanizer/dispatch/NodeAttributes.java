@@ -0,0 +1,163 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** Attributes of the nodes of an AST, kept in side tables of the AST as a
+ * whole, rather than in the property map of each node, as {@link NodeData}
+ * does. The nodes are numbered once, in preorder, and a {@link Key} is an
+ * array indexed by these numbers.
+ * <p>
+ * Nodes added to the AST after it was numbered, and the tags of Javadoc
+ * comments, have no attributes: a value is never stored for them. Values may
+ * be written by several threads, as long as they are caches, i.e., any of the
+ * values written for a node is good.
+ * @since 2016 */
+public final class NodeAttributes {
+  /** Name of the property of the root of an AST, in which its attributes are
+   * kept */
+  private static final String propertyName = "spartan attributes";
+  private static final AtomicInteger keyCount = new AtomicInteger();
+  /** Number of nodes following the last one looked up, which are compared with
+   * the node looked up before it is hashed */
+  private static final int LOOKAHEAD = 8;
+
+  /** @param ¢ a node of an AST
+   * @return the attributes of this AST; made, and the AST numbered, on first
+   *         use */
+  public static NodeAttributes of(final ASTNode ¢) {
+    final ASTNode root = ¢.getRoot();
+    final NodeAttributes $ = (NodeAttributes) root.getProperty(propertyName);
+    if ($ != null)
+      return $;
+    synchronized (root) {
+      final NodeAttributes again = (NodeAttributes) root.getProperty(propertyName);
+      if (again != null)
+        return again;
+      final NodeAttributes made = new NodeAttributes(root);
+      root.setProperty(propertyName, made);
+      return made;
+    }
+  }
+
+  /** The numbered nodes, in preorder */
+  private final ASTNode[] preorder;
+  /** Open addressing table of the numbered nodes, and their numbers */
+  private final ASTNode[] nodes;
+  private final int[] numbers;
+  private final int size;
+  /** Number of the node last looked up; since nodes are mostly looked up in
+   * preorder, the next one is likely to be found right after it, without
+   * hashing */
+  private int cursor;
+  private volatile Object[][] values = {};
+
+  private NodeAttributes(final ASTNode root) {
+    final Numbering n = new Numbering();
+    root.accept(n);
+    preorder = n.preorder;
+    nodes = n.nodes;
+    numbers = n.numbers;
+    size = n.size;
+  }
+
+  /** @param k JD
+   * @param n JD
+   * @return the value of the attribute of the node, or
+   *         <code><b>null</b></code> if it has none */
+  @SuppressWarnings("unchecked") public <T> T get(final Key<T> k, final ASTNode n) {
+    final int $ = number(n);
+    final Object[][] vs = values;
+    return $ < 0 || k.index >= vs.length || vs[k.index] == null ? null : (T) vs[k.index][$];
+  }
+
+  /** Stores a value of an attribute of a node
+   * @param k JD
+   * @param n JD
+   * @param value JD
+   * @return the value */
+  public <T> T put(final Key<T> k, final ASTNode n, final T value) {
+    final int $ = number(n);
+    if ($ >= 0)
+      column(k)[$] = value;
+    return value;
+  }
+
+  /** @return the number of nodes numbered */
+  public int size() {
+    return size;
+  }
+
+  private synchronized Object[] column(final Key<?> k) {
+    if (k.index >= values.length)
+      values = Arrays.copyOf(values, k.index + 1);
+    if (values[k.index] == null)
+      values[k.index] = new Object[size];
+    return values[k.index];
+  }
+
+  /** @return the preorder number of the node, or -1 if it was not numbered */
+  private int number(final ASTNode n) {
+    final int from = cursor;
+    for (int $ = from; $ < from + LOOKAHEAD && $ < size; ++$)
+      if (preorder[$] == n)
+        return cursor = $;
+    for (int $ = slot(n, nodes.length);; $ = $ + 1 & nodes.length - 1) {
+      if (nodes[$] == n)
+        return cursor = numbers[$];
+      if (nodes[$] == null)
+        return -1;
+    }
+  }
+
+  static int slot(final ASTNode n, final int length) {
+    final int $ = System.identityHashCode(n);
+    return ($ ^ $ >>> 16) & length - 1;
+  }
+
+  /** An attribute of nodes, whose values are of a given type
+   * @param <T> JD */
+  public static final class Key<T> {
+    final int index = keyCount.getAndIncrement();
+  }
+
+  /** Numbers the nodes of an AST in preorder; a Javadoc comment is numbered,
+   * but not its tags */
+  private static final class Numbering extends ASTVisitor {
+    ASTNode[] preorder = new ASTNode[32];
+    ASTNode[] nodes = new ASTNode[64];
+    int[] numbers = new int[64];
+    int size;
+
+    @Override public void preVisit(final ASTNode ¢) {
+      if (2 * (size + 1) > nodes.length)
+        grow();
+      for (int $ = slot(¢, nodes.length);; $ = $ + 1 & nodes.length - 1)
+        if (nodes[$] == null) {
+          nodes[$] = ¢;
+          numbers[$] = size;
+          break;
+        }
+      if (size == preorder.length)
+        preorder = Arrays.copyOf(preorder, 2 * size);
+      preorder[size++] = ¢;
+    }
+
+    private void grow() {
+      final ASTNode[] ns = nodes;
+      final int[] is = numbers;
+      nodes = new ASTNode[2 * ns.length];
+      numbers = new int[2 * ns.length];
+      for (int i = 0; i < ns.length; ++i)
+        if (ns[i] != null)
+          for (int $ = slot(ns[i], nodes.length);; $ = $ + 1 & nodes.length - 1)
+            if (nodes[$] == null) {
+              nodes[$] = ns[i];
+              numbers[$] = is[i];
+              break;
+            }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** The tip made by {@link Tipper#canTip(ASTNode, Speculation)} for a node, kept
+ * for {@link Tipper#tip(ASTNode, ExclusionManager, Speculation)} to reuse, if
+ * the dispatcher asks for the tip of the same node right away. An instance
+ * belongs to a single traversal, e.g., of a {@link DispatchingVisitor}, so
+ * that tippers, which are shared between threads, keep no tips of their own.
+ * @since 2016 */
+public final class Speculation {
+  private ASTNode node;
+  private Tip tip;
+
+  /** Keeps a tip, replacing the one kept before, if any
+   * @param n JD
+   * @param t a tip for this node, or <code><b>null</b></code>
+   * @return the tip */
+  public Tip keep(final ASTNode n, final Tip t) {
+    node = t == null ? null : n;
+    tip = t;
+    return t;
+  }
+
+  /** Takes the tip kept for a node; a tip is taken at most once
+   * @param ¢ JD
+   * @return the tip kept for the node, or <code><b>null</b></code> if none
+   *         was */
+  public Tip take(final ASTNode ¢) {
+    if (node != ¢)
+      return null;
+    final Tip $ = tip;
+    node = null;
+    tip = null;
+    return $;
+  }
+}
@@ -1,11 +1,9 @@
 package il.org.spartan.spartanizer.dispatch;
 
 import java.util.*;
-import java.util.concurrent.atomic.*;
 
 import org.eclipse.core.resources.*;
 import org.eclipse.jdt.core.dom.*;
-import org.eclipse.jdt.core.dom.rewrite.*;
 
 import il.org.spartan.plugin.*;
 import il.org.spartan.spartanizer.engine.*;
@@ -29,14 +27,15 @@ public final class TipperApplicator extends AbstractGUIApplicator {
     assert clazz != null : "Oops, cannot find kind of operands of " + w.myName();
   }
 
-  @Override protected void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m,
-      @SuppressWarnings("unused") final AtomicInteger __) {
+  @Override protected void consolidateTips(final TipCollection $, final CompilationUnit u, final IMarker m) {
     u.accept(new ASTVisitor() {
       @Override public void preVisit(final ASTNode ¢) {
         super.preVisit(¢);
         if (¢.getClass() == clazz || tipper.canTip(¢) || inRange(m, ¢))
           try {
-            tipper.tip(¢).go(r, null);
+            final Tip t = tipper.tip(¢);
+            t.go($.rewrite(), null);
+            $.add(t);
           } catch (final TipperFailure f) {
             monitor.debug(this, f);
           }
@@ -18,6 +18,11 @@ import il.org.spartan.spartanizer.utils.*;
 /** Singleton containing all {@link Tipper}s which are active, allowing
  * selecting and applying the most appropriate such object for a given
  * {@link ASTNode}.
+ * <p>
+ * The default instance is an immutable snapshot, shared by all trimmers,
+ * builders and batch workers. It is built once, and discarded only when a
+ * {@link TipperGroup} is switched on or off in the preferences. Clients that
+ * need to add or disable tippers should work on a {@link #mutableCopy()}.
  * @author Yossi Gil
  * @since 2015-08-22 */
 public class Toolbox {
@@ -53,8 +58,12 @@ public class Toolbox {
                 put(¢.getClass(), ¢.tipperGroup());
         }
       };
-  /** The default Instance of this class */
+  /** The default Instance of this class; guarded by the class lock, since it
+   * is shared by concurrent batch workers */
   static Toolbox defaultInstance;
+  /** Number of snapshots made so far */
+  private static int versions;
+  private static final List<Tipper<? extends ASTNode>> EMPTY = Collections.emptyList();
 
   /** Generate an {@link ASTRewrite} that contains the changes proposed by the
    * first tipper that applies to a node in the usual scan.
@@ -95,12 +104,19 @@ public class Toolbox {
     }
   }
 
-  public static Toolbox defaultInstance() {
-    return defaultInstance = defaultInstance != null ? defaultInstance : freshCopyOfAllTippers();
+  /** @return the current immutable snapshot of all enabled tippers */
+  public static synchronized Toolbox defaultInstance() {
+    return defaultInstance = defaultInstance != null ? defaultInstance : snapshot();
+  }
+
+  /** Discard the shared snapshot; the next call to {@link #defaultInstance()}
+   * rebuilds it, e.g., after a change in the preferences. */
+  public static synchronized void invalidate() {
+    defaultInstance = null;
   }
 
   public static Toolbox muttableDefaultInstance() {
-    return freshCopyOfAllTippers();
+    return defaultInstance().mutableCopy();
   }
 
   public static Toolbox emptyToolboox() {
@@ -296,12 +312,25 @@ public class Toolbox {
     return emptyToolboox().add(clazz, ns);
   }
 
-  public static void refresh() {
-    defaultInstance = freshCopyOfAllTippers();
+  public static synchronized void refresh() {
+    defaultInstance = snapshot();
   }
 
+  /** Bring the toolbox of a {@link Trimmer} up to date, if it uses an
+   * outdated snapshot of {@link #defaultInstance()}; private toolboxes, mutable
+   * or frozen, are left intact.
+   * @param ¢ JD */
   public static void refresh(final Trimmer ¢) {
-    ¢.toolbox = freshCopyOfAllTippers();
+    if (¢.toolbox == null || ¢.toolbox.shared)
+      ¢.toolbox = defaultInstance();
+  }
+
+  /** @return a new snapshot of all enabled tippers, to serve as
+   *         {@link #defaultInstance()} */
+  private static Toolbox snapshot() {
+    final Toolbox $ = freshCopyOfAllTippers().freeze();
+    $.shared = true;
+    return $;
   }
 
   private static void disable(final Class<? extends TipperCategory> c, final List<Tipper<? extends ASTNode>> ns) {
@@ -315,21 +344,95 @@ public class Toolbox {
     }
   }
 
-  @SuppressWarnings("unchecked") private static <N extends ASTNode> Tipper<N> firstTipper(final N n, final List<Tipper<?>> ts) {
-    for (final Tipper<?> ¢ : ts)
-      if (((Tipper<N>) ¢).canTip(n))
-        return (Tipper<N>) ¢;
-    return null;
+  @SuppressWarnings("unchecked") private static <N extends ASTNode> Tipper<N> firstTipper(final N n, final List<Tipper<?>> ts, final Speculation s) {
+    int invocations = 0, avoidances = 0;
+    try {
+      for (final Tipper<?> ¢ : ts)
+        if (!¢.prefilter().accepts(n))
+          ++avoidances;
+        else {
+          ++invocations;
+          if (((Tipper<N>) ¢).canTip(n, s))
+            return (Tipper<N>) ¢;
+        }
+      return null;
+    } finally {
+      DispatchTable.count(n.getNodeType(), invocations, avoidances);
+    }
   }
 
   /** Implementation */
   @SuppressWarnings("unchecked") private final List<Tipper<? extends ASTNode>>[] implementation = //
       (List<Tipper<? extends ASTNode>>[]) new List<?>[2 * ASTNode.TYPE_METHOD_REFERENCE];
 
+  /** Serial number of this snapshot, or 0 if it is still mutable */
+  private int version;
+  /** Compiled prefilters of a frozen instance */
+  private DispatchTable table;
+  /** Fingerprint of a frozen instance, computed on demand */
+  private String fingerprint;
+  /** Whether this instance was made by {@link #defaultInstance()} or
+   * {@link #refresh()}, rather than for a private use */
+  private boolean shared;
+
   public Toolbox() {
     // Nothing to do
   }
 
+  /** Make this instance immutable, so that it can be shared between threads;
+   * the tippers themselves keep no state but counters, see
+   * {@link #speculations()}. Does nothing if it already is.
+   * @return <code><b>this</b></code>, for easy chaining. */
+  public Toolbox freeze() {
+    if (frozen())
+      return this;
+    for (int ¢ = 0; ¢ < implementation.length; ++¢)
+      implementation[¢] = implementation[¢] == null || implementation[¢].isEmpty() ? EMPTY : Collections.unmodifiableList(implementation[¢]);
+    table = new DispatchTable(this);
+    synchronized (Toolbox.class) {
+      version = ++versions;
+    }
+    return this;
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em> this instance is an
+   *         immutable snapshot */
+  public boolean frozen() {
+    return version != 0;
+  }
+
+  /** @return a serial number distinguishing this snapshot from all previous
+   *         ones; 0 if this instance is mutable */
+  public int version() {
+    return version;
+  }
+
+  /** @return a digest of the classes of the tippers of this instance, by node
+   *         type and in order; unlike {@link #version()}, it is the same for
+   *         instances with the same tippers, also across sessions */
+  public String fingerprint() {
+    if (fingerprint != null)
+      return fingerprint;
+    long $ = 0;
+    for (int ¢ = 0; ¢ < implementation.length; ++¢)
+      if (implementation[¢] != null && !implementation[¢].isEmpty()) {
+        $ = 31 * $ + ¢;
+        for (final Tipper<? extends ASTNode> t : implementation[¢])
+          $ = 31 * $ + t.getClass().getName().hashCode();
+      }
+    final String s = Long.toHexString($);
+    return !frozen() ? s : (fingerprint = s);
+  }
+
+  /** @return a mutable copy of this instance, sharing its tipper objects */
+  public Toolbox mutableCopy() {
+    final Toolbox $ = new Toolbox();
+    for (int ¢ = 0; ¢ < implementation.length; ++¢)
+      if (implementation[¢] != null && !implementation[¢].isEmpty())
+        $.implementation[¢] = new ArrayList<>(implementation[¢]);
+    return $;
+  }
+
   /** Associate a bunch of{@link Tipper} with a given sub-class of
    * {@link ASTNode}.
    * @param n JD
@@ -365,7 +468,18 @@ public class Toolbox {
    * @return first {@link Tipper} for which the parameter is within scope, or
    *         <code><b>null</b></code> if no such {@link Tipper} is found. @ */
   public <N extends ASTNode> Tipper<N> firstTipper(final N ¢) {
-    return firstTipper(¢, get(¢));
+    return firstTipper(¢, null);
+  }
+
+  /** Same as {@link #firstTipper(ASTNode)}, but keeps the tip, if one was made
+   * to decide, for {@link Tipper#tip(ASTNode, ExclusionManager, Speculation)}
+   * to reuse
+   * @param n JD
+   * @param s JD
+   * @return first {@link Tipper} for which the parameter is within scope, or
+   *         <code><b>null</b></code> if no such {@link Tipper} is found. */
+  public <N extends ASTNode> Tipper<N> firstTipper(final N n, final Speculation s) {
+    return table != null ? table.firstTipper(n, get(n), s) : firstTipper(n, get(n), s);
   }
 
   public List<Tipper<? extends ASTNode>> get(final int ¢) {
@@ -379,6 +493,20 @@ public class Toolbox {
     return $;
   }
 
+  /** @return a line per tipper of this instance whose tips were asked for by a
+   *         dispatcher: name, tips reused from
+   *         {@link Tipper#canTip(ASTNode, Speculation)}, and tips made again */
+  public String speculations() {
+    final StringBuilder $ = new StringBuilder();
+    final Set<Tipper<?>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (final List<Tipper<? extends ASTNode>> ts : implementation)
+      if (ts != null)
+        for (final Tipper<? extends ASTNode> ¢ : ts)
+          if (seen.add(¢) && ¢.hits() + ¢.misses() > 0)
+            $.append(¢.myName()).append(": ").append(¢.hits()).append(" reused, ").append(¢.misses()).append(" made again\n");
+    return $ + "";
+  }
+
   public int tippersCount() {
     int $ = 0;
     for (final List<?> ¢ : implementation)
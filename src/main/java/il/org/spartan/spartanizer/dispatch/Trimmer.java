@@ -1,15 +1,14 @@
 package il.org.spartan.spartanizer.dispatch;
 
 import java.util.*;
-import java.util.concurrent.atomic.*;
 
 import org.eclipse.core.resources.*;
 import org.eclipse.jdt.core.dom.*;
-import org.eclipse.jdt.core.dom.rewrite.*;
 import org.eclipse.jface.text.*;
 import org.eclipse.text.edits.*;
 
 import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.ast.safety.*;
 import il.org.spartan.spartanizer.cmdline.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.spartanizer.tipping.*;
@@ -26,7 +25,17 @@ public class Trimmer extends AbstractGUIApplicator {
     return true;
   }
 
+  /** Same as {@link #prune(Tip, List)}, in logarithmic rather than linear
+   * time */
+  public static boolean prune(final Tip r, final TipAccumulator rs) {
+    rs.add(r);
+    return true;
+  }
+
   public Toolbox toolbox;
+  /** Guard of the last run of {@link #fixed(String)} or
+   * {@link #fixedIncrementally(Document)} */
+  Convergence convergence;
 
   /** Instantiates this class */
   public Trimmer() {
@@ -38,7 +47,19 @@ public class Trimmer extends AbstractGUIApplicator {
     this.toolbox = toolbox;
   }
 
-  @Override public void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m, final AtomicInteger i) {
+  /** @return the fingerprint of the toolbox, brought up to date first, so that
+   *         scans are not reused once a group of tippers is switched on or
+   *         off */
+  @Override protected Object configuration() {
+    Toolbox.refresh(this);
+    return toolbox.fingerprint();
+  }
+
+  @Override protected void consolidateTips(final TipCollection $, final CompilationUnit u, final IMarker m) {
+    consolidateTips($, (ASTNode) u, m);
+  }
+
+  void consolidateTips(final TipCollection $, final ASTNode u, final IMarker m) {
     u.accept(new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
         progressMonitor.worked(1);
@@ -47,7 +68,7 @@ public class Trimmer extends AbstractGUIApplicator {
           return true;
         Tipper<N> w = null;
         try {
-          w = getTipper(n);
+          w = getTipper(n, speculation);
         } catch (final Exception x) {
           monitor.debug(this, x);
         }
@@ -55,7 +76,7 @@ public class Trimmer extends AbstractGUIApplicator {
           return true;
         Tip s = null;
         try {
-          s = w.tip(n, exclude);
+          s = w.tip(n, exclude, speculation);
           TrimmerLog.tip(w, n);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -63,10 +84,10 @@ public class Trimmer extends AbstractGUIApplicator {
           monitor.debug(this, x);
         }
         if (s != null) {
-          i.incrementAndGet();
+          $.add(s);
           if (LogManager.isActive())
-            LogManager.getLogWriter().printRow(u.getJavaElement().getElementName(), s.description, s.lineNumber + "");
-          TrimmerLog.application(r, s);
+            LogManager.getLogWriter().printRow(elementName(u), s.description, s.lineNumber + "");
+          TrimmerLog.application($.rewrite(), s);
         }
         return true;
       }
@@ -77,24 +98,174 @@ public class Trimmer extends AbstractGUIApplicator {
     });
   }
 
+  /** Trims a text, until a round changes nothing, or until {@link Convergence}
+   * stops it
+   * @param from what to process
+   * @return trimmed text */
   public String fixed(final String from) {
-    for (final Document $ = new Document(from);;) {
+    final Document $ = new Document(from);
+    fixed($);
+    return $.get();
+  }
+
+  /** Same as {@link #fixed(String)}, but in place
+   * @param $ document to trim
+   * @return the compilation unit of the trimmed document, as parsed in the
+   *         last round, to confirm the fixed point */
+  public CompilationUnit fixed(final Document $) {
+    convergence = new Convergence($.get());
+    for (;;) {
       final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
-      final ASTRewrite r = createRewrite(u);
-      final TextEdit e = r.rewriteAST($, null);
+      final TipCollection ts = tipsOf(u, null);
+      final TextEdit e = ts.rewrite().rewriteAST($, null);
+      if (!e.hasChildren())
+        return u;
+      apply(e, $);
+      if (!convergence.proceed($.get(), ts.tips()))
+        return (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
+    }
+  }
+
+  /** Same as {@link #fixed(String)}, but incremental: after a round over the
+   * entire compilation unit, only the methods and initializers this round
+   * touched are re-parsed, as {@link makeAST#CLASS_BODY_DECLARATIONS}, and
+   * re-tipped, until none of them changes. Another full round is made if an
+   * edit falls elsewhere, e.g., in the imports or in a field, and to confirm
+   * the fixed point.
+   * @param from what to process
+   * @return trimmed text */
+  public String fixedIncrementally(final String from) {
+    final Document $ = new Document(from);
+    fixedIncrementally($);
+    return $.get();
+  }
+
+  /** Same as {@link #fixedIncrementally(String)}, but in place
+   * @param $ document to trim
+   * @return the compilation unit of the trimmed document, as parsed in the
+   *         last round, to confirm the fixed point */
+  public CompilationUnit fixedIncrementally(final Document $) {
+    convergence = new Convergence($.get());
+    for (;;) {
+      final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
+      final TipCollection ts = tipsOf(u, null);
+      final TextEdit e = ts.rewrite().rewriteAST($, null);
+      if (!e.hasChildren())
+        return u;
+      final List<Position> dirty = dirty(members(u), e);
       try {
-        e.apply($);
-      } catch (final MalformedTreeException | IllegalArgumentException | BadLocationException x) {
+        for (final Position ¢ : dirty)
+          $.addPosition(¢);
+        apply(e, $);
+        if (!convergence.proceed($.get(), ts.tips()))
+          return (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
+        for (List<Position> ps = dirty; ps != null && !ps.isEmpty();) {
+          final List<Tip> retipped = new ArrayList<>();
+          ps = retip(ps, $, retipped);
+          if (!retipped.isEmpty() && !convergence.proceed($.get(), retipped))
+            return (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
+        }
+      } catch (final BadLocationException x) {
         monitor.logEvaluationError(this, x);
         throw new AssertionError(x);
+      } finally {
+        for (final Position ¢ : dirty)
+          $.removePosition(¢);
       }
+    }
+  }
+
+  /** One round of trimming over each of the given members of a document, in
+   * isolation
+   * @param ps ranges of methods and initializers in the document
+   * @param d JD
+   * @param ts where to add the tips applied in this round
+   * @return the members changed in this round, or <code><b>null</b></code> if a
+   *         full round is required
+   * @throws BadLocationException */
+  private List<Position> retip(final List<Position> ps, final Document d, final List<Tip> ts) throws BadLocationException {
+    final List<Position> $ = new ArrayList<>();
+    for (final Position p : ps) {
+      if (p.isDeleted())
+        return null;
+      final String text = d.get(p.offset, p.length);
+      final AbstractTypeDeclaration t = az.abstractTypeDeclaration(makeAST.CLASS_BODY_DECLARATIONS.from(text));
+      if (t == null || t.bodyDeclarations().size() != 1 || !trackable((ASTNode) t.bodyDeclarations().get(0)))
+        return null;
+      final TipCollection c = new TipCollection(t);
+      consolidateTips(c, t, null);
+      final Document snippet = new Document(text);
+      final TextEdit e = c.rewrite().rewriteAST(snippet, null);
       if (!e.hasChildren())
-        return $.get();
+        continue;
+      apply(e, snippet);
+      d.replace(p.offset, p.length, snippet.get());
+      ts.addAll(c.tips());
+      $.add(p);
+    }
+    return $;
+  }
+
+  private void apply(final TextEdit e, final Document d) {
+    try {
+      e.apply(d);
+    } catch (final MalformedTreeException | IllegalArgumentException | BadLocationException x) {
+      monitor.logEvaluationError(this, x);
+      throw new AssertionError(x);
     }
   }
 
+  /** @param ps ranges of methods and initializers
+   * @param e edits made by a round of trimming
+   * @return the ranges, in which the edits were made, or an empty list if any
+   *         of the edits was made outside these */
+  private static List<Position> dirty(final List<Position> ps, final TextEdit e) {
+    final Set<Position> $ = new LinkedHashSet<>();
+    for (final TextEdit x : e.getChildren()) {
+      final Position p = enclosing(ps, x);
+      if (p == null)
+        return new ArrayList<>();
+      $.add(p);
+    }
+    final List<Position> sorted = new ArrayList<>($);
+    sorted.sort((p1, p2) -> p2.offset - p1.offset);
+    return sorted;
+  }
+
+  private static Position enclosing(final List<Position> ps, final TextEdit e) {
+    for (final Position $ : ps)
+      if (e.getOffset() > $.offset && e.getExclusiveEnd() < $.offset + $.length)
+        return $;
+    return null;
+  }
+
+  /** @param u JD
+   * @return ranges of the methods and initializers of the top level classes of
+   *         a compilation unit */
+  private static List<Position> members(final CompilationUnit u) {
+    final List<Position> $ = new ArrayList<>();
+    for (final Object t : u.types())
+      if (t instanceof TypeDeclaration && !((TypeDeclaration) t).isInterface())
+        for (final Object o : ((TypeDeclaration) t).bodyDeclarations()) {
+          final ASTNode ¢ = (ASTNode) o;
+          if (trackable(¢))
+            $.add(new Position(¢.getStartPosition(), ¢.getLength()));
+        }
+    return $;
+  }
+
+  private static boolean trackable(final ASTNode ¢) {
+    return (iz.methodDeclaration(¢) || ¢ instanceof Initializer) && (¢.getFlags() & (ASTNode.MALFORMED | ASTNode.RECOVERED)) == 0;
+  }
+
+  private static String elementName(final ASTNode ¢) {
+    final CompilationUnit $ = az.compilationUnit(¢.getRoot());
+    return $ == null || $.getJavaElement() == null ? "" : $.getJavaElement().getElementName();
+  }
+
   @Override protected ASTVisitor makeTipsCollector(final List<Tip> $) {
     Toolbox.refresh(this);
+    final TipAccumulator a = new TipAccumulator();
     return new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
         progressMonitor.worked(1);
@@ -102,14 +273,14 @@ public class Trimmer extends AbstractGUIApplicator {
           return true;
         Tipper<N> w = null;
         try {
-          w = getTipper(n);
+          w = getTipper(n, speculation);
         } catch (final Exception x) {
           monitor.debug(this, x);
         }
         if (w != null)
           progressMonitor.worked(5);
         try {
-          return w == null || w.cantTip(n) || prune(w.tip(n, exclude), $);
+          return w == null || prune(w.tip(n, exclude, speculation), a);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
         } catch (final Exception x) {
@@ -118,6 +289,10 @@ public class Trimmer extends AbstractGUIApplicator {
         return false;
       }
 
+      @Override protected void finalization(@SuppressWarnings("unused") final ASTNode __) {
+        a.into($);
+      }
+
       @Override protected void initialization(final ASTNode ¢) {
         disabling.scan(¢);
       }
@@ -134,8 +309,13 @@ public class Trimmer extends AbstractGUIApplicator {
     return true;
   }
 
-  protected <N extends ASTNode> Tipper<N> getTipper(final N ¢) {
-    return toolbox.firstTipper(¢);
+  /** @param n JD
+   * @param s where a tip made to decide is kept, see
+   *        {@link Toolbox#firstTipper(ASTNode, Speculation)}
+   * @return the tipper to apply to the node, or <code><b>null</b></code> if
+   *         none can tip it */
+  protected <N extends ASTNode> Tipper<N> getTipper(final N n, final Speculation s) {
+    return toolbox.firstTipper(n, s);
   }
 
   boolean changed;
@@ -1,28 +1,27 @@
 package il.org.spartan.spartanizer.dispatch;
 
-import org.eclipse.jdt.core.dom.*;
+import java.util.*;
 
-import il.org.spartan.spartanizer.ast.navigate.*;
-import il.org.spartan.spartanizer.ast.safety.*;
+import org.eclipse.jdt.core.dom.*;
 
 /** @author Yossi Gil
  * @since 2016 */
 public interface disabling {
-  /** A recursive scan for disabled nodes. Adds disabled property to disabled
-   * nodes and their sub trees.
+  /** A scan for disabled nodes, which replaces the disabled source intervals
+   * of the node and its sub trees.
    * <p>
    * Algorithm:
    * <ol>
-   * <li>Visit all nodes that contain an annotation.
-   * <li>If a node has a disabler, disable all nodes below it using
-   * {@link hop#descendants(ASTNode)}
-   * <li>Disabling is done by setting a node property, and is carried out
-   * <li>If a node which was previously disabled contains an enabler, enable all
-   * all its descendants.
-   * <li>If a node which was previously enabled, contains a disabler, disable
-   * all nodes below it, and carry on.
-   * <li>Obviously, the visit needs to be pre-order, i.e., visiting the parent
-   * before the children.
+   * <li>Find the Javadoc comments of the node and its descendants, in the
+   * comment list of the compilation unit, rather than by visiting all of it.
+   * <li>Look for disablers and enablers in the text fragments of their tags,
+   * rather than in their printout.
+   * <li>Record the source interval of each {@link BodyDeclaration} with a
+   * disabler or an enabler.
+   * <li>A node is disabled if the innermost of these intervals which contains
+   * it is of a declaration with a disabler. Thus, an enabler enables all the
+   * descendants of a declaration which was previously disabled, and a disabler
+   * inside it disables all nodes below it again.
    * </ol>
    * The disabling information is used later by the tip/fixing mechanisms, which
    * should know little about this class.
@@ -30,26 +29,9 @@ public interface disabling {
    * @author Ori Roth
    * @since 2016/05/13 */
   static void scan(final ASTNode n) {
-    n.accept(new DispatchingVisitor() {
-      @Override public boolean visit(final Initializer ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override public boolean visit(final EnumConstantDeclaration ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override protected <N extends ASTNode> boolean go(final N ¢) {
-        final BodyDeclaration ¢2 = az.bodyDeclaration(¢);
-        if (!disabling.isDisabledByIdentifier(¢2))
-          return true;
-        disabling.disable(¢2);
-        return false;
-      }
-    });
+    DisabledIntervals.replace(n, marked(n));
   }
 
-  String disabledPropertyId = "Trimmer_disabled_id";
   /** Disable laconic tips, used to indicate that no spartanization should be
    * made to node */
   String disablers[] = { "[[SuppressWarningsSpartan]]", //
@@ -58,35 +40,67 @@ public interface disabling {
   String enablers[] = { "[[EnableWarningsSpartan]]", //
   };
 
-  /** The recursive disabling process. Returns to {@link disabledScan} upon
-   * reaching an enabler.
+  /** Disables a declaration, as if it had a disabler, along with all its
+   * descendants, but for those which an enabler enables back.
    * @param d disabled {@link BodyDeclaration} */
   static void disable(final BodyDeclaration d) {
-    d.accept(new DispatchingVisitor() {
-      @Override public boolean visit(final Initializer ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override public boolean visit(final EnumConstantDeclaration ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override protected <N extends ASTNode> boolean go(final N ¢) {
-        if (¢ instanceof BodyDeclaration && disabling.isEnabledByIdentifier((BodyDeclaration) ¢)) {
-          scan(¢);
-          return false;
-        }
-        NodeData.set(¢, disabledPropertyId);
-        return true;
-      }
-    });
+    final Map<BodyDeclaration, Boolean> $ = marked(d);
+    $.put(d, Boolean.TRUE);
+    DisabledIntervals.replace(d, $);
   }
 
   /** @param n an {@link ASTNode}
    * @return <code><b>true</b></code> <em>iff</em> the node is spartanization
    *         disabled */
   static boolean on(final ASTNode ¢) {
-    return NodeData.has(¢, disabledPropertyId);
+    return ¢ != null && DisabledIntervals.of(¢).on(¢);
+  }
+
+  /** @param n an {@link ASTNode}
+   * @return the declarations of the node and its descendants with a disabler,
+   *         mapped to <code><b>true</b></code>, or an enabler, mapped to
+   *         <code><b>false</b></code> */
+  static Map<BodyDeclaration, Boolean> marked(final ASTNode n) {
+    final Map<BodyDeclaration, Boolean> $ = new HashMap<>();
+    for (final Javadoc j : javadocs(n)) {
+      final BodyDeclaration ¢ = declaration(j);
+      if (isDisabledByIdentifier(¢))
+        $.put(¢, Boolean.TRUE);
+      else if (isEnabledByIdentifier(¢))
+        $.put(¢, Boolean.FALSE);
+    }
+    return $;
+  }
+
+  /** @param ¢ a Javadoc comment
+   * @return the declaration it documents, if this is a declaration that may
+   *         be disabled, or <code><b>null</b></code> */
+  static BodyDeclaration declaration(final Javadoc ¢) {
+    final ASTNode $ = ¢.getParent();
+    return $ instanceof MethodDeclaration || $ instanceof AbstractTypeDeclaration && !($ instanceof AnnotationTypeDeclaration)
+        || $ instanceof FieldDeclaration || $ instanceof Initializer || $ instanceof EnumConstantDeclaration ? (BodyDeclaration) $ : null;
+  }
+
+  /** @param n an {@link ASTNode}
+   * @return the Javadoc comments of the node and its descendants; taken from
+   *         the comment list of the compilation unit, if there is one */
+  @SuppressWarnings("unchecked") static List<Javadoc> javadocs(final ASTNode n) {
+    final List<Javadoc> $ = new ArrayList<>();
+    final ASTNode root = n.getRoot();
+    final int from = n.getStartPosition(), to = from + n.getLength();
+    if (from >= 0 && root instanceof CompilationUnit && ((CompilationUnit) root).getCommentList() != null) {
+      for (final Comment ¢ : (List<Comment>) ((CompilationUnit) root).getCommentList())
+        if (¢ instanceof Javadoc && ¢.getParent() != null && ¢.getStartPosition() >= from && ¢.getStartPosition() + ¢.getLength() <= to)
+          $.add((Javadoc) ¢);
+      return $;
+    }
+    n.accept(new ASTVisitor() {
+      @Override public boolean visit(final Javadoc ¢) {
+        $.add(¢);
+        return false;
+      }
+    });
+    return $;
   }
 
   static boolean isDisabledByIdentifier(final BodyDeclaration ¢) {
@@ -97,8 +111,22 @@ public interface disabling {
     return !disabling.hasJavaDocIdentifier(¢, disablers) && disabling.hasJavaDocIdentifier(¢, enablers);
   }
 
+  /** Searches the text fragments of the tags of the Javadoc, rather than its
+   * printout
+   * @param d JD
+   * @param ids JD
+   * @return <code><b>true</b></code> <em>iff</em> one of the identifiers is
+   *         found in the Javadoc of the declaration */
   static boolean hasJavaDocIdentifier(final BodyDeclaration d, final String[] ids) {
-    return d != null && d.getJavadoc() != null && contains(d.getJavadoc() + "", ids);
+    return d != null && d.getJavadoc() != null && contains(d.getJavadoc().tags(), ids);
+  }
+
+  static boolean contains(final List<?> fragments, final String[] ids) {
+    for (final Object ¢ : fragments)
+      if (¢ instanceof TextElement && contains(((TextElement) ¢).getText(), ids)
+          || ¢ instanceof TagElement && contains(((TagElement) ¢).fragments(), ids))
+        return true;
+    return false;
   }
 
   static boolean contains(final String s, final String[] ids) {
@@ -56,6 +56,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (DefUse.absent(stringName, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(declarationsCollector($, name));
         return $;
@@ -68,6 +70,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (DefUse.undefined(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(definitionsCollector($, name));
         return $;
@@ -83,6 +87,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (DefUse.absent(stringName, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(new UsesCollectorIgnoreDefinitions($, name));
         return $;
@@ -98,6 +104,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (DefUse.absent(stringName, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(new UnsafeUsesCollector($, name));
         return $;
@@ -114,6 +122,9 @@ public enum Collect {
   public static Collector usesOf(final SimpleName n) {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
+        final List<SimpleName> known = DefUse.uses(name, ns);
+        if (known != null)
+          return known;
         final List<SimpleName> $ = new ArrayList<>();
         for (final ASTNode ¢ : ns)
           if (¢ != null)
@@ -131,6 +142,8 @@ public enum Collect {
 
       @Override public List<String> inside(final ASTNode... ns) {
         final List<String> $ = new ArrayList<>();
+        if (DefUse.absent(stringName, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           if (¢ != null)
             ¢.accept(new StringCollector($, stringName));
@@ -453,6 +466,8 @@ public enum Collect {
    * @return list of uses */
   final List<SimpleName> collect(final SimpleName what, final ASTNode... ns) {
     final List<SimpleName> $ = new ArrayList<>();
+    if (DefUse.absent(what + "", ns))
+      return $;
     for (final ASTNode n : ns)
       for (final ASTVisitor ¢ : collectors(what, $))
         n.accept(¢);
@@ -0,0 +1,350 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.Utils.*;
+import static org.eclipse.jdt.core.dom.ASTNode.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** A def-use index of a {@link MethodDeclaration}: by identifier, the
+ * occurrences of the name in the method, in preorder, each marked as a
+ * declaration, a definition, or neither, and with the depths of its innermost
+ * enclosing loop, <code><b>try</b></code> (or <code><b>synchronized</b></code>)
+ * statement, and anonymous class.
+ * <p>
+ * An index is made on the first query on a node of its method, and kept as a
+ * property of the method until the AST is changed. Tippers rewrite through an
+ * {@link org.eclipse.jdt.core.dom.rewrite.ASTRewrite}, rather than in place,
+ * so that all the tippers which examine a method in a pass share its index.
+ * Queries which an index cannot answer just as the collectors of
+ * {@link Collect} would, e.g., the uses of a name which is declared again in
+ * the nodes searched, are left to these collectors.
+ * @since 2016 */
+public final class DefUse {
+  /** Name of the property of a method, in which its index is kept */
+  private static final String propertyName = "spartan def-use";
+  private static final Occurrence[] NONE = {};
+  private static final int LOOP = 0, GUARD = 1, ANONYMOUS = 2;
+
+  /** @param ¢ a node
+   * @return the index of the innermost method which contains the node, made
+   *         if it was not, or <code><b>null</b></code> if there is no such
+   *         method */
+  public static DefUse of(final ASTNode ¢) {
+    final MethodDeclaration d = method(¢);
+    if (d == null)
+      return null;
+    synchronized (d) {
+      final DefUse $ = (DefUse) d.getProperty(propertyName);
+      if ($ != null && !$.stale())
+        return $;
+      final DefUse again = new DefUse(d);
+      d.setProperty(propertyName, again);
+      return again;
+    }
+  }
+
+  /** @param n a name
+   * @param until an ancestor of the name
+   * @return <code><b>true</b></code> <em>iff</em> the name is in an anonymous
+   *         class, which is either the ancestor, or below it */
+  public static boolean anonymous(final SimpleName n, final ASTNode until) {
+    return within(n, until, ANONYMOUS);
+  }
+
+  /** @param n a name
+   * @param until an ancestor of the name
+   * @return <code><b>true</b></code> <em>iff</em> the name is in a
+   *         <code><b>try</b></code> or <code><b>synchronized</b></code>
+   *         statement, which is either the ancestor, or below it */
+  public static boolean guarded(final SimpleName n, final ASTNode until) {
+    return within(n, until, GUARD);
+  }
+
+  /** @param n a name
+   * @param until an ancestor of the name
+   * @return <code><b>true</b></code> <em>iff</em> the name is in a loop, which
+   *         is either the ancestor, or below it */
+  public static boolean looped(final SimpleName n, final ASTNode until) {
+    return within(n, until, LOOP);
+  }
+
+  /** @param identifier JD
+   * @param ns JD
+   * @return <code><b>true</b></code> if a name with this identifier does not
+   *         occur in any of the nodes, <code><b>false</b></code> if it does, or
+   *         if this is not known */
+  static boolean absent(final String identifier, final ASTNode... ns) {
+    for (final ASTNode ¢ : ns) {
+      final DefUse $ = of(¢);
+      if ($ == null || $.occurs(identifier, ¢))
+        return false;
+    }
+    return true;
+  }
+
+  /** @param n JD
+   * @param ns JD
+   * @return <code><b>true</b></code> if {@link Collect#definitionsOf} finds no
+   *         definition of the name in any of the nodes,
+   *         <code><b>false</b></code> if it does, or if this is not known */
+  static boolean undefined(final SimpleName n, final ASTNode... ns) {
+    if (n == null)
+      return false;
+    for (final ASTNode ¢ : ns) {
+      final DefUse $ = of(¢);
+      if ($ == null || $.defines(n.getIdentifier(), ¢))
+        return false;
+    }
+    return true;
+  }
+
+  /** @param n JD
+   * @param ns JD
+   * @return the uses of the name in the nodes, as found by
+   *         {@link Collect#usesOf(SimpleName)}, or <code><b>null</b></code> if
+   *         these are not known */
+  static List<SimpleName> uses(final SimpleName n, final ASTNode... ns) {
+    if (n == null)
+      return null;
+    final List<SimpleName> $ = new ArrayList<>();
+    for (final ASTNode ¢ : ns)
+      if (¢ != null) {
+        final DefUse d = of(¢);
+        if (d == null || !d.uses(n.getIdentifier(), ¢, $))
+          return null;
+      }
+    return $;
+  }
+
+  /** @return whether a {@link UsesCollector}, which visits a node, goes on to
+   *         visit a given child of it */
+  private static boolean enters(final ASTNode parent, final ASTNode child) {
+    if (child instanceof Type)
+      return false;
+    final StructuralPropertyDescriptor $ = child.getLocationInParent();
+    switch (parent.getNodeType()) {
+      case ANNOTATION_TYPE_DECLARATION:
+      case ENUM_DECLARATION:
+      case TYPE_DECLARATION:
+        return $ == ((AbstractTypeDeclaration) parent).getBodyDeclarationsProperty();
+      case ANONYMOUS_CLASS_DECLARATION:
+        return $ == AnonymousClassDeclaration.BODY_DECLARATIONS_PROPERTY;
+      case CAST_EXPRESSION:
+        return $ == CastExpression.EXPRESSION_PROPERTY;
+      case FIELD_ACCESS:
+        return $ == FieldAccess.EXPRESSION_PROPERTY;
+      case METHOD_DECLARATION:
+        return $ == MethodDeclaration.BODY_PROPERTY;
+      case METHOD_INVOCATION:
+        return $ == MethodInvocation.EXPRESSION_PROPERTY || $ == MethodInvocation.ARGUMENTS_PROPERTY;
+      case QUALIFIED_NAME:
+        return $ == QualifiedName.QUALIFIER_PROPERTY;
+      case SUPER_METHOD_INVOCATION:
+        return $ == SuperMethodInvocation.ARGUMENTS_PROPERTY;
+      case VARIABLE_DECLARATION_FRAGMENT:
+        return $ == VariableDeclarationFragment.INITIALIZER_PROPERTY;
+      default:
+        return true;
+    }
+  }
+
+  /** @return whether {@link Collect#definitionsOf} takes a name as a
+   *         definition */
+  private static boolean definition(final SimpleName ¢) {
+    final StructuralPropertyDescriptor $ = ¢.getLocationInParent();
+    return $ == VariableDeclarationFragment.NAME_PROPERTY || $ == Assignment.LEFT_HAND_SIDE_PROPERTY || $ == PostfixExpression.OPERAND_PROPERTY
+        || $ == PrefixExpression.OPERAND_PROPERTY && in(((PrefixExpression) ¢.getParent()).getOperator(), PrefixExpression.Operator.INCREMENT,
+            PrefixExpression.Operator.DECREMENT);
+  }
+
+  private static int kind(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case DO_STATEMENT:
+      case ENHANCED_FOR_STATEMENT:
+      case FOR_STATEMENT:
+      case WHILE_STATEMENT:
+        return LOOP;
+      case SYNCHRONIZED_STATEMENT:
+      case TRY_STATEMENT:
+        return GUARD;
+      case ANONYMOUS_CLASS_DECLARATION:
+        return ANONYMOUS;
+      default:
+        return -1;
+    }
+  }
+
+  private static MethodDeclaration method(final ASTNode n) {
+    for (ASTNode $ = n; $ != null; $ = $.getParent())
+      if ($ instanceof MethodDeclaration)
+        return (MethodDeclaration) $;
+    return null;
+  }
+
+  private static boolean within(final SimpleName n, final ASTNode until, final int kind) {
+    final DefUse d = of(n);
+    final Occurrence o = d == null ? null : d.find(n);
+    final int depth = o == null ? -1 : d.depth(until);
+    if (depth < 0 || depth > o.depth || ancestor(n, o.depth - depth) != until)
+      for (ASTNode $ = n;; $ = $.getParent()) {
+        if ($ == null)
+          return false;
+        if (kind($) == kind)
+          return true;
+        if ($ == until)
+          return false;
+      }
+    return o.innermost[kind] >= depth;
+  }
+
+  private static ASTNode ancestor(final ASTNode n, final int height) {
+    ASTNode $ = n;
+    for (int ¢ = 0; ¢ < height; ++¢)
+      $ = $.getParent();
+    return $;
+  }
+
+  private final MethodDeclaration method;
+  private final long modificationCount;
+  private final Map<String, Occurrence[]> occurrences;
+
+  private DefUse(final MethodDeclaration method) {
+    this.method = method;
+    modificationCount = method.getAST().modificationCount();
+    final Indexer i = new Indexer();
+    method.accept(i);
+    occurrences = new HashMap<>();
+    for (final Map.Entry<String, List<Occurrence>> ¢ : i.occurrences.entrySet())
+      occurrences.put(¢.getKey(), ¢.getValue().toArray(new Occurrence[¢.getValue().size()]));
+  }
+
+  /** @return the depth of a node below the method, or -1 if it is not in the
+   *         method */
+  private int depth(final ASTNode n) {
+    int $ = 0;
+    for (ASTNode ¢ = n; ¢ != method; ¢ = ¢.getParent(), ++$)
+      if (¢ == null)
+        return -1;
+    return $;
+  }
+
+  private boolean defines(final String identifier, final ASTNode n) {
+    final int depth = depth(n);
+    for (final Occurrence ¢ : occurrences(identifier))
+      if (¢.definition && ¢.depth > depth && ancestor(¢.name, ¢.depth - depth) == n && !nested(¢.name.getParent(), n))
+        return true;
+    return false;
+  }
+
+  private Occurrence find(final SimpleName n) {
+    for (final Occurrence $ : occurrences(n.getIdentifier()))
+      if ($.name == n)
+        return $;
+    return null;
+  }
+
+  /** @return whether a node, or one of its ancestors up to a given one, is a
+   *         class, which {@link Collect#definitionsOf} does not enter */
+  private static boolean nested(final ASTNode n, final ASTNode until) {
+    for (ASTNode $ = n;; $ = $.getParent()) {
+      if ($ instanceof AbstractTypeDeclaration || $ instanceof AnonymousClassDeclaration)
+        return true;
+      if ($ == until)
+        return false;
+    }
+  }
+
+  private boolean occurs(final String identifier, final ASTNode n) {
+    final int depth = depth(n);
+    for (final Occurrence ¢ : occurrences(identifier))
+      if (¢.depth >= depth && ancestor(¢.name, ¢.depth - depth) == n)
+        return true;
+    return false;
+  }
+
+  private Occurrence[] occurrences(final String identifier) {
+    final Occurrence[] $ = occurrences.get(identifier);
+    return $ != null ? $ : NONE;
+  }
+
+  private boolean stale() {
+    return method.getAST().modificationCount() != modificationCount;
+  }
+
+  /** Adds the uses of a name in a node to a list, unless the name is declared
+   * in the node, which may hide it
+   * @return <code><b>false</b></code> if the name is declared in the node */
+  private boolean uses(final String identifier, final ASTNode n, final List<SimpleName> into) {
+    final int depth = depth(n);
+    for (final Occurrence ¢ : occurrences(identifier)) {
+      if (¢.depth < depth)
+        continue;
+      boolean reached = !(n instanceof Type);
+      ASTNode child = ¢.name;
+      for (int i = ¢.depth - depth; i > 0; --i) {
+        final ASTNode parent = child.getParent();
+        reached &= enters(parent, child);
+        child = parent;
+      }
+      if (child != n)
+        continue;
+      if (¢.declaration)
+        return false;
+      if (reached)
+        into.add(¢.name);
+    }
+    return true;
+  }
+
+  /** Collects the occurrences of names in a method */
+  private static final class Indexer extends ASTVisitor {
+    final Map<String, List<Occurrence>> occurrences = new HashMap<>();
+    /** By depth, the depths of the innermost loop, guard and anonymous class
+     * which enclose the node at this depth */
+    private int[][] innermost = new int[16][3];
+    private int depth = -1;
+
+    @Override public void postVisit(@SuppressWarnings("unused") final ASTNode __) {
+      --depth;
+    }
+
+    @Override public void preVisit(final ASTNode ¢) {
+      if (++depth == innermost.length) {
+        innermost = Arrays.copyOf(innermost, 2 * depth);
+        for (int $ = depth; $ < innermost.length; ++$)
+          innermost[$] = new int[3];
+      }
+      for (int $ = 0; $ < 3; ++$)
+        innermost[depth][$] = depth == 0 ? -1 : innermost[depth - 1][$];
+      final int kind = kind(¢);
+      if (kind >= 0)
+        innermost[depth][kind] = depth;
+    }
+
+    @Override public boolean visit(final SimpleName ¢) {
+      List<Occurrence> $ = occurrences.get(¢.getIdentifier());
+      if ($ == null)
+        occurrences.put(¢.getIdentifier(), $ = new ArrayList<>());
+      $.add(new Occurrence(¢, depth, innermost[depth].clone()));
+      return false;
+    }
+  }
+
+  private static final class Occurrence {
+    final SimpleName name;
+    final int depth;
+    final int[] innermost;
+    final boolean declaration;
+    final boolean definition;
+
+    Occurrence(final SimpleName name, final int depth, final int[] innermost) {
+      this.name = name;
+      this.depth = depth;
+      this.innermost = innermost;
+      declaration = name.isDeclaration();
+      definition = definition(name);
+    }
+  }
+}
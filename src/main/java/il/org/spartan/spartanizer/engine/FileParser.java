@@ -0,0 +1,87 @@
+package il.org.spartan.spartanizer.engine;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** Parses files, each on its own, into a unit of its own, exactly as by
+ * {@link makeAST#COMPILATION_UNIT}, and keeps count of the files and bytes
+ * parsed, and of the time it took, to report throughput. May be used by
+ * several threads at once, e.g., by each worker of a
+ * {@link il.org.spartan.spartanizer.cmdline.ParallelBatch} parsing its own
+ * files.
+ * @since 2016 */
+public final class FileParser {
+  private int files;
+  private long bytes;
+  private long nanos;
+
+  public synchronized long bytes() {
+    return bytes;
+  }
+
+  public synchronized int files() {
+    return files;
+  }
+
+  /** @param ¢ JD
+   * @return the compilation unit of the file, or <code><b>null</b></code> if
+   *         it could not be read */
+  public CompilationUnit parse(final File ¢) {
+    final long start = System.nanoTime();
+    final CompilationUnit $ = (CompilationUnit) makeAST.COMPILATION_UNIT.from(¢);
+    count(1, ¢.length(), System.nanoTime() - start);
+    return $;
+  }
+
+  /** @param fs JD
+   * @return the compilation units of the parameter, in the same order, where
+   *         a file that could not be read is mapped to
+   *         <code><b>null</b></code>; a file listed twice is parsed twice */
+  public List<CompilationUnit> parse(final List<File> fs) {
+    final List<CompilationUnit> $ = new ArrayList<>(fs.size());
+    for (final File ¢ : fs)
+      $.add(parse(¢));
+    return $;
+  }
+
+  /** @return the number of files and bytes parsed so far, and the rate of
+   *         parsing these, where time spent by several threads at once is
+   *         summed */
+  public synchronized String throughput() {
+    final double seconds = nanos / 1E9, megabytes = bytes / (double) (1 << 20);
+    return String.format("%d files (%.2f MB) parsed in %.2f s: %.1f files/s, %.2f MB/s", //
+        Integer.valueOf(files), Double.valueOf(megabytes), Double.valueOf(seconds), //
+        Double.valueOf(seconds == 0 ? 0 : files / seconds), Double.valueOf(seconds == 0 ? 0 : megabytes / seconds));
+  }
+
+  @Override public String toString() {
+    return throughput();
+  }
+
+  /** @param fs JD
+   * @return the compilation units of the parameter, in the same order, each
+   *         parsed when first needed, so that only the units in use are in
+   *         memory; a file that could not be read is mapped to
+   *         <code><b>null</b></code> */
+  public Iterable<CompilationUnit> units(final Iterable<File> fs) {
+    return () -> new Iterator<CompilationUnit>() {
+      final Iterator<File> inner = fs.iterator();
+
+      @Override public boolean hasNext() {
+        return inner.hasNext();
+      }
+
+      @Override public CompilationUnit next() {
+        return parse(inner.next());
+      }
+    };
+  }
+
+  private synchronized void count(final int files, final long bytes, final long nanos) {
+    this.files += files;
+    this.bytes += bytes;
+    this.nanos += nanos;
+  }
+}
@@ -5,8 +5,6 @@ import org.eclipse.jdt.core.*;
 import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jface.text.*;
 
-import il.org.spartan.spartanizer.ast.navigate.*;
-
 /** An empty <code><b>enum</b></code> for fluent programming. The name should
  * say it all: The name, followed by a dot, followed by a method name, should
  * read like a sentence phrase.
@@ -50,7 +48,7 @@ public enum Make {
    * @param text what to parse
    * @return a newly created parser for the parameter */
   public ASTParser parser(final char[] text) {
-    final ASTParser $ = wizard.parser(kind);
+    final ASTParser $ = ParserFactory.parser(kind);
     $.setSource(text);
     return $;
   }
@@ -59,7 +57,7 @@ public enum Make {
    * @param d JD
    * @return created parser */
   public ASTParser parser(final Document ¢) {
-    final ASTParser $ = wizard.parser(kind);
+    final ASTParser $ = ParserFactory.parser(kind);
     $.setSource(¢.get().toCharArray());
     return $;
   }
@@ -68,7 +66,7 @@ public enum Make {
    * @param u what to parse
    * @return a newly created parser for the parameter */
   public ASTParser parser(final ICompilationUnit ¢) {
-    final ASTParser $ = wizard.parser(kind);
+    final ASTParser $ = ParserFactory.parser(kind);
     $.setSource(¢);
     return $;
   }
@@ -0,0 +1,43 @@
+package il.org.spartan.spartanizer.engine;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+
+/** Creates the no-binding parsers used throughout, so that all are configured
+ * in one place, with the same compiler options. These options are made once,
+ * but this saves little, since {@link ASTParser#newParser(int)} copies the
+ * options of {@link JavaCore} anyway.
+ * @since 2016 */
+public enum ParserFactory {
+  ;
+  /** @return compiler options of all parsers; unmodifiable, since an
+   *         {@link ASTParser} keeps its own copy */
+  public static Map<String, String> options() {
+    return Options.INSTANCE;
+  }
+
+  /** @param kind one of {@link ASTParser#K_COMPILATION_UNIT},
+   *        {@link ASTParser#K_EXPRESSION}, {@link ASTParser#K_STATEMENTS}, or
+   *        {@link ASTParser#K_CLASS_BODY_DECLARATIONS}
+   * @return a newly created parser of this kind, without a source */
+  public static ASTParser parser(final int kind) {
+    final ASTParser $ = ASTParser.newParser(AST.JLS8);
+    $.setKind(kind);
+    $.setResolveBindings(false);
+    $.setCompilerOptions(options());
+    return $;
+  }
+
+  /** Initialized on first use, by the class loader */
+  private static final class Options {
+    static final Map<String, String> INSTANCE = make();
+
+    private static Map<String, String> make() {
+      final Map<String, String> $ = JavaCore.getOptions();
+      $.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8); // or newer version
+      return Collections.unmodifiableMap($);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package il.org.spartan.spartanizer.engine;
+
+import java.util.*;
+
+import il.org.spartan.spartanizer.utils.*;
+
+/** Collects tips, so that no tip includes a tip collected after it: adding a
+ * tip drops all tips whose range includes its range, exactly as
+ * {@link il.org.spartan.utils.Range#pruneIncluders(List)} does, but these are
+ * found in a {@link RangeIndex} rather than by a scan of all tips collected so
+ * far.
+ * @since 2016 */
+public final class TipAccumulator {
+  private final RangeIndex<Tip> index = new RangeIndex<>();
+  /** Tips in the order of their addition; dropped tips are replaced by
+   * <code><b>null</b></code> */
+  private final List<Tip> tips = new ArrayList<>();
+  private final Map<Tip, Integer> positions = new IdentityHashMap<>();
+
+  /** @param ¢ JD; ignored if <code><b>null</b></code>
+   * @return <code><b>this</b></code>, for easy chaining. */
+  public TipAccumulator add(final Tip ¢) {
+    if (¢ == null)
+      return this;
+    for (final Tip t : index.includers(¢)) {
+      index.remove(t);
+      tips.set(positions.remove(t).intValue(), null);
+    }
+    positions.put(¢, Integer.valueOf(tips.size()));
+    tips.add(¢);
+    index.add(¢);
+    return this;
+  }
+
+  /** Append the tips collected so far, in the order of their addition
+   * @param $ JD
+   * @return the parameter */
+  public List<Tip> into(final List<Tip> $) {
+    for (final Tip ¢ : tips)
+      if (¢ != null)
+        $.add(¢);
+    return $;
+  }
+
+  public int size() {
+    return index.size();
+  }
+}
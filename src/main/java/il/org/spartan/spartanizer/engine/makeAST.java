@@ -1,6 +1,10 @@
 package il.org.spartan.spartanizer.engine;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 import org.eclipse.core.resources.*;
@@ -10,7 +14,6 @@ import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jface.text.*;
 
 import il.org.spartan.plugin.*;
-import il.org.spartan.spartanizer.ast.navigate.*;
 
 /** An empty <code><b>enum</b></code> for fluent programming. The name should
  * say it all: The name, followed by a dot, followed by a method name, should
@@ -21,7 +24,7 @@ public enum makeAST {
   /** Converts file, string or marker to compilation unit. */
   COMPILATION_UNIT(ASTParser.K_COMPILATION_UNIT) {
     @Override public CompilationUnit from(final File ¢) {
-      return from(string(¢));
+      return (CompilationUnit) super.from(¢);
     }
 
     @Override public CompilationUnit from(final IFile ¢) {
@@ -39,7 +42,7 @@ public enum makeAST {
   /** Converts file, string or marker to expression. */
   EXPRESSION(ASTParser.K_EXPRESSION) {
     @Override public Expression from(final File ¢) {
-      return from(string(¢));
+      return (Expression) super.from(¢);
     }
 
     @Override public Expression from(final IFile ¢) {
@@ -74,20 +77,58 @@ public enum makeAST {
     return iCompilationUnit((IFile) ¢.getResource());
   }
 
-  /** Convert file contents into a {@link String}
+  /** Files at least this large are mapped to memory, rather than read */
+  static final long MAPPING_THRESHOLD = 1 << 20;
+
+  /** Read a file in the default charset, as in
+   * {@link #chars(File, Charset)}
    * @param f JD
-   * @return entire contents of this file, as one string */
-  public static String string(final File f) {
-    try (final BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(f)))) {
-      for (String $ = "", ¢ = r.readLine();; ¢ = r.readLine(), $ += ¢ + System.lineSeparator())
-        if (¢ == null)
-          return $;
+   * @return entire contents of this file, or <code><b>null</b></code> if it
+   *         could not be read */
+  public static char[] chars(final File f) {
+    return chars(f, Charset.defaultCharset());
+  }
+
+  /** Read a file in linear time, keeping its line separators, so that offsets
+   * in the result are those of the file; a leading byte order mark is dropped,
+   * as Eclipse does, and malformed input is replaced.
+   * @param f JD
+   * @param c charset of the file
+   * @return entire contents of this file, or <code><b>null</b></code> if it
+   *         could not be read */
+  public static char[] chars(final File f, final Charset c) {
+    try {
+      return chars(bytes(f), c);
     } catch (final IOException ¢) {
       monitor.infoIOException(¢, f + "");
       return null;
     }
   }
 
+  /** Convert file contents into a {@link String}
+   * @param f JD
+   * @return entire contents of this file, as one string, or
+   *         <code><b>null</b></code> if it could not be read */
+  public static String string(final File f) {
+    final char[] $ = chars(f);
+    return $ == null ? null : new String($);
+  }
+
+  private static ByteBuffer bytes(final File f) throws IOException {
+    if (f.length() < MAPPING_THRESHOLD)
+      return ByteBuffer.wrap(Files.readAllBytes(f.toPath()));
+    try (FileChannel $ = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+      return $.map(FileChannel.MapMode.READ_ONLY, 0, $.size());
+    }
+  }
+
+  private static char[] chars(final ByteBuffer b, final Charset c) throws CharacterCodingException {
+    final CharBuffer $ = c.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE).decode(b);
+    final int from = $.hasRemaining() && $.charAt(0) == '\uFEFF' ? 1 : 0;
+    return $.hasArray() && $.arrayOffset() == 0 && from == 0 && $.array().length == $.remaining() ? $.array()
+        : Arrays.copyOfRange($.array(), $.arrayOffset() + $.position() + from, $.arrayOffset() + $.limit());
+  }
+
   final int kind;
 
   private makeAST(final int kind) {
@@ -99,12 +140,8 @@ public enum makeAST {
    * @return {@link StringBuilder} whose content is the same as the contents of
    *         the parameter. */
   public StringBuilder builder(final File f) {
-    try (final Scanner $ = new Scanner(f)) {
-      return new StringBuilder($.useDelimiter("\\Z").next());
-    } catch (final Exception e) {
-      monitor.logEvaluationError(this, e);
-      return new StringBuilder();
-    }
+    final char[] $ = chars(f);
+    return $ == null ? new StringBuilder() : new StringBuilder($.length).append($);
   }
 
   /** Parses a given {@link Document}.
@@ -116,9 +153,11 @@ public enum makeAST {
 
   /** File -> ASTNode converter
    * @param f File
-   * @return ASTNode */
+   * @return ASTNode, or <code><b>null</b></code> if the file could not be
+   *         read */
   public ASTNode from(final File ¢) {
-    return from(string(¢));
+    final char[] $ = chars(¢);
+    return $ == null ? null : Make.from(this).parser($).createAST(null);
   }
 
   /** @param f IFile
@@ -146,7 +185,7 @@ public enum makeAST {
    * @param text what to parse
    * @return a newly created parser for the parameter */
   public ASTParser makeParser(final char[] text) {
-    final ASTParser $ = wizard.parser(kind);
+    final ASTParser $ = ParserFactory.parser(kind);
     $.setSource(text);
     return $;
   }
@@ -155,7 +194,7 @@ public enum makeAST {
    * @param u what to parse
    * @return a newly created parser for the parameter */
   public ASTParser makeParser(final ICompilationUnit ¢) {
-    final ASTParser $ = wizard.parser(kind);
+    final ASTParser $ = ParserFactory.parser(kind);
     $.setSource(¢);
     return $;
   }
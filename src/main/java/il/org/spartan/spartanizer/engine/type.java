@@ -11,6 +11,7 @@ import static org.eclipse.jdt.core.dom.InfixExpression.Operator.*;
 import static org.eclipse.jdt.core.dom.PrefixExpression.Operator.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.eclipse.jdt.core.dom.*;
 
@@ -35,24 +36,17 @@ public interface type {
     return baptize(name, "anonymously born");
   }
 
-  static inner.implementation baptize(final String name, final String description) {
-    return have(name) ? bring(name) : new inner.implementation() {
-      @Override public String description() {
-        return description;
-      }
-
-      @Override public String key() {
-        return name;
-      }
-    }.join();
+  @SuppressWarnings("synthetic-access") static inner.implementation baptize(final String name, final String description) {
+    return inner.intern(name, description);
   }
 
   @SuppressWarnings("synthetic-access") static inner.implementation bring(final String name) {
-    return inner.types.get(name);
+    final Certain $ = inner.primitive(name);
+    return $ != null ? $ : inner.baptized.get(name);
   }
 
   @SuppressWarnings("synthetic-access") static boolean have(final String name) {
-    return inner.types.containsKey(name);
+    return inner.primitive(name) != null || inner.baptized.containsKey(name);
   }
 
   static boolean isDouble(final Expression ¢) {
@@ -133,8 +127,8 @@ public interface type {
     return in(this, INT, LONG, CHAR, BYTE, SHORT, FLOAT, DOUBLE, INTEGRAL, NUMERIC);
   }
 
-  /** @return the formal name of this type, the key under which it is stored in
-   *         {@link #types}, e.g., "Object", "int", "String", etc. */
+  /** @return the formal name of this type, the key under which it is
+   *         registered, e.g., "Object", "int", "String", etc. */
   String key();
 
   /** An interface with one method- type, overloaded for many different
@@ -186,12 +180,46 @@ public interface type {
   }
 
   static class inner {
-    private static String propertyName = "spartan type";
-    /** All type that were ever born , as well as all primitive types */
-    private static Map<String, implementation> types = new LinkedHashMap<>();
+    /** Maximal number of baptized types; beyond it, the registry is flushed,
+     * rather than grow forever */
+    static final int CAPACITY = 1 << 14;
+    /** The types inferred for the expressions of an AST, kept with its other
+     * {@link NodeAttributes} */
+    private static final NodeAttributes.Key<implementation> TYPE = new NodeAttributes.Key<>();
+    /** All types baptized since the last flush, interned by name; concurrent,
+     * since types may be inferred by several threads at once */
+    private static final ConcurrentMap<String, implementation> baptized = new ConcurrentHashMap<>();
+    /** All primitive types, indexed by their names and by the names of their
+     * boxed types */
+    private static final Map<String, Certain> primitives = new HashMap<>();
+    static {
+      for (final Certain ¢ : Certain.values()) {
+        primitives.put(¢.key, ¢);
+        if (¢.boxed != null)
+          primitives.put(¢.boxed, ¢);
+      }
+    }
+
+    private static implementation intern(final String name, final String description) {
+      final implementation $ = primitive(name);
+      if ($ != null)
+        return $;
+      if (baptized.size() >= CAPACITY)
+        baptized.clear();
+      return baptized.computeIfAbsent(name, __ -> new Baptized(name, description));
+    }
 
     private static implementation get(final Expression ¢) {
-      return (implementation) (NodeData.has(¢, propertyName) ? NodeData.get(¢, propertyName) : NodeData.set(¢, propertyName, lookUp(¢, lookDown(¢))));
+      final NodeAttributes types = NodeAttributes.of(¢);
+      final implementation $ = types.get(TYPE, ¢);
+      return $ != null ? $ : types.put(TYPE, ¢, lookUp(¢, lookDown(¢)));
+    }
+
+    /** @param name JD
+     * @return the primitive type, or its boxed type, of this name, or
+     *         <code><b>null</b></code> if there is no such type */
+    private static Certain primitive(final String name) {
+      return primitives.get(name);
     }
 
     private static boolean isCastedToShort(final implementation i1, final implementation i2, final Expression x) {
@@ -218,7 +246,7 @@ public interface type {
     private static implementation lookDown(final ConditionalExpression x) {
       final implementation $ = get(step.then(x));
       final implementation ¢ = get(step.elze(x));
-      return $ == ¢ ? $
+      return $.equals(¢) ? $
           : isCastedToShort($, ¢, elze(x)) || isCastedToShort(¢, $, then(x)) ? SHORT
               : !$.isNumeric() || !¢.isNumeric() ? NOTHING : $.underNumericOnlyOperator(¢);
     }
@@ -396,12 +424,6 @@ public interface type {
         return in(this, NOTHING, NULL);
       }
 
-      @SuppressWarnings("synthetic-access") default implementation join() {
-        assert !have(key()) : "fault: the dictionary should not have type " + key() + "\n receiver is " + this + "\n This is all I know";
-        inner.types.put(key(), this);
-        return this;
-      }
-
       /** To be used to determine the type of the result of o being used on the
        * caller
        * @return one of {@link #BOOLEAN} , {@link #INT} , {@link #LONG} ,
@@ -487,6 +509,38 @@ public interface type {
         return in(STRING, this, k) || in(NULL, this, k) ? STRING : !isNumeric() || !k.isNumeric() ? ALPHANUMERIC : underNumericOnlyOperator(k);
       }
     }
+
+    /** A type known by its name only; equal to any other type of the same name,
+     * even if baptized anew after a flush of the registry */
+    private static final class Baptized implements implementation {
+      private final String key;
+      private final String description;
+
+      Baptized(final String key, final String description) {
+        this.key = key;
+        this.description = description;
+      }
+
+      @Override public String description() {
+        return description;
+      }
+
+      @Override public boolean equals(final Object ¢) {
+        return ¢ == this || ¢ instanceof Baptized && key.equals(((Baptized) ¢).key);
+      }
+
+      @Override public int hashCode() {
+        return key.hashCode();
+      }
+
+      @Override public boolean isCertain() {
+        return true;
+      }
+
+      @Override public String key() {
+        return key;
+      }
+    }
   }
 
   /** Types we do not fully understand yet.
@@ -545,13 +599,13 @@ public interface type {
       ;
       final String description;
       final String key;
+      /** Name of the boxed type, if any */
+      final String boxed;
 
-      @SuppressWarnings("synthetic-access") Certain(final String key, final String description, final String s) {
+      Certain(final String key, final String description, final String boxed) {
         this.key = key;
         this.description = description;
-        inner.types.put(key, this);
-        if (s != null)
-          inner.types.put(s, this);
+        this.boxed = boxed;
       }
 
       @Override public Certain asPrimitiveCertain() {
@@ -147,382 +147,15 @@ import il.org.spartan.spartanizer.utils.*;
   final LinkedHashSet<Entry<String, Information>> emptyEntries = new LinkedHashSet<>();
   /** Initializer for EMPTY */
   final LinkedHashSet<String> emptySet = new LinkedHashSet<>();
-  // Holds the declarations in the subtree and relevant siblings.
-  final LinkedHashSet<Entry<String, Information>> upEnv = new LinkedHashSet<>();
-
-  static Information createInformation(final VariableDeclarationFragment ¢, final type t) {
-    return new Information(¢.getParent(), getHidden(fullName(¢.getName())), ¢, t);
-  }
-
-  /** @param ¢ JD
-   * @return All declarations in given {@link Statement}, without entering the
-   *         contained ({@link Block}s. If the {@link Statement} is a
-   *         {@link Block}, (also IfStatement, ForStatement and so on...) return
-   *         empty Collection. */
-  static List<Entry<String, Information>> declarationsOf(final Statement ¢) {
-    final List<Entry<String, Information>> $ = new ArrayList<>();
-    switch (¢.getNodeType()) {
-      case VARIABLE_DECLARATION_STATEMENT:
-        $.addAll(declarationsOf(az.variableDeclrationStatement(¢)));
-        break;
-      default:
-        return $;
-    }
-    return $;
-  }
-
-  static List<Entry<String, Information>> declarationsOf(final VariableDeclarationStatement s) {
-    final List<Entry<String, Information>> $ = new ArrayList<>();
-    final type t = type.baptize(wizard.condense(s.getType()));
-    final String path = fullName(s);
-    for (final VariableDeclarationFragment ¢ : fragments(s))
-      $.add(new MapEntry<>(path + "." + ¢.getName(), createInformation(¢, t)));
-    return $;
-  }
 
   /** @return set of entries declared in the node, including all hiding. */
   static LinkedHashSet<Entry<String, Information>> declaresDown(final ASTNode n) {
-    // Holds the declarations in the subtree and relevant siblings.
-    final LinkedHashSet<Entry<String, Information>> $ = new LinkedHashSet<>();
-    n.accept(new ASTVisitor() {
-      /* Three groups of visitors here: 1. Non-declarations with a name. 2.
-       * Non-declarations without a name. 3. Actual Declarations.
-       *
-       * First two groups are those in which variable declarations can be made.
-       * Since we want to be able to distinguish variables of different scopes,
-       * but with, perhaps, equal names, need to keep the scope. The full scope
-       * might contain things that do not have a name, hence the need keep to
-       * visit ASTNodes without a name such as {@link Block}s, {@link
-       * ForStatement}s, etc.
-       *
-       * Since there can be more than one such node in a parent, they are
-       * distinguished by their order of appearance.
-       *
-       * The third group is the one in which actual addition to the Environment
-       * is made. */
-      // Holds the current scope full name (Path).
-      String scopePath = "";
-
-      String anonymousClassDeclarationParentName(final AnonymousClassDeclaration d) {
-        // As of JSL3, AnonymousClassDeclaration's parent can be either
-        // ClassInstanceCreation or EnumConstantDeclaration
-        @SuppressWarnings("hiding") final ASTNode n = d.getParent();
-        if (n instanceof ClassInstanceCreation)
-          return az.classInstanceCreation(n).getType() + "";
-        assert n instanceof EnumConstantDeclaration;
-        return az.enumConstantDeclaration(n).getName() + "";
-      }
-
-      Entry<String, Information> convertToEntry(final AnnotationTypeMemberDeclaration ¢) {
-        return new MapEntry<>(fullName(¢.getName()), createInformation(¢));
-      }
-
-      @SuppressWarnings("hiding") List<Entry<String, Information>> convertToEntry(final FieldDeclaration d) {
-        final List<Entry<String, Information>> $ = new ArrayList<>();
-        final type t = type.baptize(wizard.condense(d.getType()));
-        for (final VariableDeclarationFragment ¢ : fragments(d))
-          $.add(new MapEntry<>(fullName(¢.getName()), createInformation(¢, t)));
-        return $;
-      }
-
-      Entry<String, Information> convertToEntry(final SingleVariableDeclaration ¢) {
-        return new MapEntry<>(fullName(¢.getName()), createInformation(¢));
-      }
-
-      @SuppressWarnings("hiding") List<Entry<String, Information>> convertToEntry(final VariableDeclarationExpression x) {
-        final List<Entry<String, Information>> $ = new ArrayList<>();
-        final type t = type.baptize(wizard.condense(x.getType()));
-        for (final VariableDeclarationFragment ¢ : fragments(x))
-          $.add(new MapEntry<>(fullName(¢.getName()), createInformation(¢, t)));
-        return $;
-      }
-
-      @SuppressWarnings("hiding") List<Entry<String, Information>> convertToEntry(final VariableDeclarationStatement s) {
-        final List<Entry<String, Information>> $ = new ArrayList<>();
-        final type t = type.baptize(wizard.condense(s.getType()));
-        for (final VariableDeclarationFragment ¢ : fragments(s))
-          $.add(new MapEntry<>(fullName(¢.getName()), createInformation(¢, t)));
-        return $;
-      }
-
-      Information createInformation(final AnnotationTypeMemberDeclaration ¢) {
-        return new Information(¢.getParent(), getHidden(fullName(¢.getName())), ¢, type.baptize(wizard.condense(¢.getType())));
-      }
-
-      Information createInformation(final SingleVariableDeclaration ¢) {
-        return new Information(¢.getParent(), getHidden(fullName(¢.getName())), ¢, type.baptize(wizard.condense(¢.getType())));
-      }
-
-      Information createInformation(final VariableDeclarationFragment ¢, final type t) {
-        // VariableDeclarationFragment, that comes from either FieldDeclaration,
-        // VariableDeclarationStatement or VariableDeclarationExpression,
-        // does not contain its type. Hence, the type is sent from the parent in
-        // the convertToEntry calls.
-        return new Information(¢.getParent(), getHidden(fullName(¢.getName())), ¢, t);
-      }
-
-      // Everything besides the actual variable declaration was visited for
-      // nameScope reasons. Once their visit is over, the nameScope needs to be
-      // restored.
-      @Override public void endVisit(final AnnotationTypeDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final AnonymousClassDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final Block __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final CatchClause __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final DoStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final EnhancedForStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final EnumConstantDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final EnumDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final ForStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final IfStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final MethodDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final SwitchStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final TryStatement __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final TypeDeclaration __) {
-        restoreScopeName();
-      }
-
-      @Override public void endVisit(final WhileStatement __) {
-        restoreScopeName();
-      }
-
-      @SuppressWarnings("hiding") String fullName(final SimpleName $) {
-        return scopePath + "." + $;
-      }
-
-      Information get(final LinkedHashSet<Entry<String, Information>> ss, final String s) {
-        for (final Entry<String, Information> ¢ : ss)
-          if (s.equals(¢.getKey()))
-            return ¢.getValue();
-        return null;
-      }
-
-      /** Returns the {@link Information} of the declaration the current
-       * declaration is hiding.
-       * @param ¢ the fullName of the declaration.
-       * @return The hidden node's Information [[SuppressWarningsSpartan]] */
-      /* Implementation notes: Should go over result set, and search for
-       * declaration which shares the same variable name in the parents. Should
-       * return the closest match: for example, if we search for a match to
-       * .A.B.C.x, and result set contains .A.B.x and .A.x, we should return
-       * .A.B.x.
-       *
-       * If a result is found in the result set, return said result.
-       *
-       * To consider: what if said hidden declaration will not appear in
-       * 'declaresDown', but will appear in 'declaresUp'? Should we search for
-       * it in 'declaresUp' result set? Should we leave the result as it is? I
-       * (Dan Greenstein) lean towards searching 'declaresUp'. Current
-       * implementation only searches declaresDown.
-       *
-       * If no match is found, return null. */
-      Information getHidden(final String ¢) {
-        final String shortName = ¢.substring(¢.lastIndexOf(".") + 1);
-        for (String s = parentNameScope(¢); !"".equals(s); s = parentNameScope(s)) {
-          final Information i = get($, s + "." + shortName);
-          if (i != null)
-            return i;
-        }
-        return null;
-      }
-
-      /** Similar to statementOrderAmongTypeInParent, {@link CatchClause}s
-       * only */
-      int orderOfCatchInTryParent(final CatchClause c) {
-        assert c.getParent() instanceof TryStatement;
-        @SuppressWarnings("hiding") int $ = 0;
-        for (final CatchClause ¢ : catchClauses((TryStatement) c.getParent())) {
-          if (¢ == c)
-            break;
-          ++$;
-        }
-        return $;
-      }
-
-      String parentNameScope(final String ¢) {
-        assert "".equals(¢) || ¢.lastIndexOf(".") != -1 : "nameScope malfunction!";
-        return "".equals(¢) ? "" : ¢.substring(0, ¢.lastIndexOf("."));
-      }
-
-      void restoreScopeName() {
-        scopePath = parentNameScope(scopePath);
-      }
-
-      /** Order of the searched {@link Statement} in its parent {@link ASTNode},
-       * among nodes of the same kind. Zero based.
-       * @param s
-       * @return The nodes index, according to order of appearance, among
-       *         nodesof the same type. [[SuppressWarningsSpartan]] */
-      int statementOrderAmongTypeInParent(final Statement s) {
-        // extract.statements wouldn't work here - we need a shallow extract,
-        // not a deep one.
-        @SuppressWarnings("hiding") final ASTNode n = s.getParent();
-        if (n == null || !(n instanceof Block) && !(n instanceof SwitchStatement))
-          return 0;
-        @SuppressWarnings("hiding") int $ = 0;
-        for (final Statement ¢ : n instanceof Block ? statements((Block) n) : statements((SwitchStatement) n)) {
-          // This is intentionally '==' and not equals, meaning the exact same
-          // Statement,
-          // not just equivalence.
-          if (¢ == s)
-            break;
-          if (¢.getNodeType() == s.getNodeType())
-            ++$;
-        }
-        return $;
-      }
-
-      @Override public boolean visit(final AnnotationTypeDeclaration ¢) {
-        scopePath += "." + ¢.getName();
-        return true;
-      }
-
-      @Override public boolean visit(final AnnotationTypeMemberDeclaration ¢) {
-        $.add(convertToEntry(¢));
-        return true;
-      }
-
-      @Override public boolean visit(final AnonymousClassDeclaration ¢) {
-        scopePath += "." + "#anon_extends_" + anonymousClassDeclarationParentName(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final Block ¢) {
-        scopePath += "." + "#block" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final CatchClause ¢) {
-        scopePath += "." + "#catch" + orderOfCatchInTryParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final DoStatement ¢) {
-        scopePath += "." + "#do" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final EnhancedForStatement ¢) {
-        scopePath += "." + "#enhancedFor" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final EnumConstantDeclaration ¢) {
-        scopePath += "." + ¢.getName();
-        return true;
-      }
-
-      @Override public boolean visit(final EnumDeclaration ¢) {
-        scopePath += "." + ¢.getName();
-        return true;
-      }
-
-      @Override public boolean visit(final FieldDeclaration ¢) {
-        $.addAll(convertToEntry(¢));
-        return true;
-      }
-
-      @Override public boolean visit(final ForStatement ¢) {
-        scopePath += "." + "#for" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final IfStatement ¢) {
-        scopePath += "." + "#if" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final MethodDeclaration ¢) {
-        scopePath += "." + ¢.getName();
-        return true;
-      }
-
-      @Override public boolean visit(final SingleVariableDeclaration ¢) {
-        $.add(convertToEntry(¢));
-        return true;
-      }
-
-      @Override public boolean visit(final SwitchStatement ¢) {
-        scopePath += "." + "#switch" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final TryStatement ¢) {
-        scopePath += "." + "#try" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-
-      @Override public boolean visit(final TypeDeclaration ¢) {
-        scopePath += "." + ¢.getName();
-        return true;
-      }
-
-      @Override public boolean visit(final VariableDeclarationExpression ¢) {
-        $.addAll(convertToEntry(¢));
-        return true;
-      }
-
-      @Override public boolean visit(final VariableDeclarationStatement ¢) {
-        $.addAll(convertToEntry(¢));
-        return true;
-      }
-
-      @Override public boolean visit(final WhileStatement ¢) {
-        scopePath += "." + "#while" + statementOrderAmongTypeInParent(¢);
-        return true;
-      }
-    });
-    return $;
+    return ScopeTree.of(n).declaresDown(n);
   }
 
   /** Gets declarations made in ASTNode's Ancestors */
   static LinkedHashSet<Entry<String, Information>> declaresUp(final ASTNode n) {
-    for (Block PB = getParentBlock(n); PB != null; PB = getParentBlock(PB))
-      for (final Statement ¢ : statements(PB))
-        upEnv.addAll(declarationsOf(¢));
-    return upEnv;
-  }
-
-  static String fullName(final ASTNode ¢) {
-    return ¢ == null ? "" : fullName(¢.getParent()) + name(¢);
+    return ScopeTree.of(n).declaresUp(n);
   }
 
   /** Spawns the first nested {@link Environment}. Should be used when the first
@@ -538,29 +171,6 @@ import il.org.spartan.spartanizer.utils.*;
     return null;
   }
 
-  /** [[SuppressWarningsSpartan]] */
-  static Information getHidden(final String ¢) {
-    final String shortName = ¢.substring(¢.lastIndexOf(".") + 1);
-    for (String s = parentNameScope(¢); !"".equals(s); s = parentNameScope(s)) {
-      final Information i = get(upEnv, s + "." + shortName);
-      if (i != null)
-        return i;
-    }
-    return null;
-  }
-
-  static Block getParentBlock(final ASTNode ¢) {
-    return az.block(¢.getParent());
-  }
-
-  static String name(final ASTNode __) {
-    return "???";
-  }
-
-  static String name(final VariableDeclarationFragment ¢) {
-    return ¢.getName() + "";
-  }
-
   static String parentNameScope(final String ¢) {
     assert "".equals(¢) || ¢.lastIndexOf(".") != -1 : "nameScope malfunction!";
     return "".equals(¢) ? "" : ¢.substring(0, ¢.lastIndexOf("."));
@@ -0,0 +1,408 @@
+package il.org.spartan.spartanizer.java;
+
+import static il.org.spartan.spartanizer.ast.navigate.step.*;
+import static org.eclipse.jdt.core.dom.ASTNode.*;
+
+import java.util.*;
+import java.util.Map.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.ast.safety.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.java.Environment.*;
+import il.org.spartan.spartanizer.utils.*;
+
+/** The scopes of an AST, as these are named by
+ * {@link Environment#declaresDown(ASTNode)}, and the declarations made in
+ * them. The tree is made once per AST, and kept as a property of its root until
+ * the AST is changed. Scopes and declarations are kept in flat arrays: a scope
+ * by the index of its parent, and its full name, interned; a declaration by the
+ * index of its scope, and the indices of the earlier declarations which it may
+ * hide, so that {@link Environment#declaresDown(ASTNode)} does not search the
+ * declarations made so far for each name.
+ * <p>
+ * Declarations are ordered as {@link Environment#declaresDown(ASTNode)} adds
+ * them: the fragments of a field, a variable declaration statement, or
+ * expression, are all added when it is visited. The declarations made in a
+ * subtree are thus consecutive.
+ * @since 2016 */
+final class ScopeTree {
+  /** Name of the property of the root of an AST, in which its tree is kept */
+  private static final String propertyName = "spartan scopes";
+
+  /** @param ¢ a node of an AST
+   * @return the tree of this AST, made if it was not, or if the AST was changed
+   *         since it was made */
+  static ScopeTree of(final ASTNode ¢) {
+    final ASTNode root = ¢.getRoot();
+    synchronized (root) {
+      final ScopeTree $ = (ScopeTree) root.getProperty(propertyName);
+      if ($ != null && $.modificationCount == root.getAST().modificationCount())
+        return $;
+      final ScopeTree again = new ScopeTree(root);
+      root.setProperty(propertyName, again);
+      return again;
+    }
+  }
+
+  /** @return the name of the scope a node opens, or <code><b>null</b></code> if
+   *         it does not open one */
+  static String segment(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case ANNOTATION_TYPE_DECLARATION:
+      case ENUM_DECLARATION:
+      case TYPE_DECLARATION:
+        return ((AbstractTypeDeclaration) ¢).getName() + "";
+      case ANONYMOUS_CLASS_DECLARATION:
+        return "#anon_extends_" + anonymousClassDeclarationParentName((AnonymousClassDeclaration) ¢);
+      case BLOCK:
+        return "#block" + statementOrderAmongTypeInParent((Statement) ¢);
+      case CATCH_CLAUSE:
+        return "#catch" + orderOfCatchInTryParent((CatchClause) ¢);
+      case DO_STATEMENT:
+        return "#do" + statementOrderAmongTypeInParent((Statement) ¢);
+      case ENHANCED_FOR_STATEMENT:
+        return "#enhancedFor" + statementOrderAmongTypeInParent((Statement) ¢);
+      case ENUM_CONSTANT_DECLARATION:
+        return ((EnumConstantDeclaration) ¢).getName() + "";
+      case FOR_STATEMENT:
+        return "#for" + statementOrderAmongTypeInParent((Statement) ¢);
+      case IF_STATEMENT:
+        return "#if" + statementOrderAmongTypeInParent((Statement) ¢);
+      case METHOD_DECLARATION:
+        return ((MethodDeclaration) ¢).getName() + "";
+      case SWITCH_STATEMENT:
+        return "#switch" + statementOrderAmongTypeInParent((Statement) ¢);
+      case TRY_STATEMENT:
+        return "#try" + statementOrderAmongTypeInParent((Statement) ¢);
+      case WHILE_STATEMENT:
+        return "#while" + statementOrderAmongTypeInParent((Statement) ¢);
+      default:
+        return null;
+    }
+  }
+
+  private static String anonymousClassDeclarationParentName(final AnonymousClassDeclaration d) {
+    // As of JSL3, AnonymousClassDeclaration's parent can be either
+    // ClassInstanceCreation or EnumConstantDeclaration
+    final ASTNode $ = d.getParent();
+    if ($ instanceof ClassInstanceCreation)
+      return az.classInstanceCreation($).getType() + "";
+    assert $ instanceof EnumConstantDeclaration;
+    return az.enumConstantDeclaration($).getName() + "";
+  }
+
+  /** Similar to statementOrderAmongTypeInParent, {@link CatchClause}s only */
+  private static int orderOfCatchInTryParent(final CatchClause c) {
+    assert c.getParent() instanceof TryStatement;
+    int $ = 0;
+    for (final CatchClause ¢ : catchClauses((TryStatement) c.getParent())) {
+      if (¢ == c)
+        break;
+      ++$;
+    }
+    return $;
+  }
+
+  /** Order of a {@link Statement} in its parent, among nodes of the same kind.
+   * Zero based. */
+  private static int statementOrderAmongTypeInParent(final Statement s) {
+    final ASTNode n = s.getParent();
+    if (n == null || !(n instanceof Block) && !(n instanceof SwitchStatement))
+      return 0;
+    int $ = 0;
+    for (final Statement ¢ : n instanceof Block ? statements((Block) n) : statements((SwitchStatement) n)) {
+      if (¢ == s)
+        break;
+      if (¢.getNodeType() == s.getNodeType())
+        ++$;
+    }
+    return $;
+  }
+
+  private final long modificationCount;
+  /** By scope, the index of its parent, or -1 */
+  private int[] parents = new int[16];
+  /** By scope, its full name, interned */
+  private String[] paths = new String[16];
+  private int scopes;
+  /** By declaration, the node at which it is made */
+  private ASTNode[] selves = new ASTNode[16];
+  /** By declaration, its name, interned */
+  private String[] names = new String[16];
+  private type[] types = new type[16];
+  /** By declaration, the index of its scope, or -1 */
+  private int[] scopeOf = new int[16];
+  /** By declaration, the index of the first declaration made along with it */
+  private int[] batches = new int[16];
+  /** By declaration, the keys of the declarations it may hide, innermost scope
+   * first, and the lengths of the full names of their scopes */
+  private int[][] hidden;
+  private int[][] hiddenScopeLengths;
+  private int declarations;
+  /** By key, i.e., full name of a declaration, the indices of the declarations
+   * with this key, in order */
+  private int[][] byKey;
+  /** The root, and every node which opens a scope, or makes declarations, with
+   * {@link Mark} of it */
+  private final Map<ASTNode, Mark> marks = new IdentityHashMap<>();
+  /** Information on each declaration, with hiding among all declarations */
+  private final Information[] informations;
+
+  private ScopeTree(final ASTNode root) {
+    root.accept(new Builder(root));
+    final Map<String, Integer> keys = new HashMap<>();
+    final List<List<Integer>> indices = new ArrayList<>();
+    for (int ¢ = 0; ¢ < declarations; ++¢) {
+      final String key = path(scopeOf[¢]) + "." + names[¢];
+      Integer $ = keys.get(key);
+      if ($ == null) {
+        keys.put(key, $ = Integer.valueOf(indices.size()));
+        indices.add(new ArrayList<>());
+      }
+      indices.get($.intValue()).add(Integer.valueOf(¢));
+    }
+    byKey = new int[indices.size()][];
+    for (int ¢ = 0; ¢ < byKey.length; ++¢)
+      byKey[¢] = toArray(indices.get(¢));
+    hidden = new int[declarations][];
+    hiddenScopeLengths = new int[declarations][];
+    for (int ¢ = 0; ¢ < declarations; ++¢)
+      candidates(¢, keys);
+    informations = new Information[declarations];
+    modificationCount = root.getAST().modificationCount();
+  }
+
+  /** @param n a node of this tree
+   * @return the entries declared in the node, as named from it, each hiding
+   *         the first entry declared before it in the node, in it, or in the
+   *         innermost of the scopes enclosing it in the node, with the same
+   *         name */
+  LinkedHashSet<Entry<String, Information>> declaresDown(final ASTNode n) {
+    final LinkedHashSet<Entry<String, Information>> $ = new LinkedHashSet<>();
+    ASTNode r = n;
+    Mark m = marks.get(r);
+    for (; m == null; m = marks.get(r))
+      r = r.getParent();
+    final int from, to, length;
+    if (r == n) {
+      from = m.from;
+      to = m.to;
+      length = path(m.scope >= 0 && m.opens ? parents[m.scope] : m.scope).length();
+    } else {
+      int i = m.from;
+      while (i < m.to && !within(i, n, r))
+        ++i;
+      from = i;
+      while (i < m.to && within(i, n, r))
+        ++i;
+      to = i;
+      length = path(m.scope).length();
+    }
+    final Information[] is = new Information[to - from];
+    for (int ¢ = from; ¢ < to; ++¢) {
+      is[¢ - from] = new Information(selves[¢].getParent(), hidden(¢, from, length, is), selves[¢], types[¢]);
+      $.add(new MapEntry<>(path(scopeOf[¢]).substring(length) + "." + names[¢], is[¢ - from]));
+    }
+    return $;
+  }
+
+  /** @param n a node of this tree
+   * @return the entries declared by the variable declaration statements of
+   *         the blocks enclosing the node, innermost first, as named from the
+   *         root of the AST */
+  LinkedHashSet<Entry<String, Information>> declaresUp(final ASTNode n) {
+    final LinkedHashSet<Entry<String, Information>> $ = new LinkedHashSet<>();
+    for (Block b = az.block(n.getParent()); b != null; b = az.block(b.getParent()))
+      for (final Statement s : statements(b)) {
+        final Mark m = s instanceof VariableDeclarationStatement ? marks.get(s) : null;
+        if (m != null)
+          for (int ¢ = m.from; ¢ < m.to && selves[¢].getParent() == s; ++¢)
+            $.add(new MapEntry<>(path(scopeOf[¢]) + "." + names[¢], information(¢)));
+      }
+    return $;
+  }
+
+  private int[] toArray(final List<Integer> is) {
+    final int[] $ = new int[is.size()];
+    for (int ¢ = 0; ¢ < $.length; ++¢)
+      $[¢] = is.get(¢).intValue();
+    return $;
+  }
+
+  /** Finds the keys which a declaration may hide: that of its own, and those
+   * of the same name in the enclosing scopes, as found by cutting the full name
+   * of its scope at its dots */
+  private void candidates(final int d, final Map<String, Integer> keys) {
+    final List<Integer> ks = new ArrayList<>(), ls = new ArrayList<>();
+    for (String s = path(scopeOf[d]); !"".equals(s); s = Environment.parentNameScope(s)) {
+      final Integer k = keys.get(s + "." + names[d]);
+      if (k != null) {
+        ks.add(k);
+        ls.add(Integer.valueOf(s.length()));
+      }
+    }
+    hidden[d] = toArray(ks);
+    hiddenScopeLengths[d] = toArray(ls);
+  }
+
+  /** @return the index of the first declaration, from a given one and before
+   *         the batch of another, with a given key, or -1 */
+  private int first(final int key, final int from, final int d) {
+    final int[] ds = byKey[key];
+    int $ = Arrays.binarySearch(ds, from);
+    if ($ < 0)
+      $ = -$ - 1;
+    return $ < ds.length && ds[$] < batches[d] ? ds[$] : -1;
+  }
+
+  /** @return information on the declaration hidden by a given one, among
+   *         those from a given one, whose scopes are named from a given length
+   *         on */
+  private Information hidden(final int d, final int from, final int length, final Information[] is) {
+    for (int ¢ = 0; ¢ < hidden[d].length && hiddenScopeLengths[d][¢] > length; ++¢) {
+      final int $ = first(hidden[d][¢], from, d);
+      if ($ >= 0)
+        return is[$ - from];
+    }
+    return null;
+  }
+
+  /** @return information on a declaration, with hiding among all
+   *         declarations */
+  private Information information(final int d) {
+    if (informations[d] != null)
+      return informations[d];
+    Information h = null;
+    for (int ¢ = 0; ¢ < hidden[d].length && h == null; ++¢) {
+      final int $ = first(hidden[d][¢], 0, d);
+      if ($ >= 0)
+        h = information($);
+    }
+    return informations[d] = new Information(selves[d].getParent(), h, selves[d], types[d]);
+  }
+
+  private String path(final int scope) {
+    return scope < 0 ? "" : paths[scope];
+  }
+
+  /** @return whether the node which makes a declaration, i.e., the node of a
+   *         fragment's parent, is in a given node, which is below another */
+  private boolean within(final int d, final ASTNode n, final ASTNode until) {
+    for (ASTNode $ = selves[d] instanceof VariableDeclarationFragment ? selves[d].getParent() : selves[d]; $ != until; $ = $.getParent())
+      if ($ == n)
+        return true;
+    return false;
+  }
+
+  /** Visits an AST as {@link Environment#declaresDown(ASTNode)} does, making
+   * the scopes and the declarations of the tree */
+  private final class Builder extends ASTVisitor {
+    private final ASTNode root;
+    private int scope = -1;
+
+    Builder(final ASTNode root) {
+      this.root = root;
+    }
+
+    @Override public void postVisit(final ASTNode ¢) {
+      final Mark $ = marks.get(¢);
+      if ($ == null)
+        return;
+      $.to = declarations;
+      if ($.opens)
+        scope = parents[scope];
+    }
+
+    @Override public boolean preVisit2(final ASTNode ¢) {
+      final String segment = segment(¢);
+      if (segment != null)
+        open(¢, segment);
+      else if (¢ == root || declares(¢))
+        marks.put(¢, new Mark(scope, declarations, false));
+      switch (¢.getNodeType()) {
+        case ANNOTATION_TYPE_MEMBER_DECLARATION:
+          add(((AnnotationTypeMemberDeclaration) ¢).getName(), ¢, ((AnnotationTypeMemberDeclaration) ¢).getType());
+          break;
+        case FIELD_DECLARATION:
+          add(fragments((FieldDeclaration) ¢), ((FieldDeclaration) ¢).getType());
+          break;
+        case SINGLE_VARIABLE_DECLARATION:
+          add(((SingleVariableDeclaration) ¢).getName(), ¢, ((SingleVariableDeclaration) ¢).getType());
+          break;
+        case VARIABLE_DECLARATION_EXPRESSION:
+          add(fragments((VariableDeclarationExpression) ¢), ((VariableDeclarationExpression) ¢).getType());
+          break;
+        case VARIABLE_DECLARATION_STATEMENT:
+          add(fragments((VariableDeclarationStatement) ¢), ((VariableDeclarationStatement) ¢).getType());
+          break;
+        default:
+          break;
+      }
+      return true;
+    }
+
+    private void add(final List<VariableDeclarationFragment> fs, final Type t) {
+      final type $ = type.baptize(wizard.condense(t));
+      final int batch = declarations;
+      for (final VariableDeclarationFragment ¢ : fs)
+        add(¢.getName(), ¢, $, batch);
+    }
+
+    private void add(final SimpleName n, final ASTNode self, final Type t) {
+      add(n, self, type.baptize(wizard.condense(t)), declarations);
+    }
+
+    private void add(final SimpleName n, final ASTNode self, final type t, final int batch) {
+      if (declarations == selves.length) {
+        selves = Arrays.copyOf(selves, 2 * declarations);
+        names = Arrays.copyOf(names, 2 * declarations);
+        types = Arrays.copyOf(types, 2 * declarations);
+        scopeOf = Arrays.copyOf(scopeOf, 2 * declarations);
+        batches = Arrays.copyOf(batches, 2 * declarations);
+      }
+      selves[declarations] = self;
+      names[declarations] = (n + "").intern();
+      types[declarations] = t;
+      scopeOf[declarations] = scope;
+      batches[declarations++] = batch;
+    }
+
+    private boolean declares(final ASTNode ¢) {
+      return iz.nodeTypeIn(¢, ANNOTATION_TYPE_MEMBER_DECLARATION, FIELD_DECLARATION, SINGLE_VARIABLE_DECLARATION, VARIABLE_DECLARATION_EXPRESSION,
+          VARIABLE_DECLARATION_STATEMENT);
+    }
+
+    private void open(final ASTNode n, final String segment) {
+      if (scopes == parents.length) {
+        parents = Arrays.copyOf(parents, 2 * scopes);
+        paths = Arrays.copyOf(paths, 2 * scopes);
+      }
+      parents[scopes] = scope;
+      paths[scopes] = (path(scope) + "." + segment).intern();
+      scope = scopes++;
+      marks.put(n, new Mark(scope, declarations, true));
+    }
+  }
+
+  /** The declarations made in a subtree, and the scope in which it is */
+  private static final class Mark {
+    /** The scope the node opens, or else the innermost scope which encloses
+     * it, or -1 */
+    final int scope;
+    /** Whether the node opens {@link #scope} */
+    final boolean opens;
+    /** Index of the first declaration made in the subtree */
+    final int from;
+    /** Index after the last declaration made in the subtree */
+    int to;
+
+    Mark(final int scope, final int from, final boolean opens) {
+      this.scope = scope;
+      this.from = from;
+      this.opens = opens;
+    }
+  }
+}
@@ -16,7 +16,8 @@ import il.org.spartan.spartanizer.utils.*;
 /** The purpose of this class is to gather information about NPs and summarize
  * it, so we can submit nice papers and win eternal fame.
  * <p>
- * Whenever an NP is matched it should log itself.
+ * Whenever an NP is matched it should log itself. Entry points are
+ * synchronized, since matching may be carried out by several threads at once.
  * @author Ori Marcovitch
  * @since 2016 */
 public class Logger {
@@ -26,7 +27,7 @@ public class Logger {
   private static final Map<Class<? extends ASTNode>, Int> codeStatistics = new HashMap<>();
   private static int numMethods;
 
-  public static void summarize(final String outputDir) {
+  public static synchronized void summarize(final String outputDir) {
     summarizeMethodStatistics(outputDir);
     summarizeNPStatistics(outputDir);
     reset();
@@ -99,7 +100,7 @@ public class Logger {
     numMethods = 0;
   }
 
-  public static void logNP(final ASTNode n, final String np) {
+  public static synchronized void logNP(final ASTNode n, final String np) {
     logMethodInfo(n, np);
     logNPInfo(n, np);
   }
@@ -195,7 +196,7 @@ public class Logger {
 
   /** Collect statistics of a compilation unit which will be analyzed.
    * @param cu compilation unit */
-  public static void logCompilationUnit(final ASTNode cu) {
+  public static synchronized void logCompilationUnit(final ASTNode cu) {
     numMethods += metrics.countMethods(cu);
   }
 
@@ -225,7 +226,7 @@ public class Logger {
   }
 
   /** @param compilationUnit */
-  public static void logSpartanizedCompilationUnit(final ASTNode cu) {
+  public static synchronized void logSpartanizedCompilationUnit(final ASTNode cu) {
     addToNodeType(IfStatement.class, count.nodesOfClass(cu, IfStatement.class));
   }
 }
\ No newline at end of file
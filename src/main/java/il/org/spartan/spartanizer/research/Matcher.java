@@ -189,25 +189,38 @@ public class Matcher {
     return n instanceof Name && id.equals(((Name) n).getFullyQualifiedName());
   }
 
-  @SuppressWarnings("unchecked") public static Map<String, String> collectEnviroment(final ASTNode p, final ASTNode n,
-      final Map<String, String> enviroment) {
+  public static Map<String, String> collectEnviroment(final ASTNode p, final ASTNode n, final Map<String, String> enviroment) {
+    for (final Map.Entry<String, ASTNode> ¢ : collectNodes(p, n, new LinkedHashMap<>()).entrySet())
+      enviroment.put(¢.getKey(), ¢.getKey().startsWith("$A") ? arguments(¢.getValue()) : ¢.getValue() + "");
+    return enviroment;
+  }
+
+  /** Collects the nodes matched by the variables of a pattern; a $B variable
+   * is keyed by its statement, e.g., <code>$B();</code>, and a $A variable by
+   * its name, with the {@link MethodInvocation} whose arguments it matched
+   * @param p pattern
+   * @param n a node matched by the pattern
+   * @param enviroment where the nodes are collected
+   * @return the parameter */
+  @SuppressWarnings("unchecked") public static Map<String, ASTNode> collectNodes(final ASTNode p, final ASTNode n,
+      final Map<String, ASTNode> enviroment) {
     if (iz.name(p)) {
       final String id = az.name(p).getFullyQualifiedName();
       if (id.startsWith("$X") || id.startsWith("$M") || id.startsWith("$N"))
-        enviroment.put(id, n + "");
+        enviroment.put(id, n);
     } else if (isBlockVariable(p))
-      enviroment.put(blockName(p) + "();", n + "");
+      enviroment.put(blockName(p) + "();", n);
     else {
       final List<? extends ASTNode> nChildren = Recurser.children(n);
       final List<? extends ASTNode> pChildren = Recurser.children(p);
       if (isMethodInvocationAndHas$AArgument(p))
-        enviroment.put(argumentsId(p), arguments(n) + "");
+        enviroment.put(argumentsId(p), n);
       else if (iz.methodInvocation(p)) {
         nChildren.addAll(az.methodInvocation(n).arguments());
         pChildren.addAll(az.methodInvocation(p).arguments());
       }
       for (int ¢ = 0; ¢ < pChildren.size(); ++¢)
-        collectEnviroment(pChildren.get(¢), nChildren.get(¢), enviroment);
+        collectNodes(pChildren.get(¢), nChildren.get(¢), enviroment);
     }
     return enviroment;
   }
@@ -0,0 +1,109 @@
+package il.org.spartan.spartanizer.research;
+
+import static org.eclipse.jdt.core.dom.ASTNode.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.ast.factory.*;
+import il.org.spartan.spartanizer.ast.safety.*;
+
+/** The replacement of a {@link UserDefinedTipper}, compiled once, on first
+ * use, into an AST; it is instantiated by copying this AST, and substituting
+ * the nodes which the variables of the pattern matched for these variables, so
+ * that no text is substituted, or parsed again, on each application.
+ * @since 2016 */
+final class Template {
+  private final String text;
+  /** Whether a block of a single statement is taken to be this statement */
+  private final boolean single;
+  private volatile ASTNode ast;
+
+  /** @param text the replacement, whose $B's were reformatted
+   * @param single whether a block of a single statement is taken to be this
+   *        statement */
+  Template(final String text, final boolean single) {
+    this.text = text;
+    this.single = single;
+  }
+
+  /** @param target the AST in which the replacement is made
+   * @param enviroment the nodes matched by the variables of the pattern, as
+   *        collected by {@link Matcher#collectNodes}
+   * @return a new node of the target AST, or <code><b>null</b></code> if a
+   *         matched node does not fit where its variable is, in which case the
+   *         replacement should be made in text */
+  ASTNode instantiate(final AST target, final Map<String, ASTNode> enviroment) {
+    final ASTNode $ = ASTNode.copySubtree(target, ast());
+    try {
+      for (final ASTNode ¢ : variables($, enviroment)) {
+        if (¢ == $)
+          return ASTNode.copySubtree(target, enviroment.get(key(¢)));
+        substitute(target, ¢, key(¢), enviroment.get(key(¢)));
+      }
+    } catch (IllegalArgumentException | ClassCastException x) {
+      return null;
+    }
+    return $;
+  }
+
+  @Override public String toString() {
+    return text;
+  }
+
+  private ASTNode ast() {
+    final ASTNode $ = ast;
+    return $ != null ? $ : (ast = single ? TipperFactory.extractStatementIfOne(TipperFactory.compile(text)) : TipperFactory.compile(text));
+  }
+
+  /** @return the variables of a copy of the template which matched a node, in
+   *         preorder */
+  private static List<ASTNode> variables(final ASTNode n, final Map<String, ASTNode> enviroment) {
+    final List<ASTNode> $ = new ArrayList<>();
+    n.accept(new ASTVisitor(true) {
+      @Override public boolean preVisit2(final ASTNode ¢) {
+        if (!iz.name(¢) && !TipperFactory.isBlockVariable(¢) || !enviroment.containsKey(key(¢)))
+          return true;
+        $.add(¢);
+        return false;
+      }
+    });
+    return $;
+  }
+
+  static String key(final ASTNode ¢) {
+    return iz.name(¢) ? ¢ + "" : TipperFactory.blockName(¢) + "();";
+  }
+
+  @SuppressWarnings("unchecked") private static void substitute(final AST target, final ASTNode variable, final String key, final ASTNode n) {
+    final ASTNode parent = variable.getParent();
+    final StructuralPropertyDescriptor p = variable.getLocationInParent();
+    if (!p.isChildListProperty()) {
+      parent.setStructuralProperty(p, planted(parent, p, ASTNode.copySubtree(target, n)));
+      return;
+    }
+    final List<ASTNode> siblings = (List<ASTNode>) parent.getStructuralProperty(p);
+    final int i = siblings.indexOf(variable);
+    siblings.remove(i);
+    if (!key.startsWith("$A"))
+      siblings.add(i, planted(parent, p, ASTNode.copySubtree(target, n)));
+    else
+      siblings.addAll(i, ASTNode.copySubtrees(target, az.methodInvocation(n).arguments()));
+  }
+
+  /** @return the node, in parenthesis if it is an expression which needs these
+   *         in its new location */
+  private static ASTNode planted(final ASTNode parent, final StructuralPropertyDescriptor p, final ASTNode $) {
+    return !($ instanceof Expression) || !operand(parent, p) ? $
+        : p == InfixExpression.LEFT_OPERAND_PROPERTY ? make.plant((Expression) $).intoLeft((InfixExpression) parent)
+            : make.plant((Expression) $).into(parent);
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em> an expression in this
+   *         location is an operand, which may need parenthesis */
+  private static boolean operand(final ASTNode parent, final StructuralPropertyDescriptor p) {
+    return p == MethodInvocation.EXPRESSION_PROPERTY || p == FieldAccess.EXPRESSION_PROPERTY || iz.nodeTypeIn(parent, INFIX_EXPRESSION,
+        PREFIX_EXPRESSION, POSTFIX_EXPRESSION, CAST_EXPRESSION, INSTANCEOF_EXPRESSION, CONDITIONAL_EXPRESSION);
+  }
+}
@@ -11,18 +11,25 @@ package il.org.spartan.spartanizer.research;
  * @author Ori Marcovitch
  * @since 2016 */
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.eclipse.jdt.core.dom.*;
 import org.eclipse.jdt.core.dom.rewrite.*;
 import org.eclipse.text.edits.*;
 
 import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.factory.*;
 import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.ast.safety.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.utils.*;
 
 public class TipperFactory {
+  /** Maximal number of patterns and replacements kept compiled; when there are
+   * more, all are compiled again */
+  static final int CAPACITY = 1 << 10;
+  private static final ConcurrentMap<String, ASTNode> compiled = new ConcurrentHashMap<>();
+
   public static <N extends ASTNode> UserDefinedTipper<N> subBlockTipper(final String _pattern, final String _replacement, final String description) {
     return newSubBlockTipper(_pattern, _replacement, description);
   }
@@ -30,28 +37,21 @@ public class TipperFactory {
   private static <N extends ASTNode> UserDefinedTipper<N> newSubBlockTipper(final String _pattern, final String _replacement,
       final String description) {
     return new UserDefinedTipper<N>() {
-      final ASTNode pattern = wizard.ast(reformat$Bs(_pattern));
+      final ASTNode pattern = compile(reformat$Bs(_pattern));
       final String replacement = reformat$Bs(_replacement);
+      final Template template = new Template(replacement, false);
 
       @Override @SuppressWarnings("boxing") public Tip tip(final N n) {
         final Pair<Integer, Integer> idxs = Matcher.getBlockMatching(az.block(pattern), az.block(n));
-        final String matching = stringifySubBlock(n, idxs.first, idxs.second);
         return new Tip(description(n), n, this.getClass(), getMatchedNodes(az.block(n), idxs)) {
           @Override public void go(final ASTRewrite r, final TextEditGroup g) {
-            final Map<String, String> enviroment = collectEnviroment(wizard.ast(matching));
-            final Wrapper<String> $ = new Wrapper<>();
-            $.set(replacement);
-            for (final String ¢ : enviroment.keySet())
-              if (¢.startsWith("$B"))
-                $.set($.get().replace(¢, enviroment.get(¢) + ""));
-            wizard.ast(replacement).accept(new ASTVisitor() {
-              @Override public boolean preVisit2(final ASTNode ¢) {
-                if (iz.name(¢) && enviroment.containsKey(¢ + ""))
-                  $.set($.get().replaceFirst((¢ + "").replace("$", "\\$"), enviroment.get(¢ + "").replace("\\", "\\\\").replace("$", "\\$") + ""));
-                return true;
-              }
-            });
-            r.replace(n, wizard.ast(stringifySubBlock(n, 0, idxs.first) + $.get() + stringifySubBlock(n, idxs.second)), g);
+            final Block $ = replaced(az.block(n), idxs.first, idxs.second);
+            if ($ != null)
+              r.replace(n, $, g);
+            else
+              r.replace(n, wizard.ast(stringifySubBlock(n, 0, idxs.first)
+                  + textually(replacement, collectEnviroment(wizard.ast(stringifySubBlock(n, idxs.first, idxs.second)))) + stringifySubBlock(n, idxs.second)),
+                  g);
           }
         };
       }
@@ -67,12 +67,36 @@ public class TipperFactory {
       Map<String, String> collectEnviroment(final ASTNode ¢) {
         return Matcher.collectEnviroment(pattern, ¢, new HashMap<>());
       }
+
+      /** @return a copy of the block, in which the statements from the first
+       *         index to the second are replaced, or <code><b>null</b></code>
+       *         if the replacement does not fit there */
+      Block replaced(final Block b, final int from, final int to) {
+        final List<Statement> ps = step.statements(az.block(pattern)), ss = step.statements(b);
+        final Map<String, ASTNode> enviroment = new HashMap<>();
+        for (int ¢ = 0; ¢ < ps.size(); ++¢)
+          Matcher.collectNodes(ps.get(¢), ss.get(from + ¢), enviroment);
+        final ASTNode r = template.instantiate(b.getAST(), enviroment);
+        if (!iz.statement(r))
+          return null;
+        final Block $ = b.getAST().newBlock();
+        final List<Statement> statements = step.statements($);
+        statements.addAll(duplicate.of(ss.subList(0, from)));
+        if (!iz.block(r))
+          statements.add(az.statement(r));
+        else
+          for (final List<Statement> rs = step.statements(az.block(r)); !rs.isEmpty();)
+            statements.add(rs.remove(0));
+        statements.addAll(duplicate.of(ss.subList(to, ss.size())));
+        return $;
+      }
     };
   }
 
   public static <N extends ASTNode> UserDefinedTipper<N> tipper(final String _pattern, final String _replacement, final String description) {
-    final ASTNode pattern = extractStatementIfOne(wizard.ast(reformat$Bs(_pattern)));
+    final ASTNode pattern = extractStatementIfOne(compile(reformat$Bs(_pattern)));
     final String replacement = reformat$Bs(_replacement);
+    final Template template = new Template(replacement, true);
     return new UserDefinedTipper<N>() {
       @Override public String description(@SuppressWarnings("unused") final N __) {
         return description;
@@ -81,20 +105,8 @@ public class TipperFactory {
       @Override public Tip tip(final N n) {
         return new Tip(description(n), n, this.getClass()) {
           @Override public void go(final ASTRewrite r, final TextEditGroup g) {
-            final Map<String, String> enviroment = collectEnviroment(n);
-            final Wrapper<String> $ = new Wrapper<>();
-            $.set(replacement);
-            for (final String ¢ : enviroment.keySet())
-              if (¢.startsWith("$B"))
-                $.set($.get().replace(¢, enviroment.get(¢) + ""));
-            wizard.ast(replacement).accept(new ASTVisitor() {
-              @Override public boolean preVisit2(final ASTNode ¢) {
-                if (iz.name(¢) && enviroment.containsKey(¢ + ""))
-                  $.set($.get().replaceFirst((¢ + "").replace("$", "\\$"), enviroment.get(¢ + "").replace("\\", "\\\\").replace("$", "\\$") + ""));
-                return true;
-              }
-            });
-            r.replace(n, extractStatementIfOne(wizard.ast($.get())), g);
+            final ASTNode $ = template.instantiate(n.getAST(), Matcher.collectNodes(pattern, n, new HashMap<>()));
+            r.replace(n, $ != null ? $ : extractStatementIfOne(wizard.ast(textually(replacement, collectEnviroment(n)))), g);
           }
         };
       }
@@ -109,6 +121,40 @@ public class TipperFactory {
     };
   }
 
+  /** @param ¢ a pattern, or a replacement, whose $B's were reformatted
+   * @return its AST, parsed once for all the tippers which use it; it is
+   *         shared, and must not be changed */
+  static ASTNode compile(final String ¢) {
+    final ASTNode $ = compiled.get(¢);
+    if ($ != null)
+      return $;
+    if (compiled.size() >= CAPACITY)
+      compiled.clear();
+    return compiled.computeIfAbsent(¢, wizard::ast);
+  }
+
+  /** Substitutes the text of the matched nodes for the variables of a
+   * replacement, for where these nodes do not fit into its
+   * {@link Template}
+   * @param replacement the replacement, whose $B's were reformatted
+   * @param enviroment the text of the matched nodes, by variable
+   * @return the text of the replacement, to be parsed */
+  static String textually(final String replacement, final Map<String, String> enviroment) {
+    final Wrapper<String> $ = new Wrapper<>();
+    $.set(replacement);
+    for (final String ¢ : enviroment.keySet())
+      if (¢.startsWith("$B"))
+        $.set($.get().replace(¢, enviroment.get(¢) + ""));
+    compile(replacement).accept(new ASTVisitor() {
+      @Override public boolean preVisit2(final ASTNode ¢) {
+        if (iz.name(¢) && enviroment.containsKey(¢ + ""))
+          $.set($.get().replaceFirst((¢ + "").replace("$", "\\$"), enviroment.get(¢ + "").replace("\\", "\\\\").replace("$", "\\$") + ""));
+        return true;
+      }
+    });
+    return $.get();
+  }
+
   public static <N extends ASTNode> String stringifySubBlock(final N n, final int start) {
     final int end = az.block(n).statements().size();
     return start >= end ? "" : stringifySubBlock(n, start, end);
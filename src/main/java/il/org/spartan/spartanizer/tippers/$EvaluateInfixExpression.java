@@ -47,6 +47,10 @@ abstract class $EvaluateInfixExpression extends ReplaceCurrentNode<InfixExpressi
     return description() + ":" + ¢;
   }
 
+  @Override public final Prefilter prefilter() {
+    return Prefilter.operators(operator());
+  }
+
   @Override public final boolean prerequisite(final InfixExpression ¢) {
     return ¢.getOperator() == operator();
   }
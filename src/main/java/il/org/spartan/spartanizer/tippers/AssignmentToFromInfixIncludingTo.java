@@ -54,6 +54,10 @@ public final class AssignmentToFromInfixIncludingTo extends ReplaceCurrentNode<A
     return "Replace x = x " + operator(¢) + "a; to x " + operator(¢) + "= a;";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(ASSIGN);
+  }
+
   @Override public ASTNode replacement(final Assignment a) {
     assert a != null;
     final Operator o = a.getOperator();
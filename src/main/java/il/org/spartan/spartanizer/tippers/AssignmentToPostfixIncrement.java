@@ -33,6 +33,10 @@ public final class AssignmentToPostfixIncrement extends ReplaceCurrentNode<Assig
     return "Replace " + ¢ + " to " + ¢.getRightHandSide() + (isIncrement(¢) ? "++" : "--");
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(Assignment.Operator.PLUS_ASSIGN, Assignment.Operator.MINUS_ASSIGN);
+  }
+
   @Override public ASTNode replacement(final Assignment ¢) {
     return !iz.isPlusAssignment(¢) && !iz.isMinusAssignment(¢) || !iz.literal1(¢.getRightHandSide()) || !provablyNotString(¢) ? null : replace(¢);
   }
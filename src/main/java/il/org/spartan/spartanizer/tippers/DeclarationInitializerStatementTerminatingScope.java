@@ -2,7 +2,6 @@ package il.org.spartan.spartanizer.tippers;
 
 import static il.org.spartan.Utils.*;
 import static il.org.spartan.lisp.*;
-import static org.eclipse.jdt.core.dom.ASTNode.*;
 
 import java.util.*;
 
@@ -25,17 +24,11 @@ import il.org.spartan.spartanizer.engine.Inliner.*;
 public final class DeclarationInitializerStatementTerminatingScope extends $VariableDeclarationFragementAndStatement
     implements TipperCategory.Inlining {
   static boolean isPresentOnAnonymous(final SimpleName n, final Statement s) {
-    for (final ASTNode ancestor : searchAncestors.until(s).ancestors(n))
-      if (iz.nodeTypeEquals(ancestor, ANONYMOUS_CLASS_DECLARATION))
-        return true;
-    return false;
+    return DefUse.anonymous(n, s);
   }
 
   static boolean never(final SimpleName n, final Statement s) {
-    for (final ASTNode ancestor : searchAncestors.until(s).ancestors(n))
-      if (iz.nodeTypeIn(ancestor, TRY_STATEMENT, SYNCHRONIZED_STATEMENT))
-        return true;
-    return false;
+    return DefUse.guarded(n, s);
   }
 
   @Override public String description(final VariableDeclarationFragment ¢) {
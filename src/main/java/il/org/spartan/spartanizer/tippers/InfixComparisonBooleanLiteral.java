@@ -44,6 +44,10 @@ public final class InfixComparisonBooleanLiteral extends ReplaceCurrentNode<Infi
     return "Eliminate redundant comparison with '" + literal(¢) + "'";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(EQUALS, NOT_EQUALS).arity(2, 2);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return !¢.hasExtendedOperands() && in(¢.getOperator(), EQUALS, NOT_EQUALS) && (literalOnLeft(¢) || literalOnRight(¢));
   }
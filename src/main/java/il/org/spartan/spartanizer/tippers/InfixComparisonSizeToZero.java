@@ -110,6 +110,10 @@ public final class InfixComparisonSizeToZero extends ReplaceCurrentNode<InfixExp
     return description(expression(left instanceof MethodInvocation ? left : right));
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(EQUALS, NOT_EQUALS, GREATER_EQUALS, GREATER, LESS, LESS_EQUALS).child(ASTNode.METHOD_INVOCATION);
+  }
+
   @Override public ASTNode replacement(final InfixExpression x) {
     final Operator o = x.getOperator();
     if (!iz.comparison(o))
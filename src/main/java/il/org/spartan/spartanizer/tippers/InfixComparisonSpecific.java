@@ -3,6 +3,7 @@ package il.org.spartan.spartanizer.tippers;
 import org.eclipse.jdt.core.dom.*;
 
 import static il.org.spartan.spartanizer.ast.navigate.step.*;
+import static org.eclipse.jdt.core.dom.InfixExpression.Operator.*;
 
 import il.org.spartan.spartanizer.ast.factory.*;
 import il.org.spartan.spartanizer.ast.safety.*;
@@ -33,6 +34,10 @@ public final class InfixComparisonSpecific extends ReplaceCurrentNode<InfixExpre
     return "Exchange left and right operands of comparison";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(EQUALS, NOT_EQUALS, GREATER_EQUALS, GREATER, LESS, LESS_EQUALS).arity(2, 2);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return specifity.compare(left(¢), right(¢)) < 0 && !¢.hasExtendedOperands() && iz.comparison(¢)
         && (specificity.defined(left(¢)) || specificity.defined(right(¢)));
@@ -46,6 +46,10 @@ public final class InfixConcatenationEmptyStringLeft extends ReplaceCurrentNode<
     return "Append, rather than prepend, \"\", to " + left(¢);
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(wizard.PLUS2).child(ASTNode.STRING_LITERAL);
+  }
+
   @Override public ASTNode replacement(final InfixExpression ¢) {
     return !iz.emptyStringLiteral(left(¢)) || !iz.infixPlus(¢) ? null : replace(¢);
   }
@@ -1,5 +1,7 @@
 package il.org.spartan.spartanizer.tippers;
 
+import static org.eclipse.jdt.core.dom.InfixExpression.Operator.*;
+
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.spartanizer.ast.navigate.*;
@@ -26,6 +28,10 @@ public final class InfixConditionalAndTrue extends ReplaceCurrentNode<InfixExpre
     return "Remove 'true' argument to '&&'";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(CONDITIONAL_AND);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return iz.conditionalAnd(¢) && have.trueLiteral(extract.allOperands(¢));
   }
@@ -51,6 +51,10 @@ public final class InfixConditionalCommon extends ReplaceCurrentNode<InfixExpres
     return "Factor out common logical component of ||";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(CONDITIONAL_AND, CONDITIONAL_OR);
+  }
+
   @Override public Expression replacement(final InfixExpression x) {
     final Operator o = x.getOperator();
     if (!in(o, CONDITIONAL_AND, CONDITIONAL_OR))
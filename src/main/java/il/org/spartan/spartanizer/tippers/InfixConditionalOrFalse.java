@@ -1,5 +1,7 @@
 package il.org.spartan.spartanizer.tippers;
 
+import static org.eclipse.jdt.core.dom.InfixExpression.Operator.*;
+
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.spartanizer.ast.navigate.*;
@@ -26,6 +28,10 @@ public final class InfixConditionalOrFalse extends ReplaceCurrentNode<InfixExpre
     return "Remove 'false' argument to '||'";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(CONDITIONAL_OR);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return iz.conditionalOr(¢) && have.falseLiteral(extract.allOperands(¢));
   }
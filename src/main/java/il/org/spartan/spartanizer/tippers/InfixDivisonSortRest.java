@@ -16,6 +16,10 @@ import il.org.spartan.spartanizer.tipping.*;
  * @author Yossi Gil
  * @since 2015-09-05 */
 public final class InfixDivisonSortRest extends InfixExpressionSortingRest implements TipperCategory.Sorting {
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(DIVIDE);
+  }
+
   @Override protected boolean sort(final List<Expression> ¢) {
     return ExpressionComparator.MULTIPLICATION.sort(¢);
   }
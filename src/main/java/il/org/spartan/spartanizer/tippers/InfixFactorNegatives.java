@@ -87,6 +87,10 @@ public final class InfixFactorNegatives extends CarefulTipper<InfixExpression> i
     return "Use at most one arithmetical negation, for first factor of " + ¢.getOperator();
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(TIMES, DIVIDE);
+  }
+
   @Override public Tip tip(final InfixExpression x, final ExclusionManager exclude) {
     final List<Expression> es = gather(x);
     if (es.size() < 2)
@@ -30,6 +30,10 @@ public final class InfixMultiplicationByOne extends ReplaceCurrentNode<InfixExpr
     return "Remove all multiplications by 1 from " + ¢;
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(TIMES);
+  }
+
   @Override public ASTNode replacement(final InfixExpression ¢) {
     return ¢.getOperator() != TIMES ? null : replacement(extract.allOperands(¢));
   }
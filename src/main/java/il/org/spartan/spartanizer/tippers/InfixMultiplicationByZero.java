@@ -34,6 +34,10 @@ public class InfixMultiplicationByZero extends ReplaceCurrentNode<InfixExpressio
     return "Convert" + ¢ + " to 0";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(TIMES);
+  }
+
   @Override public ASTNode replacement(final InfixExpression ¢) {
     if (¢.getOperator() != TIMES || !containsZero(¢) || isContainsSideEffect(¢))
       return null;
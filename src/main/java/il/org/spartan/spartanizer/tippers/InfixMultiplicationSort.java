@@ -18,6 +18,10 @@ import il.org.spartan.spartanizer.tipping.*;
  * @author Yossi Gil
  * @since 2015-07-17 */
 public final class InfixMultiplicationSort extends InfixExpressionSortingFull implements TipperCategory.Sorting {
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(TIMES);
+  }
+
   @Override protected boolean sort(final List<Expression> ¢) {
     return ExpressionComparator.MULTIPLICATION.sort(¢);
   }
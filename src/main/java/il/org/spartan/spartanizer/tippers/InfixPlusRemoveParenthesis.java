@@ -45,6 +45,10 @@ public final class InfixPlusRemoveParenthesis extends ReplaceCurrentNode<InfixEx
     return description();
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(wizard.PLUS2);
+  }
+
   @Override public Expression replacement(final InfixExpression x) {
     if (x.getOperator() != wizard.PLUS2)
       return null;
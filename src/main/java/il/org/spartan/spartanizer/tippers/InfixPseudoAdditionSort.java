@@ -20,6 +20,10 @@ import il.org.spartan.spartanizer.tipping.*;
  * @author Yossi Gil
  * @since 2015-07-17 */
 public final class InfixPseudoAdditionSort extends InfixExpressionSortingFull implements TipperCategory.Sorting {
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(OR, XOR, AND);
+  }
+
   @Override protected boolean sort(final List<Expression> ¢) {
     return ExpressionComparator.ADDITION.sort(¢);
   }
@@ -19,6 +19,10 @@ import il.org.spartan.spartanizer.tipping.*;
  * @author Yossi Gil
  * @since 2015-07-17 */
 public final class InfixSubtractionSort extends InfixExpressionSortingRest implements TipperCategory.Sorting {
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(MINUS2);
+  }
+
   @Override protected boolean sort(final List<Expression> ¢) {
     return ExpressionComparator.ADDITION.sort(¢);
   }
@@ -54,6 +54,10 @@ public final class InfixSubtractionZero extends ReplaceCurrentNode<InfixExpressi
     return "Remove subtraction of 0 in " + ¢;
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(MINUS);
+  }
+
   @Override public ASTNode replacement(final InfixExpression ¢) {
     return ¢.getOperator() != MINUS ? null : replacement(operands(¢));
   }
@@ -32,6 +32,10 @@ public final class InfixTermsZero extends ReplaceCurrentNode<InfixExpression> im
     return "Remove all additions and substructions of 0 to and from " + ¢;
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(PLUS);
+  }
+
   @Override public ASTNode replacement(final InfixExpression ¢) {
     return ¢.getOperator() != PLUS || !type.isNotString(¢) ? null : replacement(extract.allOperands(¢));
   }
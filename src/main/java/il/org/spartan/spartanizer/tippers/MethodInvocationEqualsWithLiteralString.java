@@ -32,6 +32,10 @@ public final class MethodInvocationEqualsWithLiteralString extends ReplaceCurren
     return "Write " + first(arguments(¢)) + "." + step.name(¢) + "(" + receiver(¢) + ") instead of " + ¢;
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.arity(1).child(ASTNode.STRING_LITERAL);
+  }
+
   @Override public ASTNode replacement(final MethodInvocation i) {
     final SimpleName n = name(i);
     if (!mns.contains(n + ""))
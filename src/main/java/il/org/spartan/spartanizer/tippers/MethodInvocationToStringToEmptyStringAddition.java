@@ -24,6 +24,10 @@ public final class MethodInvocationToStringToEmptyStringAddition extends Replace
     return "Append \"\" instead of calling toString(). Rewrite as \"\" +" + (receiver == null ? "x" : receiver);
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.arity(0);
+  }
+
   @Override public ASTNode replacement(final MethodInvocation i) {
     if (!"toString".equals(step.name(i).getIdentifier()) || !arguments(i).isEmpty() || iz.expressionStatement(parent(i)))
       return null;
@@ -31,6 +31,10 @@ public final class MethodInvocationValueOfBooleanConstant extends ReplaceCurrent
     return "Replace valueOf (" + onlyArgument(¢) + ") with Boolean." + asString(az.booleanLiteral(onlyArgument(¢)));
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.arity(1).child(ASTNode.BOOLEAN_LITERAL);
+  }
+
   @Override public Expression replacement(final MethodInvocation ¢) {
     return !"valueOf".equals(step.name(¢).getIdentifier()) ? null : replacement(step.receiver(¢), onlyArgument(¢));
   }
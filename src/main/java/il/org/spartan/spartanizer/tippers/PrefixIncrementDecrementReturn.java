@@ -48,4 +48,8 @@ public final class PrefixIncrementDecrementReturn extends ReplaceToNextStatement
     r.replace(s, subject.operand(x).toReturn(), g);
     return r;
   }
+
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(INCREMENT, DECREMENT);
+  }
 }
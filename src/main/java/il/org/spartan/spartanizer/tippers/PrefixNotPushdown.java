@@ -110,6 +110,10 @@ public final class PrefixNotPushdown extends ReplaceCurrentNode<PrefixExpression
     return "Pushdown logical negation ('!')";
   }
 
+  @Override public Prefilter prefilter() {
+    return Prefilter.operators(PrefixExpression.Operator.NOT);
+  }
+
   @Override public boolean prerequisite(final PrefixExpression ¢) {
     return ¢ != null && az.not(¢) != null && hasOpportunity(az.not(¢));
   }
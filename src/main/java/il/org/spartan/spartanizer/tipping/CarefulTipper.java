@@ -3,16 +3,23 @@ package il.org.spartan.spartanizer.tipping;
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.dispatch.*;
 
 /** A {@link Tipper} in which {@link #tip(ASTNode)} is invoked only if
  * {@link #canTip(ASTNode)} returns true. However, in such cases
- * {@link #tip(ASTNode)} may still return null.
+ * {@link #tip(ASTNode)} may still return null. Since {@link #canTip(ASTNode)}
+ * makes the tip, {@link #canTip(ASTNode, Speculation)} keeps it for the
+ * dispatcher to reuse.
  * @author Yossi Gil
  * @year 2016 */
 public abstract class CarefulTipper<N extends ASTNode> extends Tipper<N> {
   @Override public final boolean canTip(final N ¢) {
+    return canTip(¢, null);
+  }
+
+  @Override public final boolean canTip(final N n, final Speculation s) {
     try {
-      return prerequisite(¢) && tip(¢) != null;
+      return speculate(n, prerequisite(n) ? tip(n) : null, s) != null;
     } catch (final TipperFailure f) {
       monitor.debug(this, f);
       return false;
@@ -2,13 +2,21 @@ package il.org.spartan.spartanizer.tipping;
 
 import org.eclipse.jdt.core.dom.*;
 
-/** A {@link Tipper} in which only the tip has to be implemented.
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** A {@link Tipper} in which only the tip has to be implemented; the tip made
+ * by {@link #canTip(ASTNode, Speculation)} is kept for the dispatcher to
+ * reuse.
  * @author Yossi Gil
  * @year 2016 */
 public abstract class EagerTipper<N extends ASTNode> extends Tipper<N> {
   @Override public final boolean canTip(final N ¢) {
+    return canTip(¢, null);
+  }
+
+  @Override public final boolean canTip(final N n, final Speculation s) {
     try {
-      return this.tip(¢) != null;
+      return speculate(n, tip(n), s) != null;
     } catch (@SuppressWarnings("unused") final TipperFailure __) {
       return false;
     }
@@ -0,0 +1,160 @@
+package il.org.spartan.spartanizer.tipping;
+
+import static org.eclipse.jdt.core.dom.ASTNode.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.ast.navigate.*;
+
+/** A cheap and conservative test of the applicability of a {@link Tipper},
+ * made of the operator of a node, the number of its operands (or arguments),
+ * and the node types of these. A tipper declares its prefilter by overriding
+ * {@link Tipper#prefilter()};
+ * {@link il.org.spartan.spartanizer.dispatch.Toolbox} compiles the prefilters
+ * of all tippers of a node type into a decision table keyed by operator, so
+ * that {@link Tipper#canTip(ASTNode)} is invoked only for plausible tippers.
+ * <p>
+ * A prefilter must never reject a node on which its tipper can tip.
+ * @since 2016 */
+public final class Prefilter {
+  /** The trivial prefilter, which accepts all nodes */
+  public static final Prefilter ANY = new Prefilter(null, 0, Integer.MAX_VALUE, null);
+
+  public static Prefilter operators(final InfixExpression.Operator... ¢) {
+    return ANY.on(¢);
+  }
+
+  public static Prefilter operators(final PrefixExpression.Operator... ¢) {
+    return ANY.on(¢);
+  }
+
+  public static Prefilter operators(final PostfixExpression.Operator... ¢) {
+    return ANY.on(¢);
+  }
+
+  public static Prefilter operators(final Assignment.Operator... ¢) {
+    return ANY.on(¢);
+  }
+
+  public static Prefilter arity(final int ¢) {
+    return ANY.arity(¢, ¢);
+  }
+
+  /** @param ¢ JD
+   * @return the operator of the parameter, or <code><b>null</b></code> if it
+   *         has none */
+  public static Object operator(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case INFIX_EXPRESSION:
+        return ((InfixExpression) ¢).getOperator();
+      case PREFIX_EXPRESSION:
+        return ((PrefixExpression) ¢).getOperator();
+      case POSTFIX_EXPRESSION:
+        return ((PostfixExpression) ¢).getOperator();
+      case ASSIGNMENT:
+        return ((Assignment) ¢).getOperator();
+      default:
+        return null;
+    }
+  }
+
+  /** @param ¢ JD
+   * @return the number of operands of an {@link InfixExpression}, or of
+   *         arguments of a method invocation or an instance creation; -1 for
+   *         all other nodes */
+  public static int arity(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case INFIX_EXPRESSION:
+        return 2 + ((InfixExpression) ¢).extendedOperands().size();
+      case METHOD_INVOCATION:
+        return ((MethodInvocation) ¢).arguments().size();
+      case CLASS_INSTANCE_CREATION:
+        return ((ClassInstanceCreation) ¢).arguments().size();
+      default:
+        return -1;
+    }
+  }
+
+  private final Set<Object> operators;
+  private final int minArity;
+  private final int maxArity;
+  private final int[] childTypes;
+
+  private Prefilter(final Set<Object> operators, final int minArity, final int maxArity, final int[] childTypes) {
+    this.operators = operators;
+    this.minArity = minArity;
+    this.maxArity = maxArity;
+    this.childTypes = childTypes;
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>false</b></code> only if a tipper declaring this
+   *         prefilter cannot tip the parameter */
+  public boolean accepts(final ASTNode ¢) {
+    return (operators == null || operators.contains(operator(¢))) && acceptsOperands(¢);
+  }
+
+  /** Same as {@link #accepts(ASTNode)}, except that the operator is not
+   * checked; used once a decision table has already taken care of it.
+   * @param ¢ JD
+   * @return <code><b>false</b></code> only if a tipper declaring this
+   *         prefilter cannot tip the parameter */
+  public boolean acceptsOperands(final ASTNode ¢) {
+    if (minArity > 0 || maxArity < Integer.MAX_VALUE) {
+      final int $ = arity(¢);
+      if ($ >= 0 && ($ < minArity || $ > maxArity))
+        return false;
+    }
+    return childTypes == null || hasChild(¢);
+  }
+
+  /** @return a new prefilter, which also requires the number of operands to be
+   *         within the given range */
+  public Prefilter arity(final int min, final int max) {
+    return new Prefilter(operators, min, max, childTypes);
+  }
+
+  /** @param ¢ node types, as in {@link ASTNode#getNodeType()}
+   * @return a new prefilter, which also requires that at least one of the
+   *         immediate operands (or arguments) is of one of the given types */
+  public Prefilter child(final int... ¢) {
+    return new Prefilter(operators, minArity, maxArity, ¢);
+  }
+
+  /** @return the operators this prefilter admits, or
+   *         <code><b>null</b></code> if it admits any operator */
+  public Set<Object> operators() {
+    return operators;
+  }
+
+  private boolean hasChild(final ASTNode n) {
+    for (final Object o : operands(n))
+      for (final int ¢ : childTypes)
+        if (((ASTNode) o).getNodeType() == ¢)
+          return true;
+    return false;
+  }
+
+  private Prefilter on(final Object[] os) {
+    return new Prefilter(Collections.unmodifiableSet(new HashSet<>(Arrays.asList(os))), minArity, maxArity, childTypes);
+  }
+
+  private static List<?> operands(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case INFIX_EXPRESSION:
+        final InfixExpression x = (InfixExpression) ¢;
+        final List<Expression> $ = new ArrayList<>(step.extendedOperands(x));
+        $.add(x.getLeftOperand());
+        $.add(x.getRightOperand());
+        return $;
+      case METHOD_INVOCATION:
+        return ((MethodInvocation) ¢).arguments();
+      case CLASS_INSTANCE_CREATION:
+        return ((ClassInstanceCreation) ¢).arguments();
+      default:
+        return Collections.emptyList();
+    }
+  }
+}
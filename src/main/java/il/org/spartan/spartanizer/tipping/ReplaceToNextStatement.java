@@ -14,11 +14,28 @@ public abstract class ReplaceToNextStatement<N extends ASTNode> extends CarefulT
     return next != null && go(ASTRewrite.create(current.getAST()), current, next, null) != null;
   }
 
+  @Override public Tip tip(final N ¢) {
+    return tip(¢, extract.nextStatement(¢));
+  }
+
   @Override public Tip tip(final N n, final ExclusionManager exclude) {
+    return tip(n, exclude, null);
+  }
+
+  @Override public Tip tip(final N n, final ExclusionManager exclude, final Speculation s) {
     final Statement nextStatement = extract.nextStatement(n);
     assert nextStatement != null;
     if (exclude != null)
       exclude.exclude(nextStatement);
+    final Tip $ = speculated(n, s);
+    return $ != null ? $ : tip(n, nextStatement);
+  }
+
+  @Override protected boolean reuses() {
+    return true;
+  }
+
+  private Tip tip(final N n, final Statement nextStatement) {
     return new Tip(description(n), n, this.getClass(), nextStatement) {
       @Override public void go(final ASTRewrite r, final TextEditGroup g) {
         ReplaceToNextStatement.this.go(r, n, nextStatement, g);
@@ -4,6 +4,7 @@ import static java.lang.reflect.Modifier.*;
 
 import java.lang.reflect.*;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.*;
 
 import org.eclipse.jdt.core.dom.*;
 
@@ -19,6 +20,12 @@ import il.org.spartan.spartanizer.engine.*;
  * @since 2015-07-09 */
 public abstract class Tipper<N extends ASTNode> implements TipperCategory {
   private Class<N> myOperandsClass;
+  /** Counters of the tips reused, and made again, by
+   * {@link #tip(ASTNode, ExclusionManager, Speculation)}; the tips themselves
+   * are kept by the dispatcher */
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private Boolean reuses;
 
   /** Determine whether the parameter is "eligible" for application of this
    * instance.
@@ -27,6 +34,17 @@ public abstract class Tipper<N extends ASTNode> implements TipperCategory {
    *         the simplification offered by this object. */
   public abstract boolean canTip(final N n);
 
+  /** Same as {@link #canTip(ASTNode)}, but an instance which makes the tip in
+   * order to answer keeps it, for
+   * {@link #tip(ASTNode, ExclusionManager, Speculation)} to reuse
+   * @param n JD
+   * @param s where to keep the tip, or <code><b>null</b></code>
+   * @return <code><b>true</b></code> <i>iff</i> the argument is eligible for
+   *         the simplification offered by this object. */
+  public boolean canTip(final N n, @SuppressWarnings("unused") final Speculation s) {
+    return canTip(n);
+  }
+
   /** Determines whether this instance can make a {@link Tip} for the parameter
    * instance.
    * @param e JD
@@ -54,10 +72,33 @@ public abstract class Tipper<N extends ASTNode> implements TipperCategory {
     return !isAbstract($.getModifiers()) ? $ : null;
   }
 
+  /** @return how many times
+   *         {@link #tip(ASTNode, ExclusionManager, Speculation)} reused the tip
+   *         made by {@link #canTip(ASTNode, Speculation)} */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /** @return how many times
+   *         {@link #tip(ASTNode, ExclusionManager, Speculation)} found no tip
+   *         made by {@link #canTip(ASTNode, Speculation)} for its node, and
+   *         made one */
+  public long misses() {
+    return misses.sum();
+  }
+
   public String myName() {
     return getClass().getSimpleName();
   }
 
+  /** A cheap test made by the dispatcher prior to {@link #canTip(ASTNode)};
+   * override to declare the operators, arity, or operand types this tipper
+   * works on.
+   * @return a prefilter which never rejects a node this instance can tip */
+  public Prefilter prefilter() {
+    return Prefilter.ANY;
+  }
+
   public Tip tip(final N ¢) throws TipperFailure {
     return tip(¢, null);
   }
@@ -66,6 +107,59 @@ public abstract class Tipper<N extends ASTNode> implements TipperCategory {
     return m != null && m.isExcluded(n) ? null : tip(n);
   }
 
+  /** Same as {@link #tip(ASTNode, ExclusionManager)}, but reuses the tip which
+   * {@link #canTip(ASTNode, Speculation)} kept for the node, if any; a tip made
+   * for a node is the same, whenever it is made, as long as the AST is not
+   * changed meanwhile
+   * @param n JD
+   * @param m JD
+   * @param s where {@link #canTip(ASTNode, Speculation)} kept the tip, or
+   *        <code><b>null</b></code>
+   * @return the tip
+   * @throws TipperFailure */
+  public Tip tip(final N n, final ExclusionManager m, final Speculation s) throws TipperFailure {
+    if (!reuses())
+      return tip(n, m);
+    if (m != null && m.isExcluded(n))
+      return null;
+    final Tip $ = speculated(n, s);
+    return $ != null ? $ : tip(n);
+  }
+
+  /** Keeps a tip made by {@link #canTip(ASTNode, Speculation)}, which the
+   * dispatcher is likely to ask for right away
+   * @param n JD
+   * @param t a tip for this node, or <code><b>null</b></code>
+   * @param s where to keep it, or <code><b>null</b></code>
+   * @return the tip */
+  protected final Tip speculate(final N n, final Tip t, final Speculation s) {
+    return s == null || !reuses() ? t : s.keep(n, t);
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em>
+   *         {@link #tip(ASTNode, ExclusionManager, Speculation)} reuses the tips
+   *         kept by {@link #speculate(ASTNode, Tip, Speculation)}; it does,
+   *         unless {@link #tip(ASTNode, ExclusionManager)} is overridden, since
+   *         an overriding method may make a different tip, or exclude nodes as
+   *         it makes it */
+  protected boolean reuses() {
+    return reuses != null ? reuses.booleanValue() : (reuses = Boolean.valueOf(inherits("tip", ASTNode.class, ExclusionManager.class))).booleanValue();
+  }
+
+  /** Takes the tip which {@link #speculate(ASTNode, Tip, Speculation)} kept for
+   * a node
+   * @param n JD
+   * @param s JD, or <code><b>null</b></code>
+   * @return the tip kept for the node, or <code><b>null</b></code> if none
+   *         was */
+  protected final Tip speculated(final N n, final Speculation s) {
+    if (s == null)
+      return null;
+    final Tip $ = s.take(n);
+    ($ == null ? misses : hits).increment();
+    return $;
+  }
+
   @SuppressWarnings("unchecked") private Class<N> castClass(final Class<?> c2) {
     return (Class<N>) c2;
   }
@@ -82,6 +176,16 @@ public abstract class Tipper<N extends ASTNode> implements TipperCategory {
     return ¢.getDeclaringClass() == getClass();
   }
 
+  /** @return <code><b>true</b></code> <em>iff</em> this instance inherits
+   *         the method, as defined in this class */
+  private boolean inherits(final String name, final Class<?>... parameterTypes) {
+    try {
+      return getClass().getMethod(name, parameterTypes).getDeclaringClass() == Tipper.class;
+    } catch (final NoSuchMethodException x) {
+      return false;
+    }
+  }
+
   private Class<N> lowest(final Class<N> c1, final Class<?> c2) {
     return c2 == null || !ASTNode.class.isAssignableFrom(c2) || c1 != null && !c1.isAssignableFrom(c2) ? c1 : castClass(c2);
   }
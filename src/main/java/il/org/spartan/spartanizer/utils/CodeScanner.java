@@ -0,0 +1,315 @@
+package il.org.spartan.spartanizer.utils;
+
+/** Scans Java code in a single pass, computing at once:
+ * <ol>
+ * <li>the number of tokens, exactly as counted with a
+ * {@link il.org.spartan.java.Tokenizer}, i.e., without comments, white space,
+ * and unknown characters;
+ * <li>the <em>essence</em> of the code: its tokens, without comments, where
+ * white space is kept, as a single space, only between two characters of
+ * identifiers or of number literals;
+ * <li>the number of words of the essence, i.e., of its maximal runs of non
+ * white space characters;
+ * <li>the length of the code after
+ * {@link il.org.spartan.tide#clean(String)}, which collapses white space, and
+ * removes it altogether around operators.
+ * </ol>
+ * An instance may be used to scan many pieces of code, one after the other, but
+ * must not be shared by threads.
+ * @since 2016 */
+public final class CodeScanner {
+  /** Characters around which {@link il.org.spartan.tide#clean(String)}
+   * removes white space */
+  private static final String STICKY = ":/%,{}=?;+><-*|&()^";
+  private static final int TOKEN = 0, SPACE = 1, COMMENT = 2, UNKNOWN = 3;
+
+  /** @param ¢ JD
+   * @return a new instance, which scanned the parameter */
+  public static CodeScanner of(final CharSequence ¢) {
+    return new CodeScanner().scan(¢);
+  }
+
+  private final StringBuilder essence = new StringBuilder();
+  private CharSequence code;
+  private int length;
+  /** Kind of the last lexeme found */
+  private int kind;
+  private int tokens;
+  private int words;
+  /** Whether the essence ends with a non white space character */
+  private boolean inWord;
+  /** Whether white space or a comment was found since the last token */
+  private boolean separated;
+  private int tide;
+  /** Position of the next character to be processed for {@link #tide} */
+  private int tidePosition;
+  /** Whether white space was found since the last non white space character */
+  private boolean tideRun;
+  private char tideLast;
+
+  /** @param ¢ code to scan, replacing the results of any previous scan
+   * @return <code><b>this</b></code>, for easy chaining. */
+  public CodeScanner scan(final CharSequence ¢) {
+    code = ¢;
+    length = ¢.length();
+    essence.setLength(0);
+    tokens = words = tide = tidePosition = 0;
+    inWord = separated = tideRun = false;
+    tideLast = 0;
+    for (int i = 0; i < length;) {
+      final int to = lexeme(i);
+      switch (kind) {
+        case TOKEN:
+          ++tokens;
+          //$FALL-THROUGH$
+        case UNKNOWN:
+          append(i, to);
+          break;
+        default:
+          separated = true;
+      }
+      tide(to);
+      i = to;
+    }
+    code = null;
+    return this;
+  }
+
+  /** @return the essence of the last code scanned */
+  public String essence() {
+    return essence + "";
+  }
+
+  /** @return length of {@link #essence()} */
+  public int essenceLength() {
+    return essence.length();
+  }
+
+  /** @return length of the last code scanned, after
+   *         {@link il.org.spartan.tide#clean(String)} */
+  public int tide() {
+    return tide;
+  }
+
+  /** @return number of tokens of the last code scanned */
+  public int tokens() {
+    return tokens;
+  }
+
+  /** @return number of words of {@link #essence()} */
+  public int words() {
+    return words;
+  }
+
+  private void append(final int from, final int to) {
+    if (separated && inWord && Character.isJavaIdentifierPart(essence.charAt(essence.length() - 1))
+        && Character.isJavaIdentifierPart(code.charAt(from)))
+      append(' ');
+    separated = false;
+    for (int ¢ = from; ¢ < to; ++¢)
+      append(code.charAt(¢));
+  }
+
+  private void append(final char ¢) {
+    essence.append(¢);
+    if (white(¢))
+      inWord = false;
+    else if (!inWord) {
+      ++words;
+      inWord = true;
+    }
+  }
+
+  private boolean at(final int i, final char c) {
+    return i < length && code.charAt(i) == c;
+  }
+
+  private boolean digit(final int ¢) {
+    return ¢ < length && code.charAt(¢) >= '0' && code.charAt(¢) <= '9';
+  }
+
+  private int digits(final int from) {
+    int $ = from;
+    while (digit($))
+      ++$;
+    return $;
+  }
+
+  /** @return end of the comment which ends with the first
+   *         <code>*&#47;</code> at or after the parameter */
+  private int blockCommentEnd(final int from) {
+    for (int $ = from; $ + 1 < length; ++$)
+      if (code.charAt($) == '*' && code.charAt($ + 1) == '/')
+        return $ + 2;
+    return length;
+  }
+
+  /** @return end of the exponent at the parameter, or the parameter, if there
+   *         is no exponent there */
+  private int exponent(final int from) {
+    if (!at(from, 'e') && !at(from, 'E'))
+      return from;
+    final int $ = at(from + 1, '+') || at(from + 1, '-') ? from + 2 : from + 1;
+    return digit($) ? digits($) : from;
+  }
+
+  private int identifierEnd(final int from) {
+    int $ = from;
+    while ($ < length && Character.isJavaIdentifierPart(code.charAt($)))
+      ++$;
+    return $;
+  }
+
+  /** Finds the lexeme at a given position, as
+   * {@link il.org.spartan.java.RawTokenizer} does, and sets {@link #kind} to
+   * its kind
+   * @return end of the lexeme */
+  private int lexeme(final int i) {
+    final char c = code.charAt(i);
+    kind = TOKEN;
+    switch (c) {
+      case ' ':
+      case '\t':
+      case '\f':
+      case '\n':
+      case '\r':
+        kind = SPACE;
+        return i + 1;
+      case '/':
+        if (!at(i + 1, '/') && !at(i + 1, '*'))
+          return operator(i);
+        kind = COMMENT;
+        return at(i + 1, '*') ? blockCommentEnd(i + 2) : lineEnd(i + 2);
+      case '"':
+      case '\'':
+        return literalEnd(i + 1, c);
+      case '@':
+        if (i + 1 < length && Character.isJavaIdentifierStart(code.charAt(i + 1)))
+          return identifierEnd(i + 2);
+        kind = UNKNOWN;
+        return i + 1;
+      case '.':
+        return digit(i + 1) ? number(i) : i + 1;
+      default:
+        if (digit(i))
+          return number(i);
+        if (Character.isJavaIdentifierStart(c))
+          return identifierEnd(i + 1);
+        if ("(){}[];,=><!~?:+-*&|^%".indexOf(c) >= 0)
+          return operator(i);
+        kind = white(c) || Character.isWhitespace(c) ? SPACE : UNKNOWN;
+        return i + 1;
+    }
+  }
+
+  private int lineEnd(final int from) {
+    int $ = from;
+    while ($ < length && code.charAt($) != '\n' && code.charAt($) != '\r')
+      ++$;
+    return $;
+  }
+
+  /** @return end of a string or character literal, which excludes an end of
+   *         line found before the closing quote */
+  private int literalEnd(final int from, final char quote) {
+    for (int $ = from; $ < length; ++$) {
+      final char c = code.charAt($);
+      if (c == quote)
+        return $ + 1;
+      if (c == '\n' || c == '\r')
+        return $;
+      if (c == '\\' && (at($ + 1, quote) || at($ + 1, '\\')))
+        ++$;
+    }
+    return length;
+  }
+
+  /** @return end of the longest number literal at the parameter */
+  private int number(final int i) {
+    int $ = -1;
+    final int decimal = at(i, '0') ? i + 1 : digit(i) ? digits(i) : -1;
+    if (decimal > 0) {
+      $ = suffix(decimal, "lLfFdD");
+      final int exponent = exponent(decimal);
+      if (exponent > decimal)
+        $ = Math.max($, suffix(exponent, "fFdD"));
+    }
+    if (at(i, '0')) {
+      int octal = i + 1;
+      while (at(octal, '0') || at(octal, '1') || at(octal, '2') || at(octal, '3') || at(octal, '4') || at(octal, '5') || at(octal, '6')
+          || at(octal, '7'))
+        ++octal;
+      if (octal > i + 1)
+        $ = Math.max($, suffix(octal, "lL"));
+      if (at(i + 1, 'x') || at(i + 1, 'X')) {
+        int hex = i + 2;
+        while (hex < length && Character.digit(code.charAt(hex), 16) >= 0 && code.charAt(hex) < 128)
+          ++hex;
+        if (hex > i + 2)
+          $ = Math.max($, suffix(hex, "lL"));
+      }
+    }
+    final int point = at(i, '.') ? i : digits(i);
+    if (at(point, '.') && (point > i || digit(point + 1)))
+      $ = Math.max($, suffix(exponent(digits(point + 1)), "fFdD"));
+    return $;
+  }
+
+  private int operator(final int i) {
+    final char c = code.charAt(i), next = i + 1 < length ? code.charAt(i + 1) : 0;
+    switch (c) {
+      case '>':
+        if (next != '>')
+          return next == '=' ? i + 2 : i + 1;
+        if (at(i + 2, '>'))
+          return at(i + 3, '=') ? i + 4 : i + 3;
+        return at(i + 2, '=') ? i + 3 : i + 2;
+      case '<':
+        if (next == '<')
+          return at(i + 2, '=') ? i + 3 : i + 2;
+        return next == '=' ? i + 2 : i + 1;
+      case '&':
+      case '|':
+      case '+':
+      case '-':
+        return next == c || next == '=' ? i + 2 : i + 1;
+      case '=':
+      case '!':
+      case '*':
+      case '/':
+      case '^':
+      case '%':
+        return next == '=' ? i + 2 : i + 1;
+      default:
+        return i + 1;
+    }
+  }
+
+  private int suffix(final int ¢, final String suffixes) {
+    return ¢ < length && suffixes.indexOf(code.charAt(¢)) >= 0 ? ¢ + 1 : ¢;
+  }
+
+  /** Process characters up to the parameter for {@link #tide}: a run of white
+   * space counts as a single character, unless it is at either end, or next
+   * to an operator */
+  private void tide(final int to) {
+    for (; tidePosition < to; ++tidePosition) {
+      final char c = code.charAt(tidePosition);
+      if (white(c)) {
+        tideRun = true;
+        continue;
+      }
+      if (tideRun && tide > 0 && STICKY.indexOf(tideLast) < 0 && STICKY.indexOf(c) < 0 && (c != '!' || !at(tidePosition + 1, '=')))
+        ++tide;
+      tideRun = false;
+      ++tide;
+      tideLast = c;
+    }
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em> the parameter is matched by
+   *         <code>\s</code> in a regular expression */
+  private static boolean white(final char ¢) {
+    return ¢ == ' ' || ¢ == '\t' || ¢ == '\n' || ¢ == '\u000B' || ¢ == '\f' || ¢ == '\r';
+  }
+}
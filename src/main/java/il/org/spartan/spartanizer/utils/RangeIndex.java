@@ -0,0 +1,151 @@
+package il.org.spartan.spartanizer.utils;
+
+import java.util.*;
+
+import il.org.spartan.utils.*;
+
+/** A set of {@link Range}s, kept in a balanced search tree (a treap) ordered
+ * by start, in which every node knows the largest end in its subtree. Finding
+ * all ranges that include a given range takes logarithmic time, plus the
+ * number of ranges found. Ranges are distinguished by identity, so equal
+ * ranges may be added more than once.
+ * @param <R> type of ranges
+ * @since 2016 */
+public final class RangeIndex<R extends Range> {
+  private Node<R> root;
+  private final Map<R, Node<R>> nodes = new IdentityHashMap<>();
+  /** Fixed seed, so that the shape of the tree is reproducible */
+  private final Random random = new Random(0);
+  private long sequence;
+
+  /** @param ¢ JD
+   * @return <code><b>this</b></code>, for easy chaining. */
+  public RangeIndex<R> add(final R ¢) {
+    final Node<R> n = new Node<>(¢, sequence++, random.nextInt());
+    nodes.put(¢, n);
+    root = insert(root, n);
+    return this;
+  }
+
+  /** @param ¢ JD
+   * @return all ranges in this set which include the parameter, in order of
+   *         their start */
+  public List<R> includers(final Range ¢) {
+    final List<R> $ = new ArrayList<>();
+    includers(root, ¢, $);
+    return $;
+  }
+
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  /** @param ¢ a range previously added to this set
+   * @return <code><b>true</b></code> <em>iff</em> the parameter was found and
+   *         removed */
+  public boolean remove(final R ¢) {
+    final Node<R> n = nodes.remove(¢);
+    if (n == null)
+      return false;
+    root = remove(root, n);
+    return true;
+  }
+
+  public int size() {
+    return nodes.size();
+  }
+
+  private static <R extends Range> void includers(final Node<R> n, final Range r, final List<R> $) {
+    if (n == null || n.maxTo < r.to)
+      return;
+    includers(n.left, r, $);
+    if (n.range.from > r.from)
+      return; // so do all ranges to the right
+    if (n.range.to >= r.to)
+      $.add(n.range);
+    includers(n.right, r, $);
+  }
+
+  private static <R extends Range> Node<R> insert(final Node<R> $, final Node<R> n) {
+    if ($ == null)
+      return n;
+    if (n.compareTo($) < 0) {
+      $.left = insert($.left, n);
+      return $.left.priority <= $.priority ? $.update() : rotateRight($);
+    }
+    $.right = insert($.right, n);
+    return $.right.priority <= $.priority ? $.update() : rotateLeft($);
+  }
+
+  private static <R extends Range> Node<R> merge(final Node<R> left, final Node<R> right) {
+    if (left == null)
+      return right;
+    if (right == null)
+      return left;
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      return left.update();
+    }
+    right.left = merge(left, right.left);
+    return right.update();
+  }
+
+  private static <R extends Range> Node<R> remove(final Node<R> $, final Node<R> n) {
+    if ($ == null)
+      return null;
+    if ($ == n)
+      return merge($.left, $.right);
+    if (n.compareTo($) < 0)
+      $.left = remove($.left, n);
+    else
+      $.right = remove($.right, n);
+    return $.update();
+  }
+
+  private static <R extends Range> Node<R> rotateLeft(final Node<R> n) {
+    final Node<R> $ = n.right;
+    n.right = $.left;
+    $.left = n.update();
+    return $.update();
+  }
+
+  private static <R extends Range> Node<R> rotateRight(final Node<R> n) {
+    final Node<R> $ = n.left;
+    n.left = $.right;
+    $.right = n.update();
+    return $.update();
+  }
+
+  /** Ordered by start, then by end in descending order, then by time of
+   * insertion */
+  private static final class Node<R extends Range> implements Comparable<Node<R>> {
+    final R range;
+    final long sequence;
+    final int priority;
+    Node<R> left;
+    Node<R> right;
+    /** Largest end of a range in this subtree */
+    int maxTo;
+
+    Node(final R range, final long sequence, final int priority) {
+      this.range = range;
+      this.sequence = sequence;
+      this.priority = priority;
+      maxTo = range.to;
+    }
+
+    @Override public int compareTo(final Node<R> ¢) {
+      return range.from != ¢.range.from ? Integer.compare(range.from, ¢.range.from)
+          : range.to != ¢.range.to ? Integer.compare(¢.range.to, range.to) : Long.compare(sequence, ¢.sequence);
+    }
+
+    Node<R> update() {
+      maxTo = range.to;
+      if (left != null && left.maxTo > maxTo)
+        maxTo = left.maxTo;
+      if (right != null && right.maxTo > maxTo)
+        maxTo = right.maxTo;
+      return this;
+    }
+  }
+}
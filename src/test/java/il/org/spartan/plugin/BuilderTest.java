@@ -0,0 +1,152 @@
+package il.org.spartan.plugin;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link Builder#update(List, IProgressMonitor, IWorkspace)},
+ * on files, markers and a workspace made of proxies
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class BuilderTest {
+  private static final String TIPPED = "class A { int f() { return 1 * 2; } }";
+  private static final String CLEAN = "class A {}";
+
+  /** A workspace which runs operations right away, and begins and ends their
+   * monitor, as Eclipse does */
+  private static final IWorkspace workspace = proxy(IWorkspace.class, (m, as) -> {
+    if (!"run".equals(m.getName()) || as.length != 4)
+      throw new UnsupportedOperationException(m + "");
+    final IProgressMonitor $ = (IProgressMonitor) as[3];
+    $.beginTask("", 100);
+    ((IWorkspaceRunnable) as[0]).run($);
+    $.done();
+    return null;
+  });
+
+  private static <T> T proxy(final Class<T> c, final Handler h) {
+    return c.cast(Proxy.newProxyInstance(c.getClassLoader(), new Class<?>[] { c }, (p, m, as) -> {
+      switch (m.getName()) {
+        case "equals":
+          return Boolean.valueOf(p == as[0]);
+        case "hashCode":
+          return Integer.valueOf(System.identityHashCode(p));
+        case "toString":
+          return c.getSimpleName() + "@" + System.identityHashCode(p);
+        default:
+          return h.invoke(m, as == null ? new Object[0] : as);
+      }
+    }));
+  }
+
+  private final List<IMarker> markers = new ArrayList<>();
+  private String text = TIPPED;
+  private final IFile file = proxy(IFile.class, (m, as) -> {
+    switch (m.getName()) {
+      case "exists":
+        return Boolean.TRUE;
+      case "getCharset":
+        return StandardCharsets.UTF_8.name();
+      case "getContents":
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+      case "findMarkers":
+        return markers.toArray(new IMarker[markers.size()]);
+      case "createMarker":
+        return marker((String) as[0]);
+      default:
+        throw new UnsupportedOperationException(m + "");
+    }
+  });
+
+  private IMarker marker(final String type) {
+    final Map<String, Object> attributes = new HashMap<>();
+    final List<IMarker> self = new ArrayList<>();
+    final IMarker $ = proxy(IMarker.class, (m, as) -> {
+      switch (m.getName()) {
+        case "setAttribute":
+          return attributes.put((String) as[0], as[1]);
+        case "getAttribute":
+          return attributes.get(as[0]);
+        case "getType":
+          return type;
+        case "delete":
+          return Boolean.valueOf(markers.remove(self.get(0)));
+        default:
+          throw new UnsupportedOperationException(m + "");
+      }
+    });
+    self.add($);
+    markers.add($);
+    return $;
+  }
+
+  @Test public void markersFollowTips() throws CoreException {
+    Builder.update(Collections.singletonList(file), new NullProgressMonitor(), workspace);
+    assert !markers.isEmpty();
+    final List<IMarker> before = new ArrayList<>(markers);
+    Builder.update(Collections.singletonList(file), new NullProgressMonitor(), workspace);
+    azzert.that(markers, is(before));
+    text = CLEAN;
+    Builder.update(Collections.singletonList(file), new NullProgressMonitor(), workspace);
+    assert markers.isEmpty() : markers;
+  }
+
+  @Test public void monitorIsBegunAndEndedOnce() throws CoreException {
+    final List<IFile> fs = new ArrayList<>();
+    for (int ¢ = 0; ¢ < 3 * Builder.BATCH; ++¢)
+      fs.add(file);
+    final Recorder $ = new Recorder();
+    Builder.update(fs, $, workspace);
+    azzert.that($.begun, is(1));
+    azzert.that($.done, is(1));
+    azzert.that($.late, is(0));
+    assert $.worked > 0;
+  }
+
+  @Test public void monitorOfNoFiles() throws CoreException {
+    final Recorder $ = new Recorder();
+    Builder.update(new ArrayList<>(), $, workspace);
+    azzert.that($.begun, is(1));
+    azzert.that($.done, is(1));
+  }
+
+  @FunctionalInterface interface Handler {
+    Object invoke(Method m, Object[] as) throws Throwable;
+  }
+
+  /** Counts the calls made to a monitor */
+  static final class Recorder extends NullProgressMonitor {
+    int begun;
+    int done;
+    /** Work reported once the monitor is done */
+    int late;
+    double worked;
+
+    @Override public void beginTask(final String name, final int totalWork) {
+      ++begun;
+    }
+
+    @Override public void done() {
+      ++done;
+    }
+
+    @Override public void internalWorked(final double work) {
+      worked += work;
+      if (done > 0)
+        ++late;
+    }
+
+    @Override public void worked(final int work) {
+      internalWorked(work);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package il.org.spartan.plugin;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.plugin.Builder.*;
+import il.org.spartan.spartanizer.tippers.*;
+
+/** Unit tests for {@link TipCache}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TipCacheTest {
+  private static List<Suggestion> suggestions(final int n) {
+    final List<Suggestion> $ = new ArrayList<>();
+    for (int ¢ = 0; ¢ < n; ++¢)
+      $.add(new Suggestion("Trimmer", InfixMultiplicationByOne.class, "Remove 1* in " + ¢, 10 * ¢, 10 * ¢ + 3, ¢ + 1));
+    return $;
+  }
+
+  @Test public void evictsLeastRecentlyUsed() {
+    final TipCache c = new TipCache(null, 2);
+    c.put("a", suggestions(1));
+    c.put("b", suggestions(1));
+    assert c.get("a") != null;
+    c.put("c", suggestions(1));
+    azzert.that(c.size(), is(2));
+    assert c.get("a") != null;
+    assert c.get("b") == null;
+    assert c.get("c") != null;
+  }
+
+  @Test public void keyDependsOnContent() {
+    azzert.that(TipCache.key("class A {}".getBytes()), is(TipCache.key("class A {}".getBytes())));
+    assert !TipCache.key("class A {}".getBytes()).equals(TipCache.key("class B {}".getBytes()));
+  }
+
+  @Test public void longDescriptionSavedAndLoaded() throws IOException {
+    final File f = File.createTempFile("tips", ".cache");
+    try {
+      final StringBuilder description = new StringBuilder();
+      while (description.length() < 70_000)
+        description.append("Remove 1* in \u05d0 ");
+      final TipCache c = new TipCache(f, 10);
+      c.put("a", Collections.singletonList(new Suggestion("Trimmer", InfixMultiplicationByOne.class, description + "", 1, 2, 3)));
+      c.save();
+      final TipCache $ = new TipCache(f, 10).load();
+      azzert.that($.size(), is(1));
+      azzert.that($.get("a").get(0).description, is(description + ""));
+    } finally {
+      f.delete();
+    }
+  }
+
+  @Test public void missingFile() {
+    azzert.that(new TipCache(new File("no such file"), 10).load().size(), is(0));
+  }
+
+  @Test public void otherFormatIgnored() throws IOException {
+    final File f = File.createTempFile("tips", ".cache");
+    try {
+      final TipCache c = new TipCache(f, 10);
+      c.put("a", suggestions(2));
+      c.save();
+      try (RandomAccessFile r = new RandomAccessFile(f, "rw")) {
+        r.seek(4);
+        r.writeInt(TipCache.FORMAT - 1);
+      }
+      azzert.that(new TipCache(f, 10).load().size(), is(0));
+    } finally {
+      f.delete();
+    }
+  }
+
+  @Test public void savedAndLoaded() throws IOException {
+    final File f = File.createTempFile("tips", ".cache");
+    try {
+      final TipCache c = new TipCache(f, 10);
+      c.put("a", suggestions(3));
+      c.put("b", suggestions(0));
+      c.save();
+      final TipCache $ = new TipCache(f, 10).load();
+      azzert.that($.size(), is(2));
+      azzert.that($.get("b").size(), is(0));
+      final List<Suggestion> ss = $.get("a");
+      azzert.that(ss.size(), is(3));
+      azzert.that(ss.get(2).key(), is(suggestions(3).get(2).key()));
+      assert ss.get(2).tipperClass == InfixMultiplicationByOne.class;
+    } finally {
+      f.delete();
+    }
+  }
+}
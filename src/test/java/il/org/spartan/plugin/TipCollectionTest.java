@@ -0,0 +1,51 @@
+package il.org.spartan.plugin;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jface.text.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link TipCollection}: a single traversal yields both the
+ * rewrite and the tips applied to it
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TipCollectionTest {
+  private static final String CODE = "class A { int f(int a) { int $ = a; if (a > 0) return $; else return 1 * $; } int g() { return 0 + 1; } }";
+
+  @Test public void countAgreesWithRewrite() {
+    final AtomicInteger counter = new AtomicInteger(0);
+    new Trimmer().createRewrite((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE), counter);
+    azzert.that(new Trimmer().tipsOf((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE), null).size(), is(counter.get()));
+  }
+
+  @Test public void editMatchesTrimmer() throws Exception {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE);
+    final IDocument d = new Document(CODE);
+    new Trimmer().tipsOf(u, null).rewrite().rewriteAST(d, null).apply(d);
+    final IDocument expected = new Document(CODE);
+    new Trimmer().createRewrite((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE)).rewriteAST(expected, null).apply(expected);
+    azzert.that(d.get(), is(expected.get()));
+  }
+
+  @Test public void emptyWhenNothingToDo() {
+    assert new Trimmer().tipsOf((CompilationUnit) makeAST.COMPILATION_UNIT.from("class A {}"), null).isEmpty();
+  }
+
+  @Test public void suggestionsAgreeWithCollector() {
+    azzert.that(new Trimmer().tipsOf((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE), null).suggestions(),
+        is(new Trimmer().collectSuggesions((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE)).size()));
+  }
+
+  @Test public void tipsAreNotEmpty() {
+    final TipCollection $ = new Trimmer().tipsOf((CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE), null);
+    assert !$.isEmpty();
+    azzert.that($.tips().size(), is($.size()));
+  }
+}
@@ -3,6 +3,8 @@ package il.org.spartan.spartanizer.ast.navigate;
 import static il.org.spartan.azzert.*;
 
 import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 
 import org.eclipse.jdt.core.dom.*;
 import org.junit.*;
@@ -10,7 +12,7 @@ import org.junit.*;
 import il.org.spartan.*;
 import il.org.spartan.spartanizer.engine.*;
 
-public final class makeASTTest {
+@SuppressWarnings("static-method") public final class makeASTTest {
   private static final String HELLO_JAVA = "Hello.java";
   public static final String ROOT = "./src/test/resources/";
   private final File f = new File(ROOT + HELLO_JAVA);
@@ -24,4 +26,43 @@ public final class makeASTTest {
     assert ast != null;
     azzert.that(ast, instanceOf(CompilationUnit.class));
   }
+
+  @Test public void byteOrderMarkIsDropped() throws IOException {
+    final File $ = temporary("\uFEFFclass A {}");
+    azzert.that(new String(makeAST.chars($, StandardCharsets.UTF_8)), is("class A {}"));
+  }
+
+  @Test public void charsOfMissingFile() {
+    azzert.isNull(makeAST.chars(new File(ROOT + "no such file.java")));
+    azzert.isNull(makeAST.COMPILATION_UNIT.from(new File(ROOT + "no such file.java")));
+  }
+
+  @Test public void largeFileIsRead() throws IOException {
+    final StringBuilder b = new StringBuilder("class A {\r\n");
+    while (b.length() < 2 * (1 << 20))
+      b.append("  int f").append(b.length()).append(";\r\n");
+    final String code = b.append("}\r\n") + "";
+    azzert.that(makeAST.string(temporary(code)), is(code));
+  }
+
+  @Test public void offsetsAreThoseOfTheFile() throws IOException {
+    final String code = "class A {\r\n  int f() {\r\n    return 1;\r\n  }\r\n}\r\n";
+    final File $ = temporary(code);
+    azzert.that(makeAST.string($), is(code));
+    final ASTNode u = makeAST.COMPILATION_UNIT.from($);
+    final ReturnStatement r = findFirst.instanceOf(ReturnStatement.class, u);
+    azzert.that(code.substring(r.getStartPosition(), r.getStartPosition() + r.getLength()), is("return 1;"));
+  }
+
+  @Test public void stringIsContent() throws IOException {
+    azzert.that(makeAST.string(f), is(new String(Files.readAllBytes(f.toPath()))));
+    azzert.that(makeAST.COMPILATION_UNIT.builder(f) + "", is(makeAST.string(f)));
+  }
+
+  private static File temporary(final String content) throws IOException {
+    final File $ = File.createTempFile("makeAST", ".java");
+    $.deleteOnExit();
+    Files.write($.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return $;
+  }
 }
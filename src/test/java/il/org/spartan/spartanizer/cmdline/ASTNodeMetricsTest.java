@@ -0,0 +1,59 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.ast.safety.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link ASTNodeMetrics}, whose single traversal must agree
+ * with the functions computing each metric on its own
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ASTNodeMetricsTest {
+  private static final String CODE = "class A { /** d */ int f(int a) { int $ = a; { ; if (a > 0) { return $; } } new Object() { void g() { h(); } }; return 1; }"
+      + " abstract void k(); Runnable r = new Runnable() { @Override public void run() { f(1); } }; class B { int m() { { { return 2; } } } } }";
+
+  private static void agrees(final ASTNode n) {
+    final ASTNodeMetrics $ = new ASTNodeMetrics(n);
+    $.computeMetrics();
+    azzert.that($.nodes(), is(count.nodes(n)));
+    azzert.that($.body(), is(metrics.bodySize(n)));
+    azzert.that($.tokens(), is(metrics.tokens(n + "")));
+    azzert.that($.length(), is(n.getLength()));
+    final MethodDeclaration d = az.methodDeclaration(n);
+    azzert.that($.statements(), is(d == null ? -1 : extract.statements(d.getBody()).size()));
+  }
+
+  @Test public void methods() {
+    makeAST.COMPILATION_UNIT.from(CODE).accept(new ASTVisitor() {
+      @Override public boolean visit(final MethodDeclaration ¢) {
+        agrees(¢);
+        return true;
+      }
+    });
+  }
+
+  @Test public void statementsOfBlocksOnly() {
+    final ASTNodeMetrics $ = new ASTNodeMetrics(findFirst.methodDeclaration(makeAST.COMPILATION_UNIT.from(CODE)));
+    $.computeMetrics();
+    azzert.that($.statements(), is(4));
+  }
+
+  @Test public void types() {
+    makeAST.COMPILATION_UNIT.from(CODE).accept(new ASTVisitor() {
+      @Override public boolean visit(final TypeDeclaration ¢) {
+        agrees(¢);
+        return true;
+      }
+    });
+  }
+
+  @Test public void unit() {
+    agrees(makeAST.COMPILATION_UNIT.from(CODE));
+  }
+}
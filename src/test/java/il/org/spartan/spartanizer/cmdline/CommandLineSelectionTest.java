@@ -0,0 +1,106 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for the lazy loading of {@link CommandLineSelection}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class CommandLineSelectionTest {
+  private static final String PATH = "laconization-cases";
+
+  private static WrappedCompilationUnit failing(final Error x) {
+    return new WrappedCompilationUnit((CompilationUnit) null) {
+      @Override public WrappedCompilationUnit build() {
+        throw x;
+      }
+    };
+  }
+
+  private static List<WrappedCompilationUnit> parsed(final int n) {
+    final List<WrappedCompilationUnit> $ = new ArrayList<>();
+    for (int ¢ = 0; ¢ < n; ++¢)
+      $.add(new WrappedCompilationUnit((CompilationUnit) makeAST.COMPILATION_UNIT.from("class A" + ¢ + " {}")));
+    return $;
+  }
+
+  @Test(timeout = 10000) public void closeStopsPrefetching() throws InterruptedException {
+    final CommandLineSelection.Prefetcher $ = new CommandLineSelection.Prefetcher(parsed(50), 1, new FileParser());
+    $.next();
+    $.close();
+    assert !$.hasNext();
+    $.producer.join();
+  }
+
+  @Test(timeout = 10000) public void failureOfPrefetchingIsSeen() {
+    final List<WrappedCompilationUnit> us = parsed(1);
+    us.add(failing(new OutOfMemoryError()));
+    us.addAll(parsed(2));
+    try (CommandLineSelection.Prefetcher $ = new CommandLineSelection.Prefetcher(us, 1, new FileParser())) {
+      assert $.next() == us.get(0);
+      try {
+        $.next();
+        assert false;
+      } catch (final IllegalStateException x) {
+        assert x.getCause() instanceof OutOfMemoryError;
+      }
+      assert !$.hasNext();
+    }
+  }
+
+  @Test(timeout = 10000) public void failureOfUnitIsSkipped() {
+    final List<WrappedCompilationUnit> us = parsed(1);
+    us.add(failing(new StackOverflowError()));
+    us.add(failing(new AssertionError()));
+    us.addAll(parsed(2));
+    final List<WrappedCompilationUnit> $ = new ArrayList<>();
+    try (CommandLineSelection.Prefetcher p = new CommandLineSelection.Prefetcher(us, 1, new FileParser())) {
+      while (p.hasNext())
+        $.add(p.next());
+    }
+    azzert.that($, is(us));
+  }
+
+  @Test public void fromPathIsNotParsed() {
+    final AbstractSelection<CommandLineSelection> s = CommandLineSelection.Util.getFromPath(PATH);
+    for (final WrappedCompilationUnit ¢ : s.inner) {
+      assert ¢.compilationUnit == null;
+      assert ¢.file != null;
+    }
+  }
+
+  @Test public void prefetchedInOrder() {
+    final CommandLineSelection s = (CommandLineSelection) CommandLineSelection.Util.getFromPath(PATH);
+    final List<String> names = new ArrayList<>();
+    for (final WrappedCompilationUnit ¢ : s.prefetched(2)) {
+      assert ¢.compilationUnit != null;
+      names.add(¢.name());
+      ¢.dispose();
+    }
+    azzert.that(names.size(), is(s.size()));
+    for (int ¢ = 0; ¢ < names.size(); ++¢)
+      azzert.that(names.get(¢), is(s.get().get(¢).name()));
+  }
+
+  @Test public void prefetchedOfEmpty() {
+    assert !CommandLineSelection.empty().prefetched(3).iterator().hasNext();
+  }
+
+  @Test public void rebuiltAfterDispose() {
+    final CommandLineSelection s = (CommandLineSelection) CommandLineSelection.Util.getFromPath(PATH);
+    if (s.isEmpty())
+      return;
+    final WrappedCompilationUnit u = s.get().get(0);
+    final String before = u.build().compilationUnit + "";
+    assert u.dispose().compilationUnit == null;
+    azzert.that(u.build().compilationUnit + "", is(before));
+  }
+}
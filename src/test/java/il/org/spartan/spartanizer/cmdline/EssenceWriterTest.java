@@ -0,0 +1,80 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link EssenceWriter}; expected values are those of the
+ * script <code>src/test/resources/essence</code> and of <code>wc</code>
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class EssenceWriterTest {
+  private final StringWriter text = new StringWriter(), essence = new StringWriter();
+  private final EssenceWriter writer = new EssenceWriter(text, essence);
+
+  private EssenceWriter write(final String... ss) throws IOException {
+    for (final String ¢ : ss)
+      writer.write(¢);
+    writer.close();
+    return writer;
+  }
+
+  @Test public void blankLinesAreDropped() throws IOException {
+    write("a\n \t\n\nb\n");
+    azzert.that(essence + "", is("a\nb\n"));
+  }
+
+  @Test public void blockComments() throws IOException {
+    write("int /* a\n * b */ x; /**/ y;\n");
+    azzert.that(essence + "", is("int x;y;\n"));
+  }
+
+  @Test public void commentSplitAcrossWrites() throws IOException {
+    write("int x; /", "/ c\nint /", "* d *", "/ y;\n");
+    azzert.that(essence + "", is("int x;\nint y;\n"));
+  }
+
+  @Test public void counts() throws IOException {
+    write("class A {\n  int a; // b\n}\n");
+    azzert.that(writer.lines(), is(3L));
+    azzert.that(writer.words(), is(8L));
+    azzert.that(essence + "", is("class A{\nint a;\n}\n"));
+    azzert.that(writer.essenceLines(), is(3L));
+    azzert.that(writer.essenceWords(), is(5L));
+    azzert.that(writer.essenceLength(), is(15L));
+  }
+
+  @Test public void lineCommentAtEndIsKept() throws IOException {
+    write("x; // y");
+    azzert.that(essence + "", is("x;//y"));
+  }
+
+  @Test public void lineCommentsBeforeBlockComments() throws IOException {
+    write("a /* b *// c\nd */ e\n");
+    azzert.that(essence + "", is("a e\n"));
+  }
+
+  @Test public void firstSpacedPlusIsSqueezed() throws IOException {
+    write("a  +b +c\n");
+    azzert.that(essence + "", is("a b+c\n"));
+  }
+
+  @Test public void spaces() throws IOException {
+    write("  if ( a == b ) return  c ;  \n");
+    azzert.that(essence + "", is("if(a==b)return c;\n"));
+  }
+
+  @Test public void textIsUnchanged() throws IOException {
+    write("/* a */ b // c\n");
+    azzert.that(text + "", is("/* a */ b // c\n"));
+  }
+
+  @Test public void unclosedBlockComment() throws IOException {
+    write("a /* b\nc\n");
+    azzert.that(essence + "", is("a/*b\nc\n"));
+  }
+}
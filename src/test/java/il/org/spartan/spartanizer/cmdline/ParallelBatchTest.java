@@ -0,0 +1,127 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Unit tests for {@link ParallelBatch}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "static-method", "javadoc" }) public final class ParallelBatchTest {
+  private static List<Integer> inputs(final int n) {
+    final List<Integer> $ = new ArrayList<>();
+    for (int ¢ = 0; ¢ < n; ++¢)
+      $.add(Integer.valueOf(¢));
+    return $;
+  }
+
+  private static List<Integer> run(final int threads, final List<Integer> inputs) {
+    final List<Integer> $ = new ArrayList<>();
+    new ParallelBatch(threads).go(inputs, ¢ -> {
+      if (¢.intValue() % 3 == 0)
+        Thread.yield();
+      return () -> $.add(¢);
+    });
+    return $;
+  }
+
+  @Test public void commitsInInputOrder() {
+    final List<Integer> inputs = inputs(200);
+    azzert.that(run(8, inputs), is(inputs));
+  }
+
+  private static List<Integer> failing(final int threads) {
+    final List<Integer> $ = new ArrayList<>();
+    new ParallelBatch(threads).go(inputs(10), ¢ -> {
+      if (¢.intValue() == 5)
+        throw new IllegalStateException();
+      return () -> {
+        if (¢.intValue() == 7)
+          throw new IllegalStateException();
+        $.add(¢);
+      };
+    });
+    return $;
+  }
+
+  @Test public void failingInputIsSkipped() {
+    final List<Integer> $ = failing(4);
+    azzert.that($.size(), is(8));
+    azzert.that($.get(5), is(Integer.valueOf(6)));
+    azzert.that($.get(6), is(Integer.valueOf(8)));
+  }
+
+  @Test public void errorOfInputIsSkippedSequentially() {
+    final List<Integer> $ = new ArrayList<>();
+    new ParallelBatch(1).go(inputs(5), ¢ -> {
+      if (¢.intValue() == 1)
+        throw new AssertionError();
+      if (¢.intValue() == 2)
+        throw new StackOverflowError();
+      return () -> {
+        if (¢.intValue() == 3)
+          throw new AssertionError();
+        $.add(¢);
+      };
+    });
+    azzert.that($, is(Arrays.asList(Integer.valueOf(0), Integer.valueOf(4))));
+  }
+
+  @Test(expected = OutOfMemoryError.class) public void outOfMemoryEndsTheRun() {
+    new ParallelBatch(1).go(inputs(5), ¢ -> {
+      throw new OutOfMemoryError();
+    });
+  }
+
+  @Test(expected = OutOfMemoryError.class) public void outOfMemoryEndsTheParallelRun() {
+    new ParallelBatch(3).go(inputs(5), ¢ -> {
+      throw new OutOfMemoryError();
+    });
+  }
+
+  @Test public void failingInputIsSkippedWhateverTheThreads() {
+    azzert.that(failing(1), is(failing(4)));
+  }
+
+  @Test public void nullCommitIsIgnored() {
+    new ParallelBatch(3).go(inputs(10), ¢ -> null);
+  }
+
+  @Test public void sequentialRun() {
+    final List<Integer> inputs = inputs(20);
+    azzert.that(run(1, inputs), is(inputs));
+  }
+
+  @Test public void threadsOfNegativeIsDefault() {
+    azzert.that(ParallelBatch.threads("-2"), is(ParallelBatch.THREADS_DEFAULT));
+  }
+
+  @Test public void threadsOfZeroIsAvailableProcessors() {
+    azzert.that(ParallelBatch.threads("0"), is(Runtime.getRuntime().availableProcessors()));
+  }
+
+  @Test public void threadsOfGarbageIsDefault() {
+    azzert.that(ParallelBatch.threads("many"), is(ParallelBatch.THREADS_DEFAULT));
+  }
+
+  @Test public void trimmingConcurrentlyIsDeterministic() {
+    final List<String> inputs = new ArrayList<>();
+    for (int ¢ = 0; ¢ < 40; ++¢)
+      inputs.add("class A" + ¢ + " { int f() { int $ = " + ¢ + "; if (b) return $; else return 1 + $ + 0; } }");
+    final List<String> sequential = new ArrayList<>(), parallel = new ArrayList<>();
+    new ParallelBatch(1).go(inputs, ¢ -> {
+      final String $ = new Trimmer().fixed(¢);
+      return () -> sequential.add($);
+    });
+    new ParallelBatch(6).go(inputs, ¢ -> {
+      final String $ = new Trimmer().fixed(¢);
+      return () -> parallel.add($);
+    });
+    azzert.that(parallel, is(sequential));
+  }
+}
@@ -0,0 +1,176 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Unit tests for {@link SpartanizerDaemon}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "static-method", "javadoc" }) public final class SpartanizerDaemonTest {
+  private static final String CODE = "class A { int f(int a) { int $ = a; return $ + 0; } }";
+
+  /** Sends the token, and then a batch, ended by an empty line, and reads as
+   * many lines as are expected in response, and then one more, which is
+   * <code><b>null</b></code> if the connection was closed */
+  private static List<String> exchange(final SpartanizerDaemon d, final String token, final String batch, final int expected) throws IOException {
+    try (Socket s = new Socket(InetAddress.getLoopbackAddress(), d.port());
+        BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)) {
+      out.write(token + "\n" + batch + (batch.endsWith("\n") ? "\n" : "\n\n"));
+      out.flush();
+      final List<String> $ = new ArrayList<>();
+      for (int ¢ = 0; ¢ < expected; ++¢)
+        $.add(in.readLine());
+      s.shutdownOutput();
+      $.add(in.readLine());
+      return $;
+    }
+  }
+
+  private File tokenFile;
+  private SpartanizerDaemon daemon;
+  private Thread thread;
+
+  @Before public void start() throws IOException {
+    tokenFile = Files.createTempFile("daemon", ".token").toFile();
+    daemon = new SpartanizerDaemon(0, 4, 0, tokenFile);
+    thread = new Thread(daemon::serve);
+    thread.start();
+  }
+
+  @After public void stop() throws InterruptedException {
+    daemon.close();
+    thread.join();
+    tokenFile.delete();
+  }
+
+  /** Sends a batch, as {@link #exchange}, with the token of the daemon */
+  private List<String> send(final SpartanizerDaemon d, final String batch, final int expected) throws IOException {
+    return exchange(d, new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim(), batch, expected).subList(0, expected);
+  }
+
+  @Test public void batchIsAnsweredInOrder() throws IOException {
+    final StringBuilder batch = new StringBuilder();
+    for (int ¢ = 0; ¢ < 8; ++¢)
+      batch.append("trim text 1\n").append("class A" + ¢ + " { int f() { return 1 * 2; } }\n");
+    final List<String> $ = send(daemon, batch + "", 16);
+    for (int ¢ = 0; ¢ < 8; ++¢) {
+      azzert.that($.get(2 * ¢), is("ok 1"));
+      azzert.that($.get(2 * ¢ + 1), is(new Trimmer().fixed("class A" + ¢ + " { int f() { return 1 * 2; } }")));
+    }
+  }
+
+  @Test public void badToken() throws IOException {
+    azzert.that(exchange(daemon, "guess", "ping\n", 1), is(Arrays.asList("error Bad token", null)));
+    azzert.that(exchange(daemon, "POST / HTTP/1.1", "shutdown\n", 1), is(Arrays.asList("error Bad token", null)));
+    assert thread.isAlive();
+  }
+
+  @Test public void badRequests() throws IOException {
+    final List<String> $ = send(daemon, "fly text 1\nclass A {}\ntrim\ntrim disable=Nothing text 0\ntrim file /no/such/file\n", 4);
+    azzert.that($.get(0), is("error Unknown verb: fly"));
+    assert $.get(1).startsWith("error No file and no text") : $.get(1);
+    azzert.that($.get(2), is("error Unknown group: Nothing"));
+    azzert.that($.get(3), is("error Cannot read /no/such/file"));
+  }
+
+  @Test public void disabledGroup() throws IOException {
+    final String code = "class A { int f() { return 1 * 2; } }";
+    azzert.that(send(daemon, "trim disable=InVain,Sorting text 1\n" + code + "\n", 2).get(1), is(new Trimmer(toolbox()).fixed(code)));
+  }
+
+  @Test public void file() throws IOException {
+    final File f = Files.createTempFile("daemon", ".java").toFile();
+    try {
+      Files.write(f.toPath(), CODE.getBytes(StandardCharsets.UTF_8));
+      azzert.that(send(daemon, "trim file " + f, 2).get(1), is(new Trimmer().fixed(CODE)));
+    } finally {
+      f.delete();
+    }
+  }
+
+  @Test public void metrics() throws IOException {
+    final List<String> $ = send(daemon, "metrics text 1\n" + CODE + "\n", 7);
+    azzert.that($.get(0), is("ok 6"));
+    assert $.get(1).startsWith("length " + CODE.length() + " ") : $.get(1);
+  }
+
+  @Test public void ping() throws IOException {
+    azzert.that(send(daemon, "ping\n", 1), is(Collections.singletonList("ok 0")));
+  }
+
+  @Test public void refusedOnceTooManyLines() throws IOException {
+    final List<String> $ = send(daemon, "ping\ntrim text " + (SpartanizerDaemon.MAX_LINES + 1) + "\n", 3);
+    azzert.that($.get(0), is("ok 0"));
+    azzert.that($.get(1), is("error More than " + SpartanizerDaemon.MAX_LINES + " lines in a text"));
+    azzert.isNull($.get(2));
+  }
+
+  @Test public void refusedOnceTooManyRequests() throws IOException {
+    final StringBuilder batch = new StringBuilder();
+    for (int ¢ = 0; ¢ <= SpartanizerDaemon.MAX_BATCH; ++¢)
+      batch.append("ping\n");
+    final List<String> $ = send(daemon, batch + "", SpartanizerDaemon.MAX_BATCH + 2);
+    azzert.that($.get(SpartanizerDaemon.MAX_BATCH - 1), is("ok 0"));
+    azzert.that($.get(SpartanizerDaemon.MAX_BATCH), is("error More than " + SpartanizerDaemon.MAX_BATCH + " requests in a batch"));
+    azzert.isNull($.get(SpartanizerDaemon.MAX_BATCH + 1));
+  }
+
+  @Test public void shutdown() throws IOException, InterruptedException {
+    azzert.that(send(daemon, "ping\nshutdown\n", 2).get(1), is("ok 0"));
+    thread.join(30000);
+    assert !thread.isAlive();
+  }
+
+  @Test public void stopsWhenIdle() throws IOException, InterruptedException {
+    final File f = Files.createTempFile("idle", ".token").toFile();
+    final Thread t = new Thread(new SpartanizerDaemon(0, 1, 100, f)::serve);
+    t.start();
+    t.join(10000);
+    assert !t.isAlive();
+    assert !f.exists();
+  }
+
+  @Test public void textKeepsLines() throws IOException {
+    final List<String> $ = send(daemon, "trim text 3\nclass A {\n  int f() { return 1 * 2; }\n}\n", 4);
+    azzert.that($.get(0), is("ok 3"));
+    azzert.that(String.join("\n", $.subList(1, 4)), is(new Trimmer().fixed("class A {\n  int f() { return 1 * 2; }\n}")));
+  }
+
+  @Test public void tokenAfterGarbageIsBad() throws IOException {
+    final String token = new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim();
+    final char[] garbage = new char[10 * token.length()];
+    Arrays.fill(garbage, 'x');
+    azzert.that(exchange(daemon, new String(garbage) + token, "ping\n", 1), is(Arrays.asList("error Bad token", null)));
+    azzert.that(send(daemon, "ping\n", 1).get(0), is("ok 0"));
+  }
+
+  @Test public void tokenFileIsPrivate() throws IOException {
+    assert tokenFile.length() > 16;
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+      azzert.that(Files.getPosixFilePermissions(tokenFile.toPath()), is(PosixFilePermissions.fromString("rw-------")));
+  }
+
+  @Test public void tips() throws IOException {
+    final List<String> $ = send(daemon, "tips text 1\n" + CODE + "\n", 1);
+    assert $.get(0).startsWith("ok ") && !"ok 0".equals($.get(0)) : $.get(0);
+  }
+
+  private static Toolbox toolbox() {
+    final Toolbox $ = Toolbox.defaultInstance().mutableCopy();
+    $.disable(TipperCategory.InVain.class);
+    $.disable(TipperCategory.Sorting.class);
+    return $;
+  }
+}
@@ -0,0 +1,110 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.factory.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Unit tests for {@link Convergence}, and for its guard of
+ * {@link Trimmer#fixed(String)} against tippers which undo each other
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ConvergenceTest {
+  /** Converts <code>a &lt; b</code> to <code>b &gt; a</code> */
+  static final class LessToGreater extends ReplaceCurrentNode<InfixExpression> implements TipperCategory.Idiomatic {
+    @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
+      return "Use '>'";
+    }
+
+    @Override public boolean prerequisite(final InfixExpression ¢) {
+      return ¢.getOperator() == InfixExpression.Operator.LESS;
+    }
+
+    @Override public ASTNode replacement(final InfixExpression ¢) {
+      return subject.pair(step.right(¢), step.left(¢)).to(InfixExpression.Operator.GREATER);
+    }
+  }
+
+  /** Converts <code>a &gt; b</code> to <code>b &lt; a</code> */
+  static final class GreaterToLess extends ReplaceCurrentNode<InfixExpression> implements TipperCategory.Idiomatic {
+    @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
+      return "Use '<'";
+    }
+
+    @Override public boolean prerequisite(final InfixExpression ¢) {
+      return ¢.getOperator() == InfixExpression.Operator.GREATER;
+    }
+
+    @Override public ASTNode replacement(final InfixExpression ¢) {
+      return subject.pair(step.right(¢), step.left(¢)).to(InfixExpression.Operator.LESS);
+    }
+  }
+
+  private static final String CODE = "class A { boolean f(int a, int b) { return a < b; } }";
+
+  private static Trimmer oscillating() {
+    return new Trimmer(Toolbox.make(InfixExpression.class, new LessToGreater(), new GreaterToLess()));
+  }
+
+  @Test public void converges() {
+    final Convergence $ = new Convergence("a");
+    assert $.proceed("b", new ArrayList<>());
+    assert $.proceed("c", new ArrayList<>());
+    azzert.isNull($.verdict());
+    azzert.that($.rounds(), is(2));
+  }
+
+  @Test public void cycleIsFound() {
+    final Convergence $ = new Convergence("a");
+    assert $.proceed("b", new ArrayList<>());
+    assert $.proceed("c", new ArrayList<>());
+    assert !$.proceed("b", new ArrayList<>());
+    assert $.verdict().startsWith("rounds 2 to 3 ");
+  }
+
+  @Test public void fixedStopsOnOscillation() {
+    final Trimmer t = oscillating();
+    azzert.that(t.fixed(CODE), is(CODE));
+    azzert.that(t.convergence.rounds(), is(2));
+    assert t.convergence.verdict().contains("[LessToGreater, GreaterToLess]") : t.convergence.verdict();
+  }
+
+  @Test public void fixedIncrementallyStopsOnOscillation() {
+    final Trimmer t = oscillating();
+    azzert.that(t.fixedIncrementally(CODE), is(CODE));
+    assert t.convergence.verdict().contains("GreaterToLess") : t.convergence.verdict();
+  }
+
+  @Test public void fixedWithoutOscillation() {
+    final Trimmer t = new Trimmer();
+    t.fixed("class A { int f() { return 1 * 2; } }");
+    azzert.isNull(t.convergence.verdict());
+  }
+
+  @Test public void roundBudget() {
+    final Convergence $ = new Convergence("", 3, Convergence.MILLIS);
+    assert $.proceed("a", new ArrayList<>());
+    assert $.proceed("aa", new ArrayList<>());
+    assert !$.proceed("aaa", new ArrayList<>());
+    assert $.verdict().startsWith("no fixed point after 3 rounds");
+  }
+
+  @Test public void timeBudget() {
+    final Convergence $ = new Convergence("", Convergence.ROUNDS, -1);
+    assert !$.proceed("a", new ArrayList<>());
+    assert $.verdict().contains("time is up");
+  }
+
+  @Test public void unchangedTextIsCycle() {
+    final Convergence $ = new Convergence("a");
+    assert !$.proceed("a", new ArrayList<>());
+    assert $.verdict().startsWith("round 1 applies tips, but does not change the text");
+  }
+}
@@ -0,0 +1,97 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tippers.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Unit tests for {@link DispatchTable} and {@link Prefilter}: dispatching
+ * through the table must find exactly the tipper a plain linear scan finds.
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DispatchTableTest {
+  private static final String CODE = "class A {" //
+      + " int f(int a, int b, List<String> xs, String s, boolean t) {" //
+      + "  if (xs.size() > 0 && true) a = a + 1;" //
+      + "  if (!(a < b) || false) b -= 1;" //
+      + "  int c = 2 * 3 * a - 0 + b / 1 * 1 + 0, d = +a;" //
+      + "  if (s.equals(\"abc\") == true) return Boolean.valueOf(true) ? c : d;" //
+      + "  ++a;" //
+      + "  return a * -b * -c + xs.toString().length() + (\"\" + s).length() + (a & 1 | b ^ 2);" //
+      + " }" //
+      + "}";
+
+  @SuppressWarnings("unchecked") private static <N extends ASTNode> Tipper<N> linear(final N n) {
+    for (final Tipper<?> $ : Toolbox.defaultInstance().get(n.getNodeType()))
+      if (((Tipper<N>) $).canTip(n))
+        return (Tipper<N>) $;
+    return null;
+  }
+
+  private static void agree(final ASTNode root) {
+    root.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        final Tipper<?> expected;
+        try {
+          expected = linear(¢);
+        } catch (final Exception x) {
+          return; // some tippers may throw, as in the trimmer
+        }
+        final Tipper<?> actual = Toolbox.defaultInstance().firstTipper(¢);
+        azzert.that(¢ + "", actual == null ? null : actual.getClass(), is(expected == null ? null : expected.getClass()));
+      }
+    });
+  }
+
+  @Test public void agreesWithLinearScan() {
+    agree(makeAST.COMPILATION_UNIT.from(CODE));
+  }
+
+  @Test public void agreesWithLinearScanOnLaconizationCases() {
+    final File[] fs = new File("laconization-cases").listFiles((d, name) -> name.endsWith(".java"));
+    if (fs != null)
+      for (final File ¢ : fs)
+        agree(makeAST.COMPILATION_UNIT.from(¢));
+  }
+
+  @Test public void countsAvoidedCalls() {
+    DispatchTable.reset();
+    Toolbox.defaultInstance().firstTipper(makeAST.EXPRESSION.from("a && b"));
+    assert DispatchTable.avoided(ASTNode.INFIX_EXPRESSION) > 0;
+    assert DispatchTable.invoked(ASTNode.INFIX_EXPRESSION) > 0;
+    assert DispatchTable.summary().contains("InfixExpression");
+  }
+
+  @Test public void prefilterOfOperator() {
+    final Prefilter p = Prefilter.operators(InfixExpression.Operator.TIMES);
+    assert p.accepts(makeAST.EXPRESSION.from("a * b"));
+    assert !p.accepts(makeAST.EXPRESSION.from("a + b"));
+    assert !p.accepts(makeAST.EXPRESSION.from("-a"));
+  }
+
+  @Test public void prefilterOfArity() {
+    final Prefilter p = Prefilter.operators(InfixExpression.Operator.PLUS).arity(2, 2);
+    assert p.accepts(makeAST.EXPRESSION.from("a + b"));
+    assert !p.accepts(makeAST.EXPRESSION.from("a + b + c"));
+  }
+
+  @Test public void prefilterOfChild() {
+    final Prefilter p = Prefilter.arity(1).child(ASTNode.STRING_LITERAL);
+    assert p.accepts(makeAST.EXPRESSION.from("s.equals(\"a\")"));
+    assert !p.accepts(makeAST.EXPRESSION.from("s.equals(a)"));
+    assert !p.accepts(makeAST.EXPRESSION.from("s.equals(\"a\", b)"));
+  }
+
+  @Test public void prefilterOfTipper() {
+    azzert.that(new InfixMultiplicationByOne().prefilter().operators(), is(Collections.singleton((Object) InfixExpression.Operator.TIMES)));
+    assert new IfTrueOrFalse().prefilter() == Prefilter.ANY;
+  }
+}
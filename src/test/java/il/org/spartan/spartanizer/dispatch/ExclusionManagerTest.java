@@ -0,0 +1,110 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link ExclusionManager}: checks made during a traversal
+ * must agree with a walk over the ancestors of the node.
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ExclusionManagerTest {
+  static boolean walk(final Set<ASTNode> excluded, final ASTNode n) {
+    for (final ASTNode ¢ : hop.ancestors(n))
+      if (excluded.contains(¢))
+        return true;
+    return false;
+  }
+
+  /** @return a method whose body nests lambdas in anonymous classes in switch
+   *         arms, to the given depth */
+  static String deep(final int depth) {
+    String $ = "return x + 1;";
+    for (int ¢ = 0; ¢ < depth; ++¢)
+      $ = "switch (x) { case " + ¢ + ": return new F() { public int f(int x) { F g = y -> { int z = y * 2; " + $
+          + " }; return g.f(x); } }.f(x); default: return 0; }";
+    return "class A { interface F { int f(int x); } int f(int x) { " + $ + " } }";
+  }
+
+  /** Exclude nodes while traversing, in all the ways tippers do, and compare */
+  private static void agree(final ASTNode root, final long seed) {
+    final Random r = new Random(seed);
+    final int[] checks = { 0 };
+    root.accept(new DispatchingVisitor() {
+      @Override protected <N extends ASTNode> boolean go(final N n) {
+        azzert.that(n + "", exclude.isExcluded(n), is(walk(exclude.inner, n)));
+        ++checks[0];
+        switch (r.nextInt(20)) {
+          case 0:
+            exclude.exclude(n);
+            break;
+          case 1:
+            if (n.getParent() != null)
+              exclude.exclude(n.getParent());
+            break;
+          case 2:
+            final ASTNode next = extract.nextStatement(n);
+            if (next != null)
+              exclude.exclude(next);
+            break;
+          case 3:
+            exclude.unExclude(n.getParent());
+            break;
+          default:
+            break;
+        }
+        azzert.that(exclude.isExcluded(n), is(walk(exclude.inner, n)));
+        return true;
+      }
+    });
+    assert checks[0] > 0;
+  }
+
+  @Test public void agreesOnDeepNesting() {
+    for (long seed = 0; seed < 10; ++seed)
+      agree(makeAST.COMPILATION_UNIT.from(deep(6)), seed);
+  }
+
+  @Test public void agreesOnSubtree() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(deep(3));
+    final ASTNode inner = (ASTNode) ((TypeDeclaration) u.types().get(0)).bodyDeclarations().get(1);
+    for (long seed = 0; seed < 10; ++seed)
+      agree(inner, seed);
+  }
+
+  @Test public void excludedAncestorOfRoot() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(deep(2));
+    final TypeDeclaration t = (TypeDeclaration) u.types().get(0);
+    final ASTNode m = (ASTNode) t.bodyDeclarations().get(1);
+    final boolean[] all = { true };
+    final DispatchingVisitor v = new DispatchingVisitor() {
+      @Override protected <N extends ASTNode> boolean go(final N n) {
+        all[0] &= exclude.isExcluded(n);
+        return true;
+      }
+    };
+    v.exclude.exclude(t);
+    m.accept(v);
+    assert all[0];
+  }
+
+  @Test public void withoutTraversal() {
+    final ASTNode u = makeAST.COMPILATION_UNIT.from(deep(1));
+    final ExclusionManager m = new ExclusionManager();
+    final TypeDeclaration t = (TypeDeclaration) ((CompilationUnit) u).types().get(0);
+    assert !m.isExcluded(t);
+    m.exclude(t);
+    assert m.isExcluded(t);
+    assert m.isExcluded((ASTNode) t.bodyDeclarations().get(0));
+    assert !m.isExcluded(u);
+    m.unExclude(t);
+    assert !m.isExcluded(t);
+  }
+}
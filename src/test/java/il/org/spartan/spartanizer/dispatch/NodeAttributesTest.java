@@ -0,0 +1,86 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link NodeAttributes}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class NodeAttributesTest {
+  private static final NodeAttributes.Key<String> key = new NodeAttributes.Key<>();
+  private static final String CODE = "/** [[SuppressWarningsSpartan]] */ class A {\n" //
+      + "  int f() { return 1 + 2; }\n" //
+      + "  /** [[EnableWarningsSpartan]] */ int g() { return 3 + 4; }\n" //
+      + "}\n" //
+      + "class B { int h() { return 5 + 6; } }";
+
+  private static List<ASTNode> nodes(final ASTNode n) {
+    final List<ASTNode> $ = new ArrayList<>();
+    n.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        $.add(¢);
+      }
+    });
+    return $;
+  }
+
+  private static MethodDeclaration method(final CompilationUnit u, final String name) {
+    for (final MethodDeclaration $ : methods(u))
+      if (name.equals($.getName().getIdentifier()))
+        return $;
+    return null;
+  }
+
+  private static List<MethodDeclaration> methods(final CompilationUnit u) {
+    final List<MethodDeclaration> $ = new ArrayList<>();
+    u.accept(new ASTVisitor() {
+      @Override public boolean visit(final MethodDeclaration ¢) {
+        $.add(¢);
+        return true;
+      }
+    });
+    return $;
+  }
+
+  @Test public void nodesAddedLaterHaveNoAttributes() {
+    final CompilationUnit u = into.cu(CODE);
+    final NodeAttributes $ = NodeAttributes.of(u);
+    final SimpleName n = u.getAST().newSimpleName("x");
+    azzert.that($.put(key, n, "x"), is("x"));
+    azzert.isNull($.get(key, n));
+  }
+
+  @Test public void numbersAllNodes() {
+    final CompilationUnit u = into.cu(CODE);
+    azzert.that(NodeAttributes.of(u).size(), is(nodes(u).size()));
+    assert NodeAttributes.of(u) == NodeAttributes.of(method(u, "f"));
+  }
+
+  @Test public void otherRootOfSameAST() {
+    final CompilationUnit u = into.cu(CODE);
+    final NodeAttributes a = NodeAttributes.of(u);
+    final MethodDeclaration d = (MethodDeclaration) ASTNode.copySubtree(u.getAST(), method(u, "f"));
+    final NodeAttributes b = NodeAttributes.of(d);
+    assert a != b;
+    b.put(key, d, "copy");
+    azzert.that(NodeAttributes.of(d.getName()).get(key, d), is("copy"));
+    azzert.isNull(a.get(key, d));
+    azzert.isNull(a.get(key, method(u, "f")));
+  }
+
+  @Test public void valuesByNode() {
+    final CompilationUnit u = into.cu(CODE);
+    final NodeAttributes $ = NodeAttributes.of(u);
+    for (final ASTNode ¢ : nodes(u))
+      $.put(key, ¢, ¢.getClass().getSimpleName());
+    for (final ASTNode ¢ : nodes(u))
+      azzert.that($.get(key, ¢), is(¢.getClass().getSimpleName()));
+  }
+}
@@ -0,0 +1,98 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tippers.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Unit tests for the reuse, by
+ * {@link Tipper#tip(ASTNode, ExclusionManager, Speculation)}, of the tip made
+ * by {@link Tipper#canTip(ASTNode, Speculation)}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class SpeculationTest {
+  @Test public void excludedNodeIsNotTipped() throws TipperFailure {
+    final InfixMultiplicationByOne t = new InfixMultiplicationByOne();
+    final InfixExpression e = (InfixExpression) makeAST.EXPRESSION.from("a * 1");
+    final Speculation s = new Speculation();
+    assert t.canTip(e, s);
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(e);
+    azzert.isNull(t.tip(e, m, s));
+  }
+
+  @Test public void laconizationCasesReuseTips() {
+    final File[] fs = new File("laconization-cases").listFiles((d, name) -> name.endsWith(".java"));
+    if (fs == null || fs.length == 0)
+      return;
+    final Toolbox toolbox = Toolbox.freshCopyOfAllTippers();
+    for (final File ¢ : fs)
+      new Trimmer(toolbox).fixed(makeAST.string(¢));
+    assert !toolbox.speculations().isEmpty();
+    assert toolbox.speculations().contains(" reused, ");
+  }
+
+  @Test public void otherNodeMisses() throws TipperFailure {
+    final InfixMultiplicationByOne t = new InfixMultiplicationByOne();
+    final InfixExpression e1 = (InfixExpression) makeAST.EXPRESSION.from("a * 1"), e2 = (InfixExpression) makeAST.EXPRESSION.from("b * 1");
+    final Speculation s = new Speculation();
+    assert t.canTip(e1, s);
+    assert t.tip(e2, new ExclusionManager(), s) != null;
+    azzert.that(t.hits(), is(0L));
+    azzert.that(t.misses(), is(1L));
+  }
+
+  @Test public void replaceToNextStatementReusesTip() throws TipperFailure {
+    final IfReturnNoElseReturn t = new IfReturnNoElseReturn();
+    final Block b = (Block) makeAST.STATEMENTS.from("if (a) return b; return c;");
+    final IfStatement s = (IfStatement) step.statements(b).get(0);
+    final Speculation p = new Speculation();
+    assert t.canTip(s, p);
+    final ExclusionManager m = new ExclusionManager();
+    assert t.tip(s, m, p) != null;
+    azzert.that(t.hits(), is(1L));
+    assert m.isExcluded(step.statements(b).get(1));
+  }
+
+  @Test public void reusesTipOfCanTip() throws TipperFailure {
+    final InfixMultiplicationByOne t = new InfixMultiplicationByOne();
+    final InfixExpression e = (InfixExpression) makeAST.EXPRESSION.from("a * 1");
+    final Speculation s = new Speculation();
+    assert t.canTip(e, s);
+    final Tip $ = t.tip(e, new ExclusionManager(), s);
+    assert $ != null;
+    azzert.that(t.hits(), is(1L));
+    azzert.that(t.misses(), is(0L));
+    assert t.tip(e, new ExclusionManager(), s) != $;
+    azzert.that(t.misses(), is(1L));
+  }
+
+  @Test public void speculationsOfTraversalsAreApart() throws TipperFailure {
+    final InfixMultiplicationByOne t = new InfixMultiplicationByOne();
+    final InfixExpression e1 = (InfixExpression) makeAST.EXPRESSION.from("a * 1"), e2 = (InfixExpression) makeAST.EXPRESSION.from("b * 1");
+    final Speculation s1 = new Speculation(), s2 = new Speculation();
+    assert t.canTip(e1, s1);
+    assert t.canTip(e2, s2);
+    assert t.tip(e1, new ExclusionManager(), s1) != null;
+    assert t.tip(e2, new ExclusionManager(), s2) != null;
+    azzert.that(t.hits(), is(2L));
+    azzert.that(t.misses(), is(0L));
+  }
+
+  @Test public void withoutSpeculationNothingIsKept() throws TipperFailure {
+    final InfixMultiplicationByOne t = new InfixMultiplicationByOne();
+    final InfixExpression e = (InfixExpression) makeAST.EXPRESSION.from("a * 1");
+    assert t.canTip(e);
+    assert t.tip(e, new ExclusionManager()) != null;
+    azzert.that(t.hits(), is(0L));
+    azzert.that(t.misses(), is(0L));
+  }
+}
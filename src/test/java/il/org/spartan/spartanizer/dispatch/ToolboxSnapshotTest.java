@@ -0,0 +1,80 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.cmdline.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tippers.*;
+
+/** Unit tests for the shared, immutable {@link Toolbox#defaultInstance()}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ToolboxSnapshotTest {
+  @Test public void defaultInstanceIsFrozen() {
+    assert Toolbox.defaultInstance().frozen();
+  }
+
+  @Test public void defaultInstanceIsShared() {
+    azzert.that(Toolbox.defaultInstance(), is(Toolbox.defaultInstance()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class) public void defaultInstanceRejectsAdditions() {
+    Toolbox.defaultInstance().add(InfixExpression.class, new InfixMultiplicationSort());
+  }
+
+  @Test public void disablingDoesNotAffectDefaultInstance() {
+    final int before = Toolbox.defaultInstance().tippersCount();
+    final InteractiveSpartanizer s = new InteractiveSpartanizer().disable(TipperCategory.Nanos.class);
+    assert !s.toolbox.frozen();
+    assert s.toolbox.tippersCount() <= before;
+    azzert.that(Toolbox.defaultInstance().tippersCount(), is(before));
+  }
+
+  @Test public void fingerprintOfSameTippers() {
+    final String before = Toolbox.defaultInstance().fingerprint();
+    Toolbox.refresh();
+    azzert.that(Toolbox.defaultInstance().fingerprint(), is(before));
+    azzert.that(Toolbox.defaultInstance().mutableCopy().fingerprint(), is(before));
+    assert !Toolbox.emptyToolboox().fingerprint().equals(before);
+  }
+
+  @Test public void mutableCopyHasSameTippers() {
+    final Toolbox $ = Toolbox.defaultInstance().mutableCopy();
+    assert !$.frozen();
+    azzert.that($.tippersCount(), is(Toolbox.defaultInstance().tippersCount()));
+    azzert.that($.hooksCount(), is(Toolbox.defaultInstance().hooksCount()));
+  }
+
+  @Test public void refreshMakesNewVersion() {
+    final int before = Toolbox.defaultInstance().version();
+    Toolbox.refresh();
+    assert Toolbox.defaultInstance().version() > before;
+  }
+
+  @Test public void trimmerConfigurationFollowsToolbox() {
+    final Trimmer t = new Trimmer(Toolbox.defaultInstance().mutableCopy());
+    final Object before = t.configuration();
+    azzert.that(t.configuration(), is(before));
+    t.toolbox.disable(TipperCategory.Nanos.class);
+    assert !t.configuration().equals(before);
+  }
+
+  @Test public void trimmerKeepsFrozenPrivateToolbox() {
+    final Toolbox $ = Toolbox.defaultInstance().mutableCopy();
+    $.disable(TipperCategory.Nanos.class);
+    final Trimmer t = new Trimmer($.freeze());
+    t.collectSuggesions((CompilationUnit) makeAST.COMPILATION_UNIT.from("class A { int f(int a) { return a + 0; } }"));
+    azzert.that(t.toolbox, is($));
+  }
+
+  @Test public void trimmerKeepsPrivateToolbox() {
+    final Toolbox $ = Toolbox.make(InfixExpression.class, new InfixMultiplicationSort());
+    final Trimmer t = new Trimmer($);
+    Toolbox.refresh(t);
+    azzert.that(t.toolbox, is($));
+  }
+}
@@ -0,0 +1,65 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jface.text.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link Trimmer#fixedIncrementally(String)}, which must
+ * reach the same fixed point as {@link Trimmer#fixed(String)}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TrimmerIncrementalTest {
+  private static void same(final String from) {
+    azzert.that(new Trimmer().fixedIncrementally(from), is(new Trimmer().fixed(from)));
+  }
+
+  @Test public void editsInFieldsAndMethods() {
+    same("class A { final static int x = 1 * 2; int f(int a) { int $ = a; if (a > 0) return $; else return 1 + $; } }");
+  }
+
+  @Test public void editsInInitializer() {
+    same("class A { static { int a = 2; if (a == 2) System.out.println(a); else System.out.println(a + 1); } }");
+  }
+
+  @Test public void editsInInterface() {
+    same("interface I { public abstract int f(); public static final int x = 1 * 2; }");
+  }
+
+  @Test public void editsInManyMethods() {
+    final StringBuilder $ = new StringBuilder("import java.util.*; public class A {");
+    for (int ¢ = 0; ¢ < 20; ++¢)
+      $.append(" int f" + ¢ + "(List<String> xs, int b) { int c = 0; if (xs.size() == 0) return c + " + ¢ + " * 1; else { c = c + b; return c; } }");
+    same($.append(" }") + "");
+  }
+
+  @Test public void editsInNestedClass() {
+    same("class A { class B { int f(int a) { int $ = a; return $ + 0; } } int g() { return 0 + 1; } }");
+  }
+
+  @Test public void lastUnitIsOfTrimmedText() {
+    final Document d = new Document("class A { int f(int a) { int $ = a; return $ + 0; } }");
+    final CompilationUnit u = new Trimmer().fixedIncrementally(d);
+    azzert.that(u.getLength(), is(d.getLength()));
+    azzert.that(u + "", is(makeAST.COMPILATION_UNIT.from(d.get()) + ""));
+  }
+
+  @Test public void lastUnitOfFullRoundsIsOfTrimmedText() {
+    final Document d = new Document("class A { int f(int a) { int $ = a; return $ + 0; } }");
+    final CompilationUnit u = new Trimmer().fixed(d);
+    azzert.that(d.get(), is(new Trimmer().fixed("class A { int f(int a) { int $ = a; return $ + 0; } }")));
+    azzert.that(u + "", is(makeAST.COMPILATION_UNIT.from(d.get()) + ""));
+  }
+
+  @Test public void nothingToDo() {
+    azzert.that(new Trimmer().fixedIncrementally("class A {}"), is("class A {}"));
+  }
+
+  @Test public void suppressedMethod() {
+    same("class A { /** [[SuppressWarningsSpartan]] */ int f(int a) { int $ = a + 0; return $; } int g(int a) { int $ = a + 0; return $; } }");
+  }
+}
@@ -0,0 +1,141 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link disabling}, and the source intervals it keeps in
+ * {@link DisabledIntervals}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class disablingTest {
+  private static final String CODE = "/** [[SuppressWarningsSpartan]] */ class A {\n" //
+      + "  int f() { return 1 + 2; }\n" //
+      + "  /** [[EnableWarningsSpartan]] */ int g() {\n" //
+      + "    /** {@code [[SuppressWarningsSpartan]]} */ class L { int l() { return 3 + 4; } }\n" //
+      + "    return 5 + 6;\n" //
+      + "  }\n" //
+      + "}\n" //
+      + "class B { int h() { return 7 + 8; } }\n" //
+      + "/** [[SuppressWarningsSpartan]] */ @interface C { int c(); }";
+
+  private static <N extends ASTNode> N find(final ASTNode root, final Class<N> c, final String text) {
+    final List<N> $ = new ArrayList<>();
+    root.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        if ($.isEmpty() && c.isInstance(¢) && (¢ + "").contains(text))
+          $.add(c.cast(¢));
+      }
+    });
+    return $.get(0);
+  }
+
+  private static MethodDeclaration method(final ASTNode root, final String name) {
+    final List<MethodDeclaration> $ = new ArrayList<>();
+    root.accept(new ASTVisitor() {
+      @Override public boolean visit(final MethodDeclaration ¢) {
+        if (name.equals(¢.getName().getIdentifier()))
+          $.add(¢);
+        return true;
+      }
+    });
+    return $.get(0);
+  }
+
+  private static TypeDeclaration type(final ASTNode root, final String name) {
+    final List<TypeDeclaration> $ = new ArrayList<>();
+    root.accept(new ASTVisitor() {
+      @Override public boolean visit(final TypeDeclaration ¢) {
+        if (name.equals(¢.getName().getIdentifier()))
+          $.add(¢);
+        return true;
+      }
+    });
+    return $.get(0);
+  }
+
+  private static List<ASTNode> nodes(final ASTNode n) {
+    final List<ASTNode> $ = new ArrayList<>();
+    n.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        $.add(¢);
+      }
+    });
+    return $;
+  }
+
+  private static CompilationUnit scanned() {
+    final CompilationUnit $ = into.cu(CODE);
+    disabling.scan($);
+    return $;
+  }
+
+  @Test public void annotationTypesAreNotDisabled() {
+    assert !disabling.on(find(scanned(), AnnotationTypeMemberDeclaration.class, "c()"));
+  }
+
+  @Test public void disabledSubtree() {
+    final CompilationUnit u = scanned();
+    for (final ASTNode ¢ : nodes(method(u, "f")))
+      assert disabling.on(¢) : ¢;
+    assert disabling.on(type(u, "A"));
+    assert !disabling.on(u);
+  }
+
+  @Test public void disableWithoutDisabler() {
+    final CompilationUnit u = scanned();
+    disabling.disable(method(u, "h"));
+    for (final ASTNode ¢ : nodes(method(u, "h")))
+      assert disabling.on(¢) : ¢;
+    assert !disabling.on(type(u, "B"));
+    assert disabling.on(method(u, "f"));
+  }
+
+  @Test public void disablerInInlineTag() {
+    final CompilationUnit u = scanned();
+    assert disabling.on(method(u, "l"));
+    assert disabling.on(type(u, "L"));
+    assert !disabling.on(find(u, TypeDeclarationStatement.class, "class L"));
+  }
+
+  @Test public void enabledSubtree() {
+    final CompilationUnit u = scanned();
+    assert !disabling.on(method(u, "g"));
+    assert !disabling.on(find(method(u, "g"), ReturnStatement.class, "5 + 6"));
+    assert !disabling.on(find(method(u, "g"), InfixExpression.class, "5 + 6"));
+  }
+
+  @Test public void noJavadocInComments() {
+    final MethodDeclaration d = (MethodDeclaration) ASTNode.copySubtree(AST.newAST(AST.JLS8), method(into.cu(CODE), "g"));
+    disabling.scan(d);
+    assert disabling.on(method(d, "l"));
+    assert !disabling.on(find(d, InfixExpression.class, "5 + 6"));
+  }
+
+  @Test public void notScanned() {
+    assert !disabling.on(method(into.cu(CODE), "f"));
+    assert !disabling.on(null);
+  }
+
+  @Test public void onlyTheRootKeepsAProperty() {
+    final CompilationUnit u = scanned();
+    for (final ASTNode ¢ : nodes(u))
+      assert ¢ == u || ¢.properties().isEmpty() : ¢;
+  }
+
+  @Test public void otherCodeIsNotDisabled() {
+    for (final ASTNode ¢ : nodes(method(scanned(), "h")))
+      assert !disabling.on(¢) : ¢;
+  }
+
+  @Test public void rescanAfterRemovingDisabler() {
+    final CompilationUnit u = scanned();
+    type(u, "A").setJavadoc(null);
+    disabling.scan(u);
+    assert !disabling.on(method(u, "f"));
+    assert disabling.on(method(u, "l"));
+  }
+}
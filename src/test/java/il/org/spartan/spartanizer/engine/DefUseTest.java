@@ -0,0 +1,112 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+
+/** Unit tests for {@link DefUse}, and for its agreement with the collectors of
+ * {@link Collect}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DefUseTest {
+  private static final String CODE = "class A {\n" //
+      + "  int f = a;\n" //
+      + "  void f(int a) {\n" //
+      + "    a.a(a, (a).a, A.a, a.b);\n" //
+      + "    while (a > 0) try { --a; } finally { a(); }\n" //
+      + "    new Object() { int g() { return a; } };\n" //
+      + "    for (int a = 0; a < 2;) ++a;\n" //
+      + "  }\n" //
+      + "}";
+
+  private static List<SimpleName> names(final ASTNode n, final String identifier) {
+    final List<SimpleName> $ = new ArrayList<>();
+    n.accept(new ASTVisitor() {
+      @Override public boolean visit(final SimpleName ¢) {
+        if (identifier.equals(¢.getIdentifier()))
+          $.add(¢);
+        return true;
+      }
+    });
+    return $;
+  }
+
+  private static List<SimpleName> traversed(final SimpleName n, final ASTNode x) {
+    final List<SimpleName> $ = new ArrayList<>();
+    x.accept(new UsesCollector($, n));
+    return $;
+  }
+
+  private final CompilationUnit u = into.cu(CODE);
+  private final MethodDeclaration f = findFirst.instanceOf(MethodDeclaration.class, u);
+  private final List<Statement> ss = step.statements(f.getBody());
+  private final SimpleName a = step.parameters(f).get(0).getName();
+
+  @Test public void agreesWithCollectorOnEveryNode() {
+    f.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        azzert.that(Collect.usesOf(a).in(¢), is(traversed(a, ¢)));
+      }
+    });
+  }
+
+  @Test public void anonymous() {
+    final SimpleName n = names(ss.get(2), "a").get(0);
+    assert DefUse.anonymous(n, ss.get(2));
+    assert !DefUse.anonymous(names(ss.get(1), "a").get(0), ss.get(1));
+  }
+
+  @Test public void declarationIsLeftToCollector() {
+    azzert.isNull(DefUse.uses(a, ss.get(3)));
+    azzert.isNull(DefUse.uses(a, f));
+    azzert.that(Collect.usesOf(a).in(ss.get(3)), is(traversed(a, ss.get(3))));
+  }
+
+  @Test public void definitions() {
+    assert !DefUse.undefined(a, ss.get(1));
+    assert DefUse.undefined(a, ss.get(0));
+    assert DefUse.undefined(a, ss.get(2));
+    assert Collect.definitionsOf(a).in(ss.get(2)).isEmpty();
+  }
+
+  @Test public void guarded() {
+    final List<SimpleName> ns = names(ss.get(1), "a");
+    assert !DefUse.guarded(ns.get(0), ss.get(1));
+    assert DefUse.guarded(ns.get(1), ss.get(1));
+    assert !DefUse.guarded(ns.get(1), ((TryStatement) step.body((WhileStatement) ss.get(1))).getBody());
+    assert DefUse.looped(ns.get(1), ss.get(1));
+  }
+
+  @Test public void notInMethod() {
+    final FieldDeclaration d = findFirst.instanceOf(FieldDeclaration.class, u);
+    assert DefUse.of(d) == null;
+    azzert.isNull(DefUse.uses(a, d));
+    assert !DefUse.absent("a", d);
+  }
+
+  @Test public void sharedByNodesOfMethod() {
+    assert DefUse.of(f) != null;
+    assert DefUse.of(f) == DefUse.of(ss.get(0));
+    assert DefUse.of(ss.get(0)) == DefUse.of(a);
+  }
+
+  @Test public void staleOnChange() {
+    final DefUse $ = DefUse.of(f);
+    ss.remove(0);
+    assert DefUse.of(f) != $;
+    assert DefUse.of(f) == DefUse.of(f);
+  }
+
+  @Test public void usesSkipNonVariableNames() {
+    azzert.that(DefUse.uses(a, ss.get(0)).size(), is(4));
+    azzert.that(DefUse.uses(a, ss.get(0)), is(traversed(a, ss.get(0))));
+    assert DefUse.absent("b", ss.get(1));
+    assert !DefUse.absent("b", ss.get(0));
+  }
+}
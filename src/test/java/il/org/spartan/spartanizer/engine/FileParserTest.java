@@ -0,0 +1,72 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link FileParser}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class FileParserTest {
+  private static final File MISSING = new File("laconization-cases/no such file.java");
+
+  private static List<File> cases() {
+    final List<File> $ = new ArrayList<>();
+    for (final File ¢ : new File("laconization-cases").listFiles())
+      if (¢.getName().endsWith(".java"))
+        $.add(¢);
+    Collections.sort($);
+    return $;
+  }
+
+  @Test public void countsFiles() {
+    final FileParser p = new FileParser();
+    p.parse(cases());
+    azzert.that(p.files(), is(cases().size()));
+    assert p.bytes() > 0;
+    assert p.throughput().contains("files/s");
+  }
+
+  @Test public void missingFileIsNull() {
+    final List<CompilationUnit> $ = new FileParser().parse(Arrays.asList(cases().get(0), MISSING));
+    azzert.that($.size(), is(2));
+    assert $.get(0) != null;
+    assert $.get(1) == null;
+  }
+
+  @Test public void optionsAreShared() {
+    azzert.that(ParserFactory.options(), is(ParserFactory.options()));
+  }
+
+  @Test public void sameAsOneByOne() throws IOException {
+    final List<File> fs = cases();
+    final List<CompilationUnit> us = new FileParser().parse(fs);
+    for (int ¢ = 0; ¢ < fs.size(); ++¢)
+      azzert.that(fs.get(¢) + "", us.get(¢) + "", is(makeAST.COMPILATION_UNIT.from(FileUtils.read(fs.get(¢))) + ""));
+  }
+
+  @Test public void sameFileTwice() {
+    final File f = cases().get(0);
+    final List<CompilationUnit> $ = new FileParser().parse(Arrays.asList(f, f));
+    assert $.get(0) != null;
+    assert $.get(0) != $.get(1);
+    azzert.that($.get(1) + "", is($.get(0) + ""));
+  }
+
+  @Test public void unitsInOrder() {
+    final List<File> fs = new ArrayList<>(cases());
+    fs.add(1, MISSING);
+    final List<CompilationUnit> expected = new FileParser().parse(fs);
+    int i = 0;
+    for (final CompilationUnit ¢ : new FileParser().units(fs))
+      azzert.that(¢ + "", is(expected.get(i++) + ""));
+    azzert.that(i, is(fs.size()));
+  }
+}
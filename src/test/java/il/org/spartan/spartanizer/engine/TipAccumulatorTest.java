@@ -0,0 +1,65 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.rewrite.*;
+import org.eclipse.text.edits.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link TipAccumulator}, which must prune tips exactly as
+ * {@link Trimmer#prune(Tip, List)} does
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TipAccumulatorTest {
+  static Tip tip(final Range ¢) {
+    return new Tip("", ¢, null) {
+      @Override public void go(@SuppressWarnings("unused") final ASTRewrite __, @SuppressWarnings("unused") final TextEditGroup ___) {
+        // not applied
+      }
+    };
+  }
+
+  static List<Tip> tips(final int n, final long seed) {
+    final Random r = new Random(seed);
+    final List<Tip> $ = new ArrayList<>();
+    for (int ¢ = 0; ¢ < n; ++¢) {
+      final int from = r.nextInt(10 * n);
+      $.add(tip(new Range(from, from + r.nextInt(r.nextBoolean() ? 10 : 10 * n))));
+    }
+    return $;
+  }
+
+  @Test public void agreesWithPrune() {
+    for (long seed = 0; seed < 5; ++seed) {
+      final List<Tip> expected = new ArrayList<>();
+      final TipAccumulator a = new TipAccumulator();
+      for (final Tip ¢ : tips(1000, seed)) {
+        Trimmer.prune(¢, expected);
+        Trimmer.prune(¢, a);
+      }
+      final List<Tip> actual = a.into(new ArrayList<>());
+      azzert.that(a.size(), is(expected.size()));
+      azzert.that(actual.size(), is(expected.size()));
+      for (int ¢ = 0; ¢ < expected.size(); ++¢)
+        assert actual.get(¢) == expected.get(¢);
+    }
+  }
+
+  @Test public void ignoresNull() {
+    azzert.that(new TipAccumulator().add(null).size(), is(0));
+  }
+
+  @Test public void includerDropped() {
+    final Tip outer = tip(new Range(0, 10)), inner = tip(new Range(2, 3)), disjoint = tip(new Range(20, 30));
+    final List<Tip> $ = new TipAccumulator().add(outer).add(disjoint).add(inner).into(new ArrayList<>());
+    azzert.that($.size(), is(2));
+    assert $.get(0) == disjoint;
+    assert $.get(1) == inner;
+  }
+}
@@ -0,0 +1,64 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+import static il.org.spartan.spartanizer.engine.type.Primitive.Certain.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for the registry of {@link type}: interning, bounds, and the
+ * per-AST cache of inferred types
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class typeRegistryTest {
+  @Test public void boxedNamesArePrimitive() {
+    assert type.baptize("Integer") == INT;
+    assert type.bring("Character") == CHAR;
+    assert type.have("String");
+  }
+
+  @Test public void cacheIsKeptAtTheRoot() {
+    final Expression e = into.e("1 + 2L");
+    azzert.that(type.of(e), is(LONG));
+    assert e.properties().isEmpty();
+    assert !e.getRoot().properties().isEmpty();
+  }
+
+  @Test public void concurrentBaptismsAgree() throws Exception {
+    final ExecutorService x = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<type>> fs = new ArrayList<>();
+      for (int ¢ = 0; ¢ < 100; ++¢)
+        fs.add(x.submit(() -> type.baptize("Concurrent")));
+      for (final Future<type> ¢ : fs)
+        assert ¢.get() == fs.get(0).get();
+    } finally {
+      x.shutdown();
+    }
+  }
+
+  @Test public void flushKeepsEquality() {
+    final type $ = type.baptize("Flushed");
+    for (int ¢ = 0; ¢ <= type.inner.CAPACITY; ++¢)
+      type.baptize("T" + ¢);
+    azzert.that(type.baptize("Flushed"), is($));
+    assert $.isCertain();
+  }
+
+  @Test public void interned() {
+    assert type.baptize("Interned") == type.baptize("Interned", "other description");
+    assert type.have("Interned");
+    assert type.bring("Interned") == type.baptize("Interned");
+  }
+
+  @Test public void primitives() {
+    for (final type.Primitive.Certain ¢ : type.Primitive.Certain.values())
+      assert type.bring(¢.key()) == ¢;
+    assert !type.have("no such type");
+  }
+}
@@ -0,0 +1,92 @@
+package il.org.spartan.spartanizer.java;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+import java.util.Map.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.java.Environment.*;
+
+/** Unit tests for {@link ScopeTree}, through
+ * {@link Environment#declaresDown(ASTNode)} and
+ * {@link Environment#declaresUp(ASTNode)}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ScopeTreeTest {
+  private static final String CODE = "class A {\n" //
+      + "  int a;\n" //
+      + "  void f(int a) {\n" //
+      + "    int b = 1, c = b;\n" //
+      + "    for (int b = 0; b < 2;) {\n" //
+      + "      int a = 2;\n" //
+      + "    }\n" //
+      + "    new java.util.Map.Entry() { int d; };\n" //
+      + "    int d;\n" //
+      + "  }\n" //
+      + "}";
+
+  private static List<String> keys(final Set<Entry<String, Information>> ¢) {
+    final List<String> $ = new ArrayList<>();
+    for (final Entry<String, Information> e : ¢)
+      $.add(e.getKey());
+    return $;
+  }
+
+  private static Information get(final Set<Entry<String, Information>> ss, final String key) {
+    for (final Entry<String, Information> $ : ss)
+      if (key.equals($.getKey()))
+        return $.getValue();
+    return null;
+  }
+
+  private final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(CODE);
+  private final MethodDeclaration f = findFirst.instanceOf(MethodDeclaration.class, u);
+  private final List<Statement> ss = step.statements(f.getBody());
+
+  @Test public void declaresDownInMethod() {
+    azzert.that(keys(Environment.declaresDown(f)) + "",
+        is("[.f.a, .f.#block0.b, .f.#block0.c, .f.#block0.#for0.b, .f.#block0.#for0.#block0.a, "
+            + ".f.#block0.#anon_extends_java.util.Map.Entry.d, .f.#block0.d]"));
+  }
+
+  @Test public void declaresDownInStatement() {
+    azzert.that(keys(Environment.declaresDown(ss.get(1))) + "", is("[.#for0.b, .#for0.#block0.a]"));
+    azzert.that(keys(Environment.declaresDown(ss.get(0))) + "", is("[.b, .c]"));
+    assert Environment.declaresDown(step.fragments((VariableDeclarationStatement) ss.get(0)).get(0)).isEmpty();
+  }
+
+  @Test public void hiding() {
+    final Set<Entry<String, Information>> $ = Environment.declaresDown(u);
+    assert get($, ".A.f.a").hiding == get($, ".A.a");
+    assert get($, ".A.f.#block0.#for0.b").hiding == get($, ".A.f.#block0.b");
+    assert get($, ".A.f.#block0.#for0.#block0.a").hiding == get($, ".A.f.a");
+    azzert.isNull(get($, ".A.f.#block0.d").hiding);
+    azzert.isNull(get(Environment.declaresDown(f), ".f.a").hiding);
+  }
+
+  @Test public void declaresUp() {
+    final Statement s = step.statements((Block) step.body((ForStatement) ss.get(1))).get(0);
+    azzert.that(keys(Environment.declaresUp(s)) + "", is("[.A.f.#block0.#for0.#block0.a]"));
+    azzert.that(keys(Environment.declaresUp(ss.get(1))) + "", is("[.A.f.#block0.b, .A.f.#block0.c, .A.f.#block0.d]"));
+    assert get(Environment.declaresUp(ss.get(1)), ".A.f.#block0.c").self == step.fragments((VariableDeclarationStatement) ss.get(0)).get(1);
+    assert get(Environment.declaresUp(s), ".A.f.#block0.#for0.#block0.a").hiding.self.getParent() == f;
+  }
+
+  @Test public void sharedByNodesOfUnit() {
+    assert ScopeTree.of(u) == ScopeTree.of(ss.get(0));
+    assert ScopeTree.of(f) == ScopeTree.of(f);
+  }
+
+  @Test public void staleOnChange() {
+    final ScopeTree $ = ScopeTree.of(u);
+    ss.remove(0);
+    assert ScopeTree.of(u) != $;
+    azzert.that(keys(Environment.declaresDown(ss.get(0))) + "", is("[.#for0.b, .#for0.#block0.a]"));
+  }
+}
@@ -90,6 +90,22 @@ import org.junit.*;
         .into("$ = $.replaceFirst(\"^[\\\\[]+L\", \"\").replaceAll(\";$\", \"\");");
   }
 
+  @Test public void testMutation9() {
+    leonidasSays.tipper("$X ? false : true", "!$X", "").turns("a == b ? false : true").into("!(a == b)");
+  }
+
+  @Test public void testMutation10() {
+    leonidasSays.tipper("f($A)", "g($A)", "").turns("f(a, b + c)").into("g(a, b + c)");
+  }
+
+  @Test public void testMutation11() {
+    leonidasSays.tipper("$X.$N()", "$N($X)", "").turns("a.b()").into("b(a)");
+  }
+
+  @Test public void testMutation12() {
+    leonidasSays.tipper("$X.size()", "$X.length", "").turns("f().size()").into("f().length");
+  }
+
   @Test public void testNotTips1() {
     leonidasSays.tipper("$X == null ? $X2 : $X", "$X.defaultsTo($X2)", "defaultsTo").nottips("x17 == 7 ? 2*3 + 4*z().x : x17");
   }
@@ -0,0 +1,76 @@
+package il.org.spartan.spartanizer.utils;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.java.*;
+
+/** Unit tests for {@link CodeScanner}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class CodeScannerTest {
+  private static int tokenizer(final String s) {
+    int $ = 0;
+    for (final Tokenizer t = new Tokenizer(new StringReader(s));;) {
+      final Token ¢ = t.next();
+      if (¢ == null || ¢ == Token.EOF)
+        return $;
+      if (¢.kind != Token.Kind.COMMENT && ¢.kind != Token.Kind.NONCODE)
+        ++$;
+    }
+  }
+
+  @Test public void agreesWithTokenizerAndTideOnCases() throws IOException {
+    final CodeScanner s = new CodeScanner();
+    for (final File f : new File("laconization-cases").listFiles()) {
+      final String code = new String(Files.readAllBytes(f.toPath()), "UTF-8");
+      s.scan(code);
+      azzert.that(f + "", s.tokens(), is(tokenizer(code)));
+      azzert.that(f + "", s.tide(), is(tide.clean(code).length()));
+    }
+  }
+
+  @Test public void commentsAreDropped() {
+    azzert.that(CodeScanner.of("int a; // a\n/* b */ int /** c */ b;").essence(), is("int a;int b;"));
+  }
+
+  @Test public void emptyCode() {
+    final CodeScanner $ = CodeScanner.of("");
+    azzert.that($.tokens(), is(0));
+    azzert.that($.tide(), is(0));
+    azzert.that($.words(), is(0));
+    azzert.that($.essence(), is(""));
+  }
+
+  @Test public void literalsAreKept() {
+    azzert.that(CodeScanner.of("s = \"a  // b\" + '/' ;").essence(), is("s=\"a  // b\"+'/';"));
+  }
+
+  @Test public void numbers() {
+    azzert.that(CodeScanner.of("0x1FL + 1.5e-3f - .5 + 017 + 10").tokens(), is(9));
+  }
+
+  @Test public void operators() {
+    azzert.that(CodeScanner.of("a >>>= b >> c >= d && e != f").tokens(), is(11));
+  }
+
+  @Test public void reusable() {
+    final CodeScanner $ = CodeScanner.of("int a = 1;");
+    azzert.that($.scan("b").essence(), is("b"));
+    azzert.that($.tokens(), is(1));
+    azzert.that($.words(), is(1));
+  }
+
+  @Test public void spaceKeptBetweenIdentifiers() {
+    azzert.that(CodeScanner.of("  public   static void f ( int  x )  { }  ").essence(), is("public static void f(int x){}"));
+  }
+
+  @Test public void words() {
+    azzert.that(CodeScanner.of("public static void f(int x) { return; }").words(), is(5));
+  }
+}
@@ -0,0 +1,74 @@
+package il.org.spartan.spartanizer.utils;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link RangeIndex}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class RangeIndexTest {
+  /** @return ranges nested, overlapping and disjoint, including duplicates */
+  static List<Range> randomRanges(final int n, final long seed) {
+    final Random r = new Random(seed);
+    final List<Range> $ = new ArrayList<>();
+    for (int ¢ = 0; ¢ < n; ++¢) {
+      final int from = r.nextInt(10 * n);
+      $.add(new Range(from, from + r.nextInt(r.nextBoolean() ? 10 : 10 * n)));
+    }
+    return $;
+  }
+
+  @Test public void agreesWithLinearScan() {
+    final List<Range> rs = randomRanges(2000, 1);
+    final RangeIndex<Range> i = new RangeIndex<>();
+    for (final Range ¢ : rs)
+      i.add(¢);
+    for (final Range q : randomRanges(300, 2)) {
+      final Set<Range> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (final Range ¢ : rs)
+        if (q.includedIn(¢))
+          expected.add(¢);
+      final List<Range> actual = i.includers(q);
+      azzert.that(actual.size(), is(expected.size()));
+      assert expected.containsAll(actual);
+    }
+  }
+
+  @Test public void duplicates() {
+    final Range a = new Range(1, 5), b = new Range(1, 5);
+    final RangeIndex<Range> i = new RangeIndex<Range>().add(a).add(b);
+    azzert.that(i.includers(new Range(2, 3)).size(), is(2));
+    assert i.remove(a);
+    assert !i.remove(a);
+    azzert.that(i.includers(new Range(2, 3)).size(), is(1));
+    assert i.includers(new Range(2, 3)).get(0) == b;
+  }
+
+  @Test public void empty() {
+    final RangeIndex<Range> i = new RangeIndex<>();
+    assert i.isEmpty();
+    assert i.includers(new Range(0, 1)).isEmpty();
+  }
+
+  @Test public void includesItself() {
+    final Range a = new Range(3, 7);
+    assert new RangeIndex<Range>().add(a).includers(new Range(3, 7)).get(0) == a;
+  }
+
+  @Test public void removeAll() {
+    final List<Range> rs = randomRanges(500, 3);
+    final RangeIndex<Range> i = new RangeIndex<>();
+    for (final Range ¢ : rs)
+      i.add(¢);
+    azzert.that(i.size(), is(500));
+    for (final Range ¢ : rs)
+      assert i.remove(¢);
+    assert i.isEmpty();
+  }
+}